@@ -110,6 +110,19 @@ public class ValidatePatternActivity extends AppCompatActivity implements Patter
         });
     }
 
+    @Override
+    public void finish() {
+        // Don't touch the pattern after the activity is gone
+        mPatternLockView.removeCallbacks(mClearPatternRunnable);
+        super.finish();
+    }
+
+    @Override
+    protected void onDestroy() {
+        mPatternLockView.removeCallbacks(mClearPatternRunnable);
+        super.onDestroy();
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
@@ -212,13 +225,8 @@ public class ValidatePatternActivity extends AppCompatActivity implements Patter
     }
 
     private void clearPattern() {
-        mPatternLockView.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                mPatternLockView.setDisplayMode(null);
-                mPatternLockView.clearPattern();
-            }
-        }, 1000);
+        mPatternLockView.removeCallbacks(mClearPatternRunnable);
+        mPatternLockView.postDelayed(mClearPatternRunnable, 1000);
     }
 
     private static final int NUM_TRIES = 3;
@@ -234,4 +242,12 @@ public class ValidatePatternActivity extends AppCompatActivity implements Patter
     private TextView mInfoText;
     private PatternLockView mPatternLockView;
     private Intent mAppIntent;
+
+    private final Runnable mClearPatternRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mPatternLockView.setDisplayMode(null);
+            mPatternLockView.clearPattern();
+        }
+    };
 }
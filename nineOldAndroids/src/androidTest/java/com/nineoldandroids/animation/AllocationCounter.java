@@ -0,0 +1,27 @@
+package com.nineoldandroids.animation;
+
+import android.os.Debug;
+
+/**
+ * Counts the objects allocated by the calling thread between {@link #start()} and
+ * {@link #stop()}.
+ */
+@SuppressWarnings("deprecation")
+public final class AllocationCounter {
+    private AllocationCounter() {
+    }
+
+    public static void start() {
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+    }
+
+    /**
+     * @return The number of objects allocated since {@link #start()}.
+     */
+    public static int stop() {
+        final int allocations = Debug.getThreadAllocCount();
+        Debug.stopAllocCounting();
+        return allocations;
+    }
+}
@@ -0,0 +1,85 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.util.Log;
+
+/**
+ * Measures restarting sequential and parallel AnimatorSets of 10 to 1,000 children, whose
+ * dependency graph is only sorted the first time, and checks that a restart allocates nothing.
+ */
+public class AnimatorSetStartBenchmark extends InstrumentationTestCase {
+    private static final String TAG = "AnimatorSetBenchmark";
+    private static final int ROUNDS = 20;
+
+    @UiThreadTest
+    public void testRestart() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            for (int children : new int[] {10, 100, 1000}) {
+                AnimatorSet sequential = new AnimatorSet();
+                sequential.playSequentially(createChildren(children));
+                AnimatorSet together = new AnimatorSet();
+                together.playTogether(createChildren(children));
+
+                Log.i(TAG, children + " children: sequential " + timeRestart(sequential) / 1000 + " us, together " + timeRestart(together) / 1000 + " us per start() and end()");
+            }
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testRestartDoesNotAllocate() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            AnimatorSet set = new AnimatorSet();
+            Animator[] children = createChildren(1000);
+            set.playSequentially(children);
+            set.play(children[0]).with(createChildren(1)[0]);
+            set.setStartDelay(10);
+
+            // Warm up the set and the timing loop
+            restart(set);
+            restart(set);
+
+            AllocationCounter.start();
+            restart(set);
+            final int allocations = AllocationCounter.stop();
+
+            assertEquals(0, allocations);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    private static Animator[] createChildren(int count) {
+        Animator[] children = new Animator[count];
+        for (int i = 0; i < count; i++) {
+            children[i] = ValueAnimator.ofFloat(0f, 1f);
+        }
+        return children;
+    }
+
+    private static long timeRestart(AnimatorSet set) {
+        // Warm up
+        restart(set);
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long start = System.nanoTime();
+            restart(set);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static void restart(AnimatorSet set) {
+        set.start();
+        set.end();
+    }
+}
@@ -0,0 +1,90 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.util.Log;
+
+/**
+ * Checks that an AnimatorSet in timeline mode starts each step of a long sequence exactly when
+ * the previous one ends, and compares that with the drift of a set driven by events.
+ */
+public class AnimatorSetTimelineTest extends InstrumentationTestCase {
+    private static final String TAG = "AnimatorSetTimeline";
+    private static final int CHILDREN = 50;
+    private static final long CHILD_DURATION = 25;
+    private static final long FRAME = 16;
+
+    @UiThreadTest
+    public void testSequenceStartsOnTime() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            final long timelineLag = runSequence(context, true);
+            final long eventLag = runSequence(context, false);
+            Log.i(TAG, "Last of " + CHILDREN + " steps starts " + timelineLag + " ms late on the timeline, " + eventLag + " ms late with events");
+
+            assertEquals(0, timelineLag);
+            assertTrue(eventLag > 0);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testUnboundedChildrenUseEvents() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            ValueAnimator first = ValueAnimator.ofFloat(0f, 1f);
+            first.setDuration(CHILD_DURATION);
+            AnimatorSet nested = new AnimatorSet();
+            nested.play(ValueAnimator.ofFloat(0f, 1f).setDuration(CHILD_DURATION));
+            ValueAnimator last = ValueAnimator.ofFloat(0f, 1f);
+            last.setDuration(CHILD_DURATION);
+
+            AnimatorSet set = new AnimatorSet();
+            set.setTimelineMode(true);
+            set.playSequentially(first, nested, last);
+            set.start();
+
+            // Only the first step is on the timeline; the others wait for the nested set to end
+            assertTrue(first.isStarted());
+            assertFalse(nested.isStarted());
+            assertFalse(last.isStarted());
+
+            long time = 0;
+            while (set.isStarted() && time < 10000) {
+                time += FRAME;
+                context.onFrame(time);
+            }
+            assertFalse(set.isStarted());
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    /**
+     * Plays a sequence to its end and returns how late its last step started, in ms.
+     */
+    private static long runSequence(ValueAnimator.AnimationContext context, boolean timeline) {
+        ValueAnimator[] children = new ValueAnimator[CHILDREN];
+        for (int i = 0; i < CHILDREN; i++) {
+            children[i] = ValueAnimator.ofFloat(0f, 1f);
+            children[i].setDuration(CHILD_DURATION);
+        }
+        AnimatorSet set = new AnimatorSet();
+        set.setTimelineMode(timeline);
+        set.playSequentially((Animator[]) children);
+        set.start();
+
+        long time = 0;
+        while (set.isStarted()) {
+            time += FRAME;
+            context.onFrame(time);
+        }
+        return children[CHILDREN - 1].mStartTime - children[0].mStartTime
+                - (CHILDREN - 1) * CHILD_DURATION;
+    }
+}
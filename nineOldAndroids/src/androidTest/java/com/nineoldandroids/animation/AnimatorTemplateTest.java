@@ -0,0 +1,183 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.util.Log;
+import android.view.View;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * Checks that {@link AnimatorTemplate} reuses finished instances on new targets, reading start
+ * values from each target, and compares obtaining an instance with cloning the animation.
+ */
+public class AnimatorTemplateTest extends InstrumentationTestCase {
+    private static final String TAG = "AnimatorTemplate";
+    private static final int CHILDREN = 10;
+    private static final int ROUNDS = 100;
+
+    @UiThreadTest
+    public void testFinishedInstancesAreReused() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            AnimatorTemplate template = new AnimatorTemplate(createRowAnimation(null));
+            Target first = new Target();
+            Target second = new Target();
+
+            Animator instance = template.obtain(first);
+            instance.addListener(new AnimatorListenerAdapter() {
+            });
+            instance.start();
+            assertEquals(0, template.getPoolSize());
+            instance.end();
+            assertEquals(1, template.getPoolSize());
+
+            assertSame(instance, template.obtain(second));
+            assertEquals(0, template.getPoolSize());
+            assertEquals(1, instance.getListeners().size());
+            for (Animator child : ((AnimatorSet) instance).getChildAnimations()) {
+                assertSame(second, ((ObjectAnimator) child).getTarget());
+            }
+
+            // Canceled instances are reused too, and an empty pool makes a new instance
+            instance.start();
+            instance.cancel();
+            assertSame(instance, template.obtain(first));
+            assertNotSame(instance, template.obtain(first));
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testInstanceIsNotHandedOutDuringItsEnd() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            final AnimatorTemplate template = new AnimatorTemplate(createRowAnimation(null));
+            final Animator[] next = new Animator[1];
+            Animator instance = template.obtain(new Target());
+            instance.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    next[0] = template.obtain(new Target());
+                    next[0].start();
+                }
+            });
+            instance.start();
+            instance.end();
+            assertNotSame(instance, next[0]);
+            assertTrue(next[0].isStarted());
+
+            // Once its end is over, the instance can be handed out
+            assertSame(instance, template.obtain(new Target()));
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testStartValuesAreReadFromEachTarget() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            ObjectAnimator prototype = ObjectAnimator.ofFloat(null, "value", 10f);
+            prototype.setDuration(1000);
+            prototype.setInterpolator(new LinearInterpolator());
+            AnimatorTemplate template = new AnimatorTemplate(prototype);
+
+            Target first = new Target();
+            Animator instance = template.obtain(first);
+            instance.start();
+            instance.end();
+            assertEquals(10f, first.mValue, 0f);
+
+            Target second = new Target();
+            second.mValue = 4f;
+            ValueAnimator reused = (ValueAnimator) template.obtain(second);
+            assertSame(instance, reused);
+            reused.setCurrentPlayTime(500);
+            assertEquals(7f, second.mValue, 1e-5f);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testObtainCost() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            View[] views = new View[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                views[i] = new View(getInstrumentation().getTargetContext());
+            }
+            Animator prototype = createRowAnimation(views[0]);
+            AnimatorTemplate template = new AnimatorTemplate(prototype);
+
+            // Warm up the pool and the instance
+            play(template.obtain(views[0]));
+            play(template.obtain(views[1]));
+
+            long cloneTime = Long.MAX_VALUE;
+            long obtainTime = Long.MAX_VALUE;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                Animator clone = prototype.clone();
+                clone.setTarget(views[i]);
+                cloneTime = Math.min(cloneTime, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                Animator instance = template.obtain(views[i]);
+                obtainTime = Math.min(obtainTime, System.nanoTime() - start);
+                play(instance);
+            }
+            Log.i(TAG, CHILDREN + " children: clone " + cloneTime / 1000 + " us, obtain " + obtainTime / 1000 + " us");
+
+            AllocationCounter.start();
+            play(template.obtain(views[2]));
+            final int allocations = AllocationCounter.stop();
+
+            assertEquals(0, allocations);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    private static Animator createRowAnimation(Object target) {
+        Animator[] children = new Animator[CHILDREN];
+        for (int i = 0; i < CHILDREN; i++) {
+            children[i] = ObjectAnimator.ofFloat(target, i % 2 == 0 ? "alpha" : "translationX", 0f, 1f);
+        }
+        AnimatorSet set = new AnimatorSet();
+        set.playSequentially(children);
+        return set;
+    }
+
+    private static void play(Animator animator) {
+        animator.start();
+        animator.end();
+    }
+
+    public static class Target {
+        public float getValue() {
+            return mValue;
+        }
+
+        public void setValue(float value) {
+            mValue = value;
+        }
+
+        public void setAlpha(float alpha) {
+        }
+
+        public void setTranslationX(float translationX) {
+        }
+
+        float mValue;
+    }
+}
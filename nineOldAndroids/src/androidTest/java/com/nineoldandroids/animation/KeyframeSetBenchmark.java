@@ -0,0 +1,146 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+import android.view.animation.AccelerateInterpolator;
+
+import com.nineoldandroids.animation.Keyframe.FloatKeyframe;
+
+import java.util.ArrayList;
+
+/**
+ * Compares looking up the keyframe interval with {@link KeyframeSet#findInterval(float)} against
+ * a linear scan from the first keyframe, for an animation sweeping forward through sets of
+ * different sizes.
+ */
+public class KeyframeSetBenchmark extends InstrumentationTestCase {
+    private static final String TAG = "KeyframeSetBenchmark";
+    private static final int FRAMES = 10000;
+    private static final int ROUNDS = 20;
+
+    public void testIntervalLookup() {
+        for (int numKeyframes : new int[] {2, 16, 256}) {
+            float[] values = createValues(numKeyframes);
+            FloatKeyframeSet set = (FloatKeyframeSet) KeyframeSet.ofFloat(values);
+            // A list of its own, so that the cursor runs on a set that never created keyframes
+            ArrayList<Keyframe> keyframes = createKeyframes(values);
+
+            // Warm up
+            runCursor(set);
+            runLinear(keyframes);
+
+            long cursor = Long.MAX_VALUE;
+            long linear = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                cursor = Math.min(cursor, runCursor(set));
+                linear = Math.min(linear, runLinear(keyframes));
+            }
+            Log.i(TAG, numKeyframes + " keyframes: cursor " + cursor / FRAMES + " ns/frame, linear " + linear / FRAMES + " ns/frame (" + (float) linear / cursor + "x, sink " + mSink + ")");
+            assertNull(set.mKeyframes);
+        }
+    }
+
+    public void testCursorMatchesLinearScan() {
+        float[] values = createValues(16);
+        FloatKeyframeSet set = (FloatKeyframeSet) KeyframeSet.ofFloat(values);
+        ArrayList<Keyframe> keyframes = createKeyframes(values);
+        for (int frame = 0; frame <= FRAMES; frame++) {
+            final float fraction = (float) frame / FRAMES;
+            assertEquals(linearFloatValue(keyframes, fraction), set.getFloatValue(fraction), 1e-5f);
+        }
+        // Going backwards falls back to the binary search
+        assertEquals(linearFloatValue(keyframes, 0.1f), set.getFloatValue(0.1f), 1e-5f);
+    }
+
+    public void testKeyframesAreCreatedOnlyWhenAsked() {
+        FloatKeyframeSet set = (FloatKeyframeSet) KeyframeSet.ofFloat(0f, 10f, 20f);
+        assertEquals(5f, set.getFloatValue(0.25f), 1e-5f);
+        assertEquals(" 0.0  10.0  20.0  ", set.toString());
+        assertNull(set.mKeyframes);
+
+        // Changes made to the keyframes handed out are picked up
+        ArrayList<Keyframe> keyframes = set.getKeyframes();
+        assertEquals(3, keyframes.size());
+        assertEquals(20f, ((FloatKeyframe) keyframes.get(2)).getFloatValue(), 0f);
+        keyframes.get(2).setValue(40f);
+        assertEquals(25f, set.getFloatValue(0.75f), 1e-5f);
+    }
+
+    public void testChangesToKeyframesPassedInArePickedUp() {
+        Keyframe first = Keyframe.ofFloat(0f, 0f);
+        Keyframe last = Keyframe.ofFloat(1f, 10f);
+        FloatKeyframeSet set = (FloatKeyframeSet) KeyframeSet.ofKeyframe(first, last);
+        // A second set sharing the keyframes sees the changes too
+        FloatKeyframeSet sharing = (FloatKeyframeSet) KeyframeSet.ofKeyframe(first, Keyframe.ofFloat(0.5f, 5f), last);
+        assertEquals(5f, set.getFloatValue(0.5f), 1e-5f);
+
+        last.setValue(20f);
+        assertEquals(10f, set.getFloatValue(0.5f), 1e-5f);
+        assertEquals(12.5f, sharing.getFloatValue(0.75f), 1e-5f);
+
+        last.setInterpolator(new AccelerateInterpolator());
+        assertEquals(5f, set.getFloatValue(0.5f), 1e-5f);
+
+        IntKeyframeSet intSet = (IntKeyframeSet) KeyframeSet.ofKeyframe(Keyframe.ofInt(0f, 0), Keyframe.ofInt(0.5f, 50), Keyframe.ofInt(1f, 100));
+        assertEquals(50, intSet.getIntValue(0.5f));
+        intSet.mKeyframes.get(1).setFraction(0.25f);
+        assertEquals(50, intSet.getIntValue(0.25f));
+    }
+
+    private static float[] createValues(int numKeyframes) {
+        float[] values = new float[numKeyframes];
+        for (int i = 0; i < numKeyframes; i++) {
+            values[i] = (i * 37) % 101;
+        }
+        return values;
+    }
+
+    /**
+     * The keyframes {@link KeyframeSet#ofFloat(float...)} would make of the values.
+     */
+    private static ArrayList<Keyframe> createKeyframes(float[] values) {
+        final int numKeyframes = values.length;
+        ArrayList<Keyframe> keyframes = new ArrayList<Keyframe>(numKeyframes);
+        for (int i = 0; i < numKeyframes; i++) {
+            keyframes.add(Keyframe.ofFloat((float) i / (numKeyframes - 1), values[i]));
+        }
+        return keyframes;
+    }
+
+    /**
+     * The lookup done before the interval cursor: a scan from the first keyframe.
+     */
+    private static float linearFloatValue(ArrayList<Keyframe> keyframes, float fraction) {
+        final int numKeyframes = keyframes.size();
+        FloatKeyframe prevKeyframe = (FloatKeyframe) keyframes.get(0);
+        for (int i = 1; i < numKeyframes; ++i) {
+            FloatKeyframe nextKeyframe = (FloatKeyframe) keyframes.get(i);
+            if (fraction < nextKeyframe.getFraction()) {
+                float intervalFraction = (fraction - prevKeyframe.getFraction()) /
+                        (nextKeyframe.getFraction() - prevKeyframe.getFraction());
+                float prevValue = prevKeyframe.getFloatValue();
+                return prevValue + intervalFraction * (nextKeyframe.getFloatValue() - prevValue);
+            }
+            prevKeyframe = nextKeyframe;
+        }
+        return ((FloatKeyframe) keyframes.get(numKeyframes - 1)).getFloatValue();
+    }
+
+    private long runCursor(FloatKeyframeSet set) {
+        final long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            mSink += set.getFloatValue((float) frame / FRAMES);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long runLinear(ArrayList<Keyframe> keyframes) {
+        final long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            mSink += linearFloatValue(keyframes, (float) frame / FRAMES);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private float mSink;
+}
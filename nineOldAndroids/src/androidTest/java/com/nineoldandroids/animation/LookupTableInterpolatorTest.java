@@ -0,0 +1,81 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * Checks that {@link LookupTableInterpolator} stays within its error bound and is shared per
+ * interpolator, and compares its cost per frame with an interpolator that is slow to evaluate.
+ */
+public class LookupTableInterpolatorTest extends InstrumentationTestCase {
+    private static final String TAG = "LookupTableInterpolator";
+    private static final int FRAMES = 100000;
+    private static final int ROUNDS = 10;
+
+    public void testMatchesSourceWithinBound() {
+        Interpolator source = new AccelerateDecelerateInterpolator();
+        Interpolator table = LookupTableInterpolator.of(source);
+        for (int frame = 0; frame <= FRAMES; frame++) {
+            final float input = (float) frame / FRAMES;
+            assertEquals(source.getInterpolation(input), table.getInterpolation(input), 2e-5f);
+        }
+        assertEquals(source.getInterpolation(0f), table.getInterpolation(0f), 0f);
+        assertEquals(source.getInterpolation(1f), table.getInterpolation(1f), 0f);
+
+        // Outside [0, 1] the source is used
+        Interpolator slow = new SlowInterpolator();
+        assertEquals(slow.getInterpolation(1.25f),
+                LookupTableInterpolator.of(slow).getInterpolation(1.25f), 0f);
+    }
+
+    public void testTableIsSharedPerInterpolator() {
+        Interpolator source = new SlowInterpolator();
+        Interpolator table = LookupTableInterpolator.of(source);
+        assertSame(table, LookupTableInterpolator.of(source));
+        assertSame(table, LookupTableInterpolator.of(table));
+        assertSame(source, ((LookupTableInterpolator) table).getSource());
+        assertNotSame(table, LookupTableInterpolator.of(new SlowInterpolator()));
+        assertNull(LookupTableInterpolator.of(null));
+    }
+
+    public void testLookupCost() {
+        Interpolator source = new SlowInterpolator();
+        Interpolator table = LookupTableInterpolator.of(source);
+
+        // Warm up
+        run(source);
+        run(table);
+
+        long sourceTime = Long.MAX_VALUE;
+        long tableTime = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            sourceTime = Math.min(sourceTime, run(source));
+            tableTime = Math.min(tableTime, run(table));
+        }
+        Log.i(TAG, "Per frame: source " + sourceTime / FRAMES + " ns, table " + tableTime / FRAMES + " ns (" + (float) sourceTime / tableTime + "x, sink " + mSink + ")");
+    }
+
+    private long run(Interpolator interpolator) {
+        final long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            mSink += interpolator.getInterpolation((float) frame / FRAMES);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Stands in for a path or composite interpolator: a damped spring, evaluated with
+     * transcendental functions.
+     */
+    private static class SlowInterpolator implements Interpolator {
+        @Override
+        public float getInterpolation(float input) {
+            return (float) (1 - Math.exp(-6 * input) * Math.cos(4 * Math.PI * input)
+                    + Math.pow(input, 3) * Math.exp(-6));
+        }
+    }
+
+    private float mSink;
+}
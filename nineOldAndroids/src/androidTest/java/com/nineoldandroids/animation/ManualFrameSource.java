@@ -0,0 +1,29 @@
+package com.nineoldandroids.animation;
+
+/**
+ * Leaves the frames to the test, which delivers them through
+ * {@link ValueAnimator.AnimationContext#onFrame(long)}, and counts what it is asked to do.
+ */
+class ManualFrameSource extends AnimationFrameSource {
+    int mCanceled;
+    int mScheduled;
+
+    ManualFrameSource() {
+        super(null);
+    }
+
+    @Override
+    void cancelFrame() {
+        mCanceled++;
+    }
+
+    @Override
+    float getFrameRate() {
+        return 60f;
+    }
+
+    @Override
+    void scheduleFrame() {
+        mScheduled++;
+    }
+}
@@ -0,0 +1,127 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+import android.view.animation.Interpolator;
+
+/**
+ * Checks that {@link MultiTargetAnimator} staggers its targets and computes values once per
+ * offset, and compares its cost per frame with one ObjectAnimator per target.
+ */
+public class MultiTargetAnimatorTest extends InstrumentationTestCase {
+    private static final String TAG = "MultiTargetAnimator";
+    private static final int TARGETS = 100;
+    private static final int GROUPS = 10;
+    private static final int FRAMES = 300;
+    private static final int ROUNDS = 20;
+
+    public void testStaggeredTargets() {
+        Target[] targets = createTargets(4);
+        MultiTargetAnimator animator = MultiTargetAnimator.ofFloat(targets, "value", 0f, 100f);
+        animator.setInterpolator(new CountingInterpolator());
+        animator.setDuration(100);
+        animator.setStagger(50);
+        assertEquals(250, animator.getDuration());
+
+        animator.setCurrentPlayTime(75);
+        assertEquals(75f, targets[0].mValue, 1e-3f);
+        assertEquals(25f, targets[1].mValue, 1e-3f);
+        assertEquals(0f, targets[2].mValue, 0f);
+        assertEquals(0f, targets[3].mValue, 0f);
+        assertEquals(75f, (Float) animator.getAnimatedValue(), 1e-3f);
+
+        animator.setCurrentPlayTime(250);
+        for (Target target : targets) {
+            assertEquals(100f, target.mValue, 0f);
+        }
+    }
+
+    public void testValuesAreComputedOncePerOffset() {
+        Target[] targets = createTargets(TARGETS);
+        MultiTargetAnimator animator = MultiTargetAnimator.ofFloat(targets, "value", 0f, 100f);
+        CountingInterpolator interpolator = new CountingInterpolator();
+        animator.setInterpolator(interpolator);
+        animator.setDuration(100);
+        long[] offsets = new long[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            offsets[i] = (i % GROUPS) * 10;
+        }
+        animator.setStartOffsets(offsets);
+
+        animator.setCurrentPlayTime(50);
+        assertEquals(GROUPS, interpolator.mCalls);
+        for (int i = 0; i < TARGETS; i++) {
+            assertEquals(Math.max(0, 50 - (i % GROUPS) * 10), targets[i].mValue, 1e-3f);
+        }
+
+        // Only the groups that are moving are computed again
+        interpolator.mCalls = 0;
+        animator.setCurrentPlayTime(60);
+        assertEquals(6, interpolator.mCalls);
+    }
+
+    public void testFrameCost() {
+        Target[] targets = createTargets(TARGETS);
+        MultiTargetAnimator multi = MultiTargetAnimator.ofFloat(targets, "value", 0f, 1f);
+        ObjectAnimator[] single = new ObjectAnimator[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            single[i] = ObjectAnimator.ofFloat(targets[i], "value", 0f, 1f);
+        }
+
+        // Warm up
+        runMulti(multi);
+        runSingle(single);
+
+        long multiTime = Long.MAX_VALUE;
+        long singleTime = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            multiTime = Math.min(multiTime, runMulti(multi));
+            singleTime = Math.min(singleTime, runSingle(single));
+        }
+        Log.i(TAG, TARGETS + " targets: one animator " + multiTime / 1000 + " us, one per target " + singleTime / 1000 + " us per " + FRAMES + " frames");
+    }
+
+    private static Target[] createTargets(int count) {
+        Target[] targets = new Target[count];
+        for (int i = 0; i < count; i++) {
+            targets[i] = new Target();
+        }
+        return targets;
+    }
+
+    private static long runMulti(ValueAnimator animator) {
+        final long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            animator.setCurrentPlayTime(frame);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runSingle(ValueAnimator[] animators) {
+        final long start = System.nanoTime();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (ValueAnimator animator : animators) {
+                animator.setCurrentPlayTime(frame);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static class CountingInterpolator implements Interpolator {
+        int mCalls;
+
+        @Override
+        public float getInterpolation(float input) {
+            mCalls++;
+            return input;
+        }
+    }
+
+    public static class Target {
+        public void setValue(float value) {
+            mValue = value;
+        }
+
+        float mValue;
+    }
+}
@@ -0,0 +1,79 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.View;
+
+import com.nineoldandroids.util.FloatProperty;
+
+/**
+ * Checks that ObjectAnimator sets View properties and registered properties through typed
+ * {@link com.nineoldandroids.util.Property} objects instead of reflection.
+ */
+public class ObjectAnimatorAccessorTest extends InstrumentationTestCase {
+    private static final int FRAMES = 1000;
+
+    @UiThreadTest
+    public void testViewPropertyFramesDoNotAllocate() {
+        View view = new View(getInstrumentation().getTargetContext());
+        ObjectAnimator animator = ObjectAnimator.ofFloat(view, "alpha", 0f, 1f);
+        animator.setDuration(FRAMES);
+
+        // Warm up
+        runFrames(animator);
+
+        PropertyValuesHolder holder = animator.getValues()[0];
+        assertTrue(holder.mProperty instanceof FloatProperty);
+        assertNull(holder.mSetter);
+
+        AllocationCounter.start();
+        runFrames(animator);
+        final int allocations = AllocationCounter.stop();
+
+        assertEquals(0, allocations);
+    }
+
+    public void testRegisteredPropertyIsUsedForSubclasses() {
+        PropertyRegistry.register(Target.class, new FloatProperty<Target>("value") {
+            @Override
+            public void setValue(Target object, float value) {
+                object.mValue = value;
+                object.mTypedSets++;
+            }
+
+            @Override
+            public Float get(Target object) {
+                return object.mValue;
+            }
+        });
+        try {
+            SubTarget target = new SubTarget();
+            ObjectAnimator animator = ObjectAnimator.ofFloat(target, "value", 0f, 10f);
+            animator.setCurrentPlayTime(animator.getDuration());
+
+            assertEquals(10f, target.mValue, 0f);
+            assertEquals(1, target.mTypedSets);
+            assertNull(animator.getValues()[0].mSetter);
+        } finally {
+            PropertyRegistry.unregister(Target.class, "value");
+        }
+    }
+
+    private static void runFrames(ValueAnimator animator) {
+        for (int frame = 0; frame < FRAMES; frame++) {
+            animator.setCurrentPlayTime(frame);
+        }
+    }
+
+    public static class Target {
+        public void setValue(float value) {
+            mValue = value;
+        }
+
+        float mValue;
+        int mTypedSets;
+    }
+
+    public static class SubTarget extends Target {
+    }
+}
@@ -0,0 +1,109 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.util.Log;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures how the setter lookup done when an ObjectAnimator is set up scales with the number of
+ * threads doing it at once. Every lookup after the first hits the cache.
+ */
+public class PropertyValuesHolderCacheBenchmark extends InstrumentationTestCase {
+    private static final String TAG = "PvhCacheBenchmark";
+    private static final int LOOKUPS = 100000;
+
+    public void testSetupScalesAcrossThreads() throws InterruptedException {
+        final int cores = Runtime.getRuntime().availableProcessors();
+
+        // Warm up
+        runLookups(1);
+
+        final long single = runLookups(1);
+        final long multi = runLookups(cores);
+        final float singleRate = LOOKUPS * 1e9f / single;
+        final float multiRate = cores * LOOKUPS * 1e9f / multi;
+        Log.i(TAG, "1 thread: " + singleRate + " lookups/s, " + cores + " threads: " + multiRate + " lookups/s (" + multiRate / singleRate + "x)");
+    }
+
+    public void testMissingSetterIsCached() {
+        PropertyValuesHolder holder = PropertyValuesHolder.ofFloat("missing", 0f, 1f);
+        holder.setupSetter(Target.class);
+        assertNull(holder.mSetter);
+        holder.setupSetter(Target.class);
+        assertNull(holder.mSetter);
+    }
+
+    public void testSetterIsCachedPerValueType() {
+        PropertyValuesHolder integerHolder = PropertyValuesHolder.ofObject("label", new ArgbEvaluator(), 0, 1);
+        integerHolder.setupSetter(Target.class);
+        assertNull(integerHolder.mSetter);
+
+        // Not having a setter for Integer values says nothing about one for String values
+        PropertyValuesHolder stringHolder = PropertyValuesHolder.ofObject("label", new ArgbEvaluator(), "a", "b");
+        stringHolder.setupSetter(Target.class);
+        assertNotNull(stringHolder.mSetter);
+
+        PropertyValuesHolder floatHolder = PropertyValuesHolder.ofFloat("level", 0f, 1f);
+        floatHolder.setupSetter(Target.class);
+        assertEquals(float.class, floatHolder.mSetter.getParameterTypes()[0]);
+        // Nor is the float setter handed out for int values
+        PropertyValuesHolder intHolder = PropertyValuesHolder.ofInt("level", 0, 1);
+        intHolder.setupSetter(Target.class);
+        assertEquals(int.class, intHolder.mSetter.getParameterTypes()[0]);
+    }
+
+    /**
+     * Runs {@link #LOOKUPS} setter lookups on each of the given number of threads.
+     *
+     * @return The time taken, in nanoseconds
+     */
+    private static long runLookups(int threadCount) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    PropertyValuesHolder holder = PropertyValuesHolder.ofFloat("value", 0f, 1f);
+                    try {
+                        start.await();
+                        for (int lookup = 0; lookup < LOOKUPS; lookup++) {
+                            holder.setupSetter(Target.class);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        final long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return System.nanoTime() - begin;
+    }
+
+    public static class Target {
+        public void setLabel(String label) {
+        }
+
+        public void setLevel(float level) {
+        }
+
+        public void setLevel(int level) {
+        }
+
+        public float getValue() {
+            return mValue;
+        }
+
+        public void setValue(float value) {
+            mValue = value;
+        }
+
+        private float mValue;
+    }
+}
@@ -0,0 +1,67 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Checks that starting and ending animators, once they have been started before, does not
+ * allocate anything on the timing loop's side.
+ */
+public class ValueAnimatorAllocationTest extends InstrumentationTestCase {
+    private static final int ANIMATORS = 10000;
+
+    @UiThreadTest
+    public void testStartAndEndDoNotAllocate() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+
+        Animator.AnimatorListener listener = new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                mEnded++;
+            }
+
+            @Override
+            public void onAnimationStart(Animator animation) {
+                mStarted++;
+            }
+        };
+        ValueAnimator[] animators = new ValueAnimator[ANIMATORS];
+        for (int i = 0; i < ANIMATORS; i++) {
+            animators[i] = ValueAnimator.ofFloat(0f, 1f);
+            animators[i].addListener(listener);
+        }
+
+        try {
+            // Warm up both pending lists and every animator
+            startAndEnd(context, animators);
+            startAndEnd(context, animators);
+
+            AllocationCounter.start();
+            startAndEnd(context, animators);
+            final int allocations = AllocationCounter.stop();
+
+            assertEquals(0, allocations);
+            assertEquals(3 * ANIMATORS, mStarted);
+            assertEquals(3 * ANIMATORS, mEnded);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    private static void startAndEnd(ValueAnimator.AnimationContext context, ValueAnimator[] animators) {
+        for (ValueAnimator animator : animators) {
+            animator.start();
+        }
+        context.onFrame(AnimationUtils.currentAnimationTimeMillis());
+        for (ValueAnimator animator : animators) {
+            animator.end();
+        }
+    }
+
+    private int mEnded;
+    private int mStarted;
+
+}
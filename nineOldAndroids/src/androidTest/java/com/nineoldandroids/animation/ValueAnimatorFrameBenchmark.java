@@ -0,0 +1,58 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.util.Log;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Measures the time the timing loop spends per frame with {@link #ANIMATORS} animators running
+ * at once. Frames are driven directly through the thread's
+ * {@link ValueAnimator.AnimationContext} so that the handler's scheduling is not timed.
+ */
+public class ValueAnimatorFrameBenchmark extends InstrumentationTestCase {
+    private static final String TAG = "ValueAnimatorBenchmark";
+    private static final int ANIMATORS = 100;
+    private static final int FRAMES = 1000;
+    private static final long FRAME_INTERVAL = 16;
+
+    @UiThreadTest
+    public void testFrameLoopOverhead() {
+        ValueAnimator[] animators = new ValueAnimator[ANIMATORS];
+        for (int i = 0; i < ANIMATORS; i++) {
+            animators[i] = ValueAnimator.ofFloat(0f, 1f);
+            animators[i].setDuration(1000);
+            animators[i].setRepeatCount(ValueAnimator.INFINITE);
+            animators[i].start();
+        }
+
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.startPendingAnimations();
+        assertEquals(ANIMATORS, ValueAnimator.getCurrentAnimationsCount());
+
+        try {
+            final long startTime = AnimationUtils.currentAnimationTimeMillis();
+
+            // Warm up
+            runFrames(context, startTime);
+
+            final long start = System.nanoTime();
+            runFrames(context, startTime + FRAMES * FRAME_INTERVAL);
+            final long elapsed = System.nanoTime() - start;
+            Log.i(TAG, ANIMATORS + " animators: " + elapsed / FRAMES + " ns per frame, " + elapsed / FRAMES / ANIMATORS + " ns per animator");
+
+            assertEquals(ANIMATORS, ValueAnimator.getCurrentAnimationsCount());
+        } finally {
+            for (ValueAnimator animator : animators) {
+                animator.cancel();
+            }
+        }
+        assertEquals(0, ValueAnimator.getCurrentAnimationsCount());
+    }
+
+    private static void runFrames(ValueAnimator.AnimationContext context, long startTime) {
+        for (int frame = 0; frame < FRAMES; frame++) {
+            context.doAnimationFrame(startTime + frame * FRAME_INTERVAL);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.nineoldandroids.animation;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.animation.AnimationUtils;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * Drives the timing loop by hand to check that animations are timed by the frames they are
+ * processed in, also when they are seeked or reversed from a listener, and that replacing the
+ * frame source takes back its pending frame.
+ */
+public class ValueAnimatorTimingTest extends InstrumentationTestCase {
+    // Far from the clock, so that anything timed by the clock instead of the frame shows
+    private static final long FRAME = 1000;
+
+    @UiThreadTest
+    public void testFramesDriveTheAnimation() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            ValueAnimator animator = createAnimator();
+            animator.start();
+            context.onFrame(FRAME);
+            assertEquals(0f, (Float) animator.getAnimatedValue(), 0f);
+            context.onFrame(FRAME + 50);
+            assertEquals(50f, (Float) animator.getAnimatedValue(), 1e-3f);
+            context.onFrame(FRAME + 100);
+            assertEquals(100f, (Float) animator.getAnimatedValue(), 0f);
+            assertFalse(animator.isRunning());
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testSeekFromListenerUsesFrameTime() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            final ValueAnimator seeked = createAnimator();
+            final long[] playTime = new long[1];
+            ValueAnimator driver = createAnimator();
+            driver.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    if (animation.getCurrentPlayTime() == 50) {
+                        seeked.setCurrentPlayTime(20);
+                        playTime[0] = seeked.getCurrentPlayTime();
+                    }
+                }
+            });
+            driver.start();
+            seeked.start();
+            context.onFrame(FRAME);
+            context.onFrame(FRAME + 50);
+            assertEquals(20, playTime[0]);
+            assertEquals(20f, (Float) seeked.getAnimatedValue(), 1e-3f);
+
+            context.onFrame(FRAME + 60);
+            assertEquals(30f, (Float) seeked.getAnimatedValue(), 1e-3f);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testReverseFromListenerUsesFrameTime() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            final ValueAnimator reversed = createAnimator();
+            reversed.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    if (animation.getCurrentPlayTime() == 30) {
+                        animation.reverse();
+                    }
+                }
+            });
+            reversed.start();
+            context.onFrame(FRAME);
+            context.onFrame(FRAME + 30);
+            assertEquals(30f, (Float) reversed.getAnimatedValue(), 1e-3f);
+
+            // Heading back from where it was reversed
+            context.onFrame(FRAME + 50);
+            assertEquals(10f, (Float) reversed.getAnimatedValue(), 1e-3f);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testFrameBehindClockDoesNotGoBeforeStart() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        context.setFrameSource(new ManualFrameSource());
+        try {
+            ValueAnimator animator = createAnimator();
+            animator.start();
+            context.onFrame(AnimationUtils.currentAnimationTimeMillis());
+
+            // Seeked by the clock, then a frame that started a little before that
+            animator.setCurrentPlayTime(0);
+            context.onFrame(AnimationUtils.currentAnimationTimeMillis() - 5);
+            assertEquals(0f, (Float) animator.getAnimatedValue(), 0f);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    @UiThreadTest
+    public void testReplacingFrameSourceCancelsPendingFrame() {
+        ValueAnimator.AnimationContext context = ValueAnimator.getAnimationContext();
+        ManualFrameSource first = new ManualFrameSource();
+        context.setFrameSource(first);
+        try {
+            ValueAnimator animator = createAnimator();
+            animator.start();
+            assertEquals(1, first.mScheduled);
+
+            ManualFrameSource second = new ManualFrameSource();
+            context.setFrameSource(second);
+            assertEquals(1, first.mCanceled);
+            // The request is carried over to the new source
+            assertEquals(1, second.mScheduled);
+
+            context.onFrame(FRAME);
+            assertTrue(animator.isRunning());
+            assertEquals(2, second.mScheduled);
+        } finally {
+            ValueAnimator.clearAllAnimations();
+            context.setFrameSource(null);
+        }
+    }
+
+    private static ValueAnimator createAnimator() {
+        ValueAnimator animator = ValueAnimator.ofFloat(0f, 100f);
+        animator.setDuration(100);
+        animator.setInterpolator(new LinearInterpolator());
+        return animator;
+    }
+}
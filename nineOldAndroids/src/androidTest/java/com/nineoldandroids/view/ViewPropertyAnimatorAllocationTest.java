@@ -0,0 +1,113 @@
+package com.nineoldandroids.view;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.View;
+
+import com.nineoldandroids.animation.AllocationCounter;
+import com.nineoldandroids.animation.Animator;
+import com.nineoldandroids.animation.AnimatorListenerAdapter;
+import com.nineoldandroids.animation.ValueAnimator;
+
+/**
+ * Checks that canceling and restarting property animations, as a scrolling list does for its
+ * rows, reuses the animators and their property bundles instead of allocating new ones.
+ */
+public class ViewPropertyAnimatorAllocationTest extends InstrumentationTestCase {
+    private static final int ROUNDS = 100;
+
+    @UiThreadTest
+    public void testCancelAndRestartDoNotAllocate() {
+        Context context = getInstrumentation().getTargetContext();
+        ViewPropertyAnimator[] animators = {
+                new ViewPropertyAnimatorPreHC(new DetachedView(context)),
+                new ViewPropertyAnimatorHC(new DetachedView(context))
+        };
+        try {
+            for (ViewPropertyAnimator animator : animators) {
+                // Warm up the bundle pool
+                restart(animator);
+                restart(animator);
+
+                AllocationCounter.start();
+                for (int round = 0; round < ROUNDS; round++) {
+                    restart(animator);
+                }
+                final int allocations = AllocationCounter.stop();
+
+                assertEquals(0, allocations);
+            }
+        } finally {
+            for (ViewPropertyAnimator animator : animators) {
+                animator.cancel();
+            }
+            ValueAnimator.clearAllAnimations();
+        }
+    }
+
+    @UiThreadTest
+    public void testRestartReusesAnimator() {
+        View view = new DetachedView(getInstrumentation().getTargetContext());
+        ViewPropertyAnimator animator = new ViewPropertyAnimatorHC(view);
+        StartListener listener = new StartListener();
+        try {
+            animator.setListener(listener);
+            animator.translationX(10f).start();
+            final Animator first = listener.mStarted;
+            assertNotNull(first);
+
+            // Animating the same property again cancels the first animation, whose animator is
+            // then used for the second one. The listener is dropped once nothing is running, so
+            // it is set again after the cancel.
+            listener.mStarted = null;
+            animator.translationX(20f);
+            animator.setListener(listener);
+            animator.start();
+            assertSame(first, listener.mStarted);
+
+            listener.mStarted = null;
+            animator.cancel();
+            animator.setListener(listener);
+            animator.alpha(0.5f).start();
+            assertSame(first, listener.mStarted);
+        } finally {
+            animator.cancel();
+            ValueAnimator.clearAllAnimations();
+        }
+    }
+
+    private static void restart(ViewPropertyAnimator animator) {
+        animator.cancel();
+        animator.translationX(10f).alpha(0.5f).scaleX(2f).start();
+    }
+
+    private static class StartListener extends AnimatorListenerAdapter {
+        Animator mStarted;
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            mStarted = animation;
+        }
+    }
+
+    /**
+     * A view that drops posted runnables. A view that is not attached to a window queues them
+     * in objects of its own, which would be counted as allocations of the animator.
+     */
+    private static class DetachedView extends View {
+        DetachedView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public boolean post(Runnable action) {
+            return true;
+        }
+
+        @Override
+        public boolean removeCallbacks(Runnable action) {
+            return true;
+        }
+    }
+}
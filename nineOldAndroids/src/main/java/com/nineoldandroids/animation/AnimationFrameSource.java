@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.nineoldandroids.animation;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.animation.AnimationUtils;
+
+/**
+ * The timing pulse that the animations of one thread are processed on. A frame is requested
+ * with {@link #scheduleFrame()} and delivered to the {@link Callback} along with the time the
+ * animations should be computed for.
+ *
+ * <p>From Jelly Bean on, frames come from the {@link Choreographer} so that they line up with
+ * the display's vsync and carry its frame time. Older platforms fall back to a {@link Handler}
+ * loop paced by {@link ValueAnimator#getFrameDelay()}.</p>
+ */
+abstract class AnimationFrameSource {
+    /**
+     * Receives the frames of an {@link AnimationFrameSource}.
+     */
+    interface Callback {
+        /**
+         * Called once per requested frame.
+         *
+         * @param frameTime The time of this frame, in the {@link AnimationUtils#currentAnimationTimeMillis()}
+         *                  time base
+         */
+        void onFrame(long frameTime);
+    }
+
+    /**
+     * Frames further apart than this are treated as a pause in the animations rather than as a
+     * display refresh when measuring the refresh rate.
+     */
+    private static final long MAX_FRAME_INTERVAL_NANOS = 50000000L;
+
+    private static final long NANOS_PER_MS = 1000000L;
+
+    final Callback mCallback;
+
+    AnimationFrameSource(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Creates the best frame source available on this platform. Must be called on a Looper
+     * thread.
+     */
+    static AnimationFrameSource create(Callback callback) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return new ChoreographerFrameSource(callback);
+        }
+        return new HandlerFrameSource(callback);
+    }
+
+    /**
+     * Takes back the frame requested with {@link #scheduleFrame()}, if it has not been delivered
+     * yet.
+     */
+    abstract void cancelFrame();
+
+    /**
+     * Returns the rate, in frames per second, at which this source currently delivers frames.
+     */
+    abstract float getFrameRate();
+
+    /**
+     * Requests that {@link Callback#onFrame(long)} be called for the next frame. Callers must not
+     * request a frame while one is already pending.
+     */
+    abstract void scheduleFrame();
+
+    /**
+     * Frames timed by the display's vsync. The refresh rate is measured from the time between
+     * consecutive frames.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class ChoreographerFrameSource extends AnimationFrameSource
+            implements Choreographer.FrameCallback {
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+        private long mFrameIntervalNanos;
+        private long mLastFrameTimeNanos;
+
+        ChoreographerFrameSource(Callback callback) {
+            super(callback);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            final long interval = frameTimeNanos - mLastFrameTimeNanos;
+            if (mLastFrameTimeNanos != 0 && interval > 0 && interval < MAX_FRAME_INTERVAL_NANOS) {
+                // Averaged so that an occasional dropped frame barely moves the estimate
+                mFrameIntervalNanos = mFrameIntervalNanos == 0
+                        ? interval : mFrameIntervalNanos + (interval - mFrameIntervalNanos) / 8;
+            }
+            mLastFrameTimeNanos = frameTimeNanos;
+            mCallback.onFrame(frameTimeNanos / NANOS_PER_MS);
+        }
+
+        @Override
+        void cancelFrame() {
+            mChoreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        float getFrameRate() {
+            if (mFrameIntervalNanos == 0) {
+                // Not measured yet; assume the common 60 Hz display
+                return 60f;
+            }
+            return 1e9f / mFrameIntervalNanos;
+        }
+
+        @Override
+        void scheduleFrame() {
+            mChoreographer.postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Frames posted to the thread's Looper every {@link ValueAnimator#getFrameDelay()}
+     * milliseconds, measured from the start of the previous frame.
+     */
+    private static final class HandlerFrameSource extends AnimationFrameSource
+            implements Runnable {
+        private final Handler mHandler = new Handler();
+        private long mLastFrameTime;
+
+        HandlerFrameSource(Callback callback) {
+            super(callback);
+        }
+
+        @Override
+        public void run() {
+            mLastFrameTime = AnimationUtils.currentAnimationTimeMillis();
+            mCallback.onFrame(mLastFrameTime);
+        }
+
+        @Override
+        void cancelFrame() {
+            mHandler.removeCallbacks(this);
+        }
+
+        @Override
+        float getFrameRate() {
+            return 1000f / Math.max(1, ValueAnimator.getFrameDelay());
+        }
+
+        @Override
+        void scheduleFrame() {
+            mHandler.postAtTime(this, Math.max(SystemClock.uptimeMillis(),
+                    mLastFrameTime + ValueAnimator.getFrameDelay()));
+        }
+    }
+}
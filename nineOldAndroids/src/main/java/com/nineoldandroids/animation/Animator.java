@@ -28,7 +28,9 @@ public abstract class Animator implements Cloneable {
 
 
     /**
-     * The set of listeners to be sent events through the life of an animation.
+     * The set of listeners to be sent events through the life of an animation. The list is
+     * copied on every change rather than modified, so that events can be sent to it without
+     * taking a copy first, even if listeners are added or removed while they are being sent.
      */
     ArrayList<AnimatorListener> mListeners = null;
 
@@ -142,10 +144,15 @@ public abstract class Animator implements Cloneable {
      * @param listener the listener to be added to the current set of listeners for this animation.
      */
     public void addListener(AnimatorListener listener) {
+        ArrayList<AnimatorListener> listeners;
         if (mListeners == null) {
-            mListeners = new ArrayList<AnimatorListener>();
+            listeners = new ArrayList<AnimatorListener>(1);
+        } else {
+            listeners = new ArrayList<AnimatorListener>(mListeners.size() + 1);
+            listeners.addAll(mListeners);
         }
-        mListeners.add(listener);
+        listeners.add(listener);
+        mListeners = listeners;
     }
 
     /**
@@ -155,18 +162,23 @@ public abstract class Animator implements Cloneable {
      *                 animation.
      */
     public void removeListener(AnimatorListener listener) {
-        if (mListeners == null) {
+        if (mListeners == null || !mListeners.contains(listener)) {
             return;
         }
-        mListeners.remove(listener);
-        if (mListeners.size() == 0) {
+        if (mListeners.size() == 1) {
             mListeners = null;
+            return;
         }
+        ArrayList<AnimatorListener> listeners = new ArrayList<AnimatorListener>(mListeners);
+        listeners.remove(listener);
+        mListeners = listeners;
     }
 
     /**
      * Gets the set of {@link android.animation.Animator.AnimatorListener} objects that are currently
-     * listening for events on this <code>Animator</code> object.
+     * listening for events on this <code>Animator</code> object. The list should not be
+     * modified while events are being sent to it; use {@link #addListener(AnimatorListener)}
+     * and {@link #removeListener(AnimatorListener)} instead.
      *
      * @return ArrayList<AnimatorListener> The set of listeners.
      */
@@ -180,10 +192,7 @@ public abstract class Animator implements Cloneable {
      * returned list of listeners.
      */
     public void removeAllListeners() {
-        if (mListeners != null) {
-            mListeners.clear();
-            mListeners = null;
-        }
+        mListeners = null;
     }
 
     @Override
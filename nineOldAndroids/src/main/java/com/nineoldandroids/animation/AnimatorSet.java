@@ -17,6 +17,7 @@
 package com.nineoldandroids.animation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -86,14 +87,45 @@ public final class AnimatorSet extends Animator {
      */
     private boolean mNeedsSort = true;
 
-    private AnimatorSetListener mSetListener = null;
+    /**
+     * The dependency graph, compiled by sortNodes() and indexed by Node.index. The edges
+     * leaving node i, from the node depended upon to the dependent node, are
+     * mDependents[mDependentsStart[i]] to mDependents[mDependentsStart[i + 1] - 1], in the
+     * order of the dependent nodes in mSortedNodes. mDependentRules holds the rule of each edge
+     * and mDependencyCounts the number of edges entering each node.
+     */
+    private int[] mDependentsStart;
+    private int[] mDependents;
+    private int[] mDependentRules;
+    private int[] mDependencyCounts;
+
+    /**
+     * State of the current run, reset by start(): the number of edges entering each node
+     * that have yet to fire, which edges have fired, and the number of nodes not yet done.
+     */
+    private int[] mPendingDependencies;
+    private boolean[] mEdgeFired;
+    private int mRemainingNodes;
+
+    /**
+     * Whether animations whose start time can be worked out in advance are started on a
+     * timeline, rather than by the events of the animations they depend upon.
+     */
+    private boolean mTimelineMode = false;
+
+    /**
+     * The timeline of the current run, worked out by start() and indexed by Node.index:
+     * whether each node is played on the timeline and, if so, its start offset in ms.
+     */
+    private boolean[] mOnTimeline;
+    private long[] mStartOffsets;
 
     /**
      * Flag indicating that the AnimatorSet has been manually
      * terminated (by calling cancel() or end()).
      * This flag is used to avoid starting other animations when currently-playing
      * child animations of this AnimatorSet end. It also determines whether cancel/end
-     * notifications are sent out via the normal AnimatorSetListener mechanism.
+     * notifications are sent out via the normal NodeListener mechanism.
      */
     boolean mTerminated = false;
 
@@ -106,8 +138,9 @@ public final class AnimatorSet extends Animator {
     // The amount of time in ms to delay starting the animation after start() is called
     private long mStartDelay = 0;
 
-    // Animator used for a nonzero startDelay
+    // Animator used for a nonzero startDelay, reused from one start() to the next
     private ValueAnimator mDelayAnim = null;
+    private DelayListener mDelayListener = null;
 
 
     // How long the child animations should last in ms. The default value is negative, which
@@ -213,8 +246,9 @@ public final class AnimatorSet extends Animator {
      */
     @Override
     public void setTarget(Object target) {
-        for (Node node : mNodes) {
-            Animator animation = node.animation;
+        final int numNodes = mNodes.size();
+        for (int i = 0; i < numNodes; ++i) {
+            Animator animation = mNodes.get(i).animation;
             if (animation instanceof AnimatorSet) {
                 ((AnimatorSet)animation).setTarget(target);
             } else if (animation instanceof ObjectAnimator) {
@@ -236,6 +270,38 @@ public final class AnimatorSet extends Animator {
         }
     }
 
+    /**
+     * Sets whether this AnimatorSet plays its animations on a timeline. Normally each
+     * animation is started by the start or end event of the animations it depends upon, which
+     * comes on the first frame after that start or end: every step of a sequence starts a
+     * little late, and the delays add up along long sequences. On a timeline, the start time
+     * of each animation is worked out from the durations of the animations before it when
+     * this AnimatorSet starts, and the animation is started right away with a matching delay,
+     * so that it starts on time on the shared animation clock.
+     *
+     * <p>Only {@link ValueAnimator} and {@link ObjectAnimator} animations that do not repeat
+     * infinitely, and whose dependencies are all on the timeline too, are played on the
+     * timeline. Other animations, such as nested AnimatorSets, and the animations depending on
+     * them, are still started by events. As the timeline is worked out on start, changing the
+     * duration of an animation, or canceling or ending it, while this AnimatorSet runs does not
+     * move the start of the animations after it.</p>
+     *
+     * @param timelineMode Whether to play animations on a timeline. The default is false.
+     */
+    public void setTimelineMode(boolean timelineMode) {
+        mTimelineMode = timelineMode;
+    }
+
+    /**
+     * Returns whether this AnimatorSet plays its animations on a timeline.
+     *
+     * @return Whether timeline mode is on.
+     * @see #setTimelineMode(boolean)
+     */
+    public boolean isTimelineMode() {
+        return mTimelineMode;
+    }
+
     /**
      * This method creates a <code>Builder</code> object, which is used to
      * set up playing constraints. This initial <code>play()</code> method
@@ -278,30 +344,34 @@ public final class AnimatorSet extends Animator {
      * <p>Note that canceling a <code>AnimatorSet</code> also cancels all of the animations that it
      * is responsible for.</p>
      */
-    @SuppressWarnings("unchecked")
     @Override
     public void cancel() {
         mTerminated = true;
         if (isStarted()) {
-            ArrayList<AnimatorListener> tmpListeners = null;
+            ArrayList<AnimatorListener> listeners = null;
             if (mListeners != null) {
-                tmpListeners = (ArrayList<AnimatorListener>) mListeners.clone();
-                for (AnimatorListener listener : tmpListeners) {
-                    listener.onAnimationCancel(this);
+                listeners = mListeners;
+                int numListeners = listeners.size();
+                for (int i = 0; i < numListeners; ++i) {
+                    listeners.get(i).onAnimationCancel(this);
                 }
             }
             if (mDelayAnim != null && mDelayAnim.isRunning()) {
-                // If we're currently in the startDelay period, just cancel that animator and
-                // send out the end event to all listeners
+                // If we're currently in the startDelay period, cancel that animator. Only
+                // the animations on the timeline have been started
                 mDelayAnim.cancel();
-            } else  if (mSortedNodes.size() > 0) {
-                for (Node node : mSortedNodes) {
-                    node.animation.cancel();
+            }
+            if (mSortedNodes.size() > 0) {
+                final ArrayList<Node> sortedNodes = mSortedNodes;
+                final int numSortedNodes = sortedNodes.size();
+                for (int i = 0; i < numSortedNodes; ++i) {
+                    sortedNodes.get(i).animation.cancel();
                 }
             }
-            if (tmpListeners != null) {
-                for (AnimatorListener listener : tmpListeners) {
-                    listener.onAnimationEnd(this);
+            if (listeners != null) {
+                int numListeners = listeners.size();
+                for (int i = 0; i < numListeners; ++i) {
+                    listeners.get(i).onAnimationEnd(this);
                 }
             }
             mStarted = false;
@@ -318,29 +388,26 @@ public final class AnimatorSet extends Animator {
     public void end() {
         mTerminated = true;
         if (isStarted()) {
-            if (mSortedNodes.size() != mNodes.size()) {
+            if (mNeedsSort) {
                 // hasn't been started yet - sort the nodes now, then end them
                 sortNodes();
-                for (Node node : mSortedNodes) {
-                    if (mSetListener == null) {
-                        mSetListener = new AnimatorSetListener(this);
-                    }
-                    node.animation.addListener(mSetListener);
-                }
+                attachNodeListeners();
             }
             if (mDelayAnim != null) {
                 mDelayAnim.cancel();
             }
             if (mSortedNodes.size() > 0) {
-                for (Node node : mSortedNodes) {
-                    node.animation.end();
+                final ArrayList<Node> sortedNodes = mSortedNodes;
+                final int numSortedNodes = sortedNodes.size();
+                for (int i = 0; i < numSortedNodes; ++i) {
+                    sortedNodes.get(i).animation.end();
                 }
             }
             if (mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
-                for (AnimatorListener listener : tmpListeners) {
-                    listener.onAnimationEnd(this);
+                ArrayList<AnimatorListener> listeners = mListeners;
+                int numListeners = listeners.size();
+                for (int i = 0; i < numListeners; ++i) {
+                    listeners.get(i).onAnimationEnd(this);
                 }
             }
             mStarted = false;
@@ -445,7 +512,6 @@ public final class AnimatorSet extends Animator {
      * it is responsible. The details of when exactly those animations are started depends on
      * the dependency relationships that have been set up between the animations.
      */
-    @SuppressWarnings("unchecked")
     @Override
     public void start() {
         mTerminated = false;
@@ -454,81 +520,44 @@ public final class AnimatorSet extends Animator {
         // First, sort the nodes (if necessary). This will ensure that sortedNodes
         // contains the animation nodes in the correct order.
         sortNodes();
-
-        int numSortedNodes = mSortedNodes.size();
-        for (int i = 0; i < numSortedNodes; ++i) {
-            Node node = mSortedNodes.get(i);
-            // First, clear out the old listeners
-            ArrayList<AnimatorListener> oldListeners = node.animation.getListeners();
-            if (oldListeners != null && oldListeners.size() > 0) {
-                final ArrayList<AnimatorListener> clonedListeners = new
-                        ArrayList<AnimatorListener>(oldListeners);
-
-                for (AnimatorListener listener : clonedListeners) {
-                    if (listener instanceof DependencyListener ||
-                            listener instanceof AnimatorSetListener) {
-                        node.animation.removeListener(listener);
-                    }
-                }
-            }
+        attachNodeListeners();
+
+        // Reset the state of the previous run. Nodes are 'done' by default; they become
+        // un-done when started, and done again when ended
+        final int numNodes = mNodes.size();
+        System.arraycopy(mDependencyCounts, 0, mPendingDependencies, 0, numNodes);
+        Arrays.fill(mEdgeFired, false);
+        for (int i = 0; i < numNodes; ++i) {
+            mNodes.get(i).done = false;
         }
-
-        // nodesToStart holds the list of nodes to be started immediately. We don't want to
-        // start the animations in the loop directly because we first need to set up
-        // dependencies on all of the nodes. For example, we don't want to start an animation
-        // when some other animation also wants to start when the first animation begins.
-        final ArrayList<Node> nodesToStart = new ArrayList<Node>();
-        for (int i = 0; i < numSortedNodes; ++i) {
-            Node node = mSortedNodes.get(i);
-            if (mSetListener == null) {
-                mSetListener = new AnimatorSetListener(this);
-            }
-            if (node.dependencies == null || node.dependencies.size() == 0) {
-                nodesToStart.add(node);
-            } else {
-                int numDependencies = node.dependencies.size();
-                for (int j = 0; j < numDependencies; ++j) {
-                    Dependency dependency = node.dependencies.get(j);
-                    dependency.node.animation.addListener(
-                            new DependencyListener(this, node, dependency.rule));
-                }
-                node.tmpDependencies = (ArrayList<Dependency>) node.dependencies.clone();
-            }
-            node.animation.addListener(mSetListener);
+        mRemainingNodes = numNodes;
+        // Animations canceled before they ran do not send an end event, and stay here
+        mPlayingSet.clear();
+        if (mTimelineMode) {
+            computeTimeline();
+        } else {
+            Arrays.fill(mOnTimeline, false);
         }
+
         // Now that all dependencies are set up, start the animations that should be started.
+        // Those on the timeline take the start delay as part of their offsets.
+        startTimelineNodes();
         if (mStartDelay <= 0) {
-            for (Node node : nodesToStart) {
-                node.animation.start();
-                mPlayingSet.add(node.animation);
-            }
+            startRootNodes();
         } else {
-            mDelayAnim = ValueAnimator.ofFloat(0f, 1f);
+            if (mDelayAnim == null) {
+                mDelayAnim = ValueAnimator.ofFloat(0f, 1f);
+                mDelayListener = new DelayListener();
+                mDelayAnim.addListener(mDelayListener);
+            }
             mDelayAnim.setDuration(mStartDelay);
-            mDelayAnim.addListener(new AnimatorListenerAdapter() {
-                boolean canceled = false;
-                public void onAnimationCancel(Animator anim) {
-                    canceled = true;
-                }
-                public void onAnimationEnd(Animator anim) {
-                    if (!canceled) {
-                        int numNodes = nodesToStart.size();
-                        for (int i = 0; i < numNodes; ++i) {
-                            Node node = nodesToStart.get(i);
-                            node.animation.start();
-                            mPlayingSet.add(node.animation);
-                        }
-                    }
-                }
-            });
             mDelayAnim.start();
         }
         if (mListeners != null) {
-            ArrayList<AnimatorListener> tmpListeners =
-                    (ArrayList<AnimatorListener>) mListeners.clone();
-            int numListeners = tmpListeners.size();
+            ArrayList<AnimatorListener> listeners = mListeners;
+            int numListeners = listeners.size();
             for (int i = 0; i < numListeners; ++i) {
-                tmpListeners.get(i).onAnimationStart(this);
+                listeners.get(i).onAnimationStart(this);
             }
         }
         if (mNodes.size() == 0 && mStartDelay == 0) {
@@ -536,11 +565,10 @@ public final class AnimatorSet extends Animator {
             // end event immediately since the event will not be sent out at all otherwise
             mStarted = false;
             if (mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
-                int numListeners = tmpListeners.size();
+                ArrayList<AnimatorListener> listeners = mListeners;
+                int numListeners = listeners.size();
                 for (int i = 0; i < numListeners; ++i) {
-                    tmpListeners.get(i).onAnimationEnd(this);
+                    listeners.get(i).onAnimationEnd(this);
                 }
             }
         }
@@ -564,6 +592,16 @@ public final class AnimatorSet extends Animator {
         anim.mNodeMap = new HashMap<Animator, Node>();
         anim.mNodes = new ArrayList<Node>();
         anim.mSortedNodes = new ArrayList<Node>();
+        anim.mDependentsStart = null;
+        anim.mDependents = null;
+        anim.mDependentRules = null;
+        anim.mDependencyCounts = null;
+        anim.mPendingDependencies = null;
+        anim.mEdgeFired = null;
+        anim.mOnTimeline = null;
+        anim.mStartOffsets = null;
+        anim.mDelayAnim = null;
+        anim.mDelayListener = null;
 
         // Walk through the old nodes list, cloning each node and adding it to the new nodemap.
         // One problem is that the old node dependencies point to nodes in the old AnimatorSet.
@@ -576,16 +614,14 @@ public final class AnimatorSet extends Animator {
             anim.mNodeMap.put(nodeClone.animation, nodeClone);
             // Clear out the dependencies in the clone; we'll set these up manually later
             nodeClone.dependencies = null;
-            nodeClone.tmpDependencies = null;
-            nodeClone.nodeDependents = null;
-            nodeClone.nodeDependencies = null;
+            nodeClone.listener = null;
             // clear out any listeners that were set up by the AnimatorSet; these will
             // be set up when the clone's nodes are sorted
             ArrayList<AnimatorListener> cloneListeners = nodeClone.animation.getListeners();
             if (cloneListeners != null) {
                 ArrayList<AnimatorListener> listenersToRemove = null;
                 for (AnimatorListener listener : cloneListeners) {
-                    if (listener instanceof AnimatorSetListener) {
+                    if (listener instanceof NodeListener) {
                         if (listenersToRemove == null) {
                             listenersToRemove = new ArrayList<AnimatorListener>();
                         }
@@ -617,146 +653,162 @@ public final class AnimatorSet extends Animator {
     }
 
     /**
-     * This class is the mechanism by which animations are started based on events in other
-     * animations. If an animation has multiple dependencies on other animations, then
-     * all dependencies must be satisfied before the animation is started.
+     * Works out which nodes are played on the timeline and their start offsets. A node is on
+     * the timeline if its animation has a fixed length and all the nodes it depends upon are
+     * on the timeline; it then starts at the latest of the times its edges fire.
      */
-    private static class DependencyListener implements AnimatorListener {
-
-        private AnimatorSet mAnimatorSet;
-
-        // The node upon which the dependency is based.
-        private Node mNode;
-
-        // The Dependency rule (WITH or AFTER) that the listener should wait for on
-        // the node
-        private int mRule;
-
-        public DependencyListener(AnimatorSet animatorSet, Node node, int rule) {
-            this.mAnimatorSet = animatorSet;
-            this.mNode = node;
-            this.mRule = rule;
-        }
-
-        /**
-         * Ignore cancel events for now. We may want to handle this eventually,
-         * to prevent follow-on animations from running when some dependency
-         * animation is canceled.
-         */
-        public void onAnimationCancel(Animator animation) {
+    private void computeTimeline() {
+        final ArrayList<Node> sortedNodes = mSortedNodes;
+        final int numSortedNodes = sortedNodes.size();
+        final boolean[] onTimeline = mOnTimeline;
+        final long[] startOffsets = mStartOffsets;
+        for (int i = 0; i < numSortedNodes; ++i) {
+            Node node = sortedNodes.get(i);
+            Animator animation = node.animation;
+            onTimeline[node.index] = animation instanceof ValueAnimator
+                    && !(animation instanceof TimeAnimator)
+                    && ((ValueAnimator) animation).getRepeatCount() != ValueAnimator.INFINITE;
+            startOffsets[node.index] = 0;
         }
-
-        /**
-         * An end event is received - see if this is an event we are listening for
-         */
-        public void onAnimationEnd(Animator animation) {
-            if (mRule == Dependency.AFTER) {
-                startIfReady(animation);
+        // Nodes come after the nodes they depend upon in sorted order, so all of the edges
+        // entering a node have been followed by the time its own edges are
+        for (int i = 0; i < numSortedNodes; ++i) {
+            final int index = sortedNodes.get(i).index;
+            final boolean timed = onTimeline[index];
+            long startTime = 0;
+            long endTime = 0;
+            if (timed) {
+                ValueAnimator animation = (ValueAnimator) sortedNodes.get(i).animation;
+                startTime = startOffsets[index] + animation.getStartDelay();
+                endTime = startTime +
+                        animation.getDuration() * (animation.getRepeatCount() + 1);
+            }
+            final int end = mDependentsStart[index + 1];
+            for (int j = mDependentsStart[index]; j < end; ++j) {
+                final int dependent = mDependents[j];
+                if (!timed) {
+                    onTimeline[dependent] = false;
+                } else {
+                    final long time = mDependentRules[j] == Dependency.WITH ? startTime : endTime;
+                    if (time > startOffsets[dependent]) {
+                        startOffsets[dependent] = time;
+                    }
+                }
             }
         }
+    }
 
-        /**
-         * Ignore repeat events for now
-         */
-        public void onAnimationRepeat(Animator animation) {
+    /**
+     * Starts all of the nodes on the timeline, each delayed by its start offset.
+     */
+    private void startTimelineNodes() {
+        final ArrayList<Node> sortedNodes = mSortedNodes;
+        final int numSortedNodes = sortedNodes.size();
+        final long startDelay = Math.max(mStartDelay, 0);
+        for (int i = 0; i < numSortedNodes; ++i) {
+            Node node = sortedNodes.get(i);
+            if (mOnTimeline[node.index]) {
+                ValueAnimator animation = (ValueAnimator) node.animation;
+                animation.mTimelineOffset = startDelay + mStartOffsets[node.index];
+                animation.start();
+                mPlayingSet.add(animation);
+            }
         }
+    }
 
-        /**
-         * A start event is received - see if this is an event we are listening for
-         */
-        public void onAnimationStart(Animator animation) {
-            if (mRule == Dependency.WITH) {
-                startIfReady(animation);
+    /**
+     * Starts the nodes that do not depend on any other node, other than those on the
+     * timeline.
+     */
+    private void startRootNodes() {
+        final ArrayList<Node> sortedNodes = mSortedNodes;
+        final int numSortedNodes = sortedNodes.size();
+        for (int i = 0; i < numSortedNodes; ++i) {
+            Node node = sortedNodes.get(i);
+            if (mDependencyCounts[node.index] == 0 && !mOnTimeline[node.index]) {
+                node.animation.start();
+                mPlayingSet.add(node.animation);
             }
         }
+    }
 
-        /**
-         * Check whether the event received is one that the node was waiting for.
-         * If so, mark it as complete and see whether it's time to start
-         * the animation.
-         * @param dependencyAnimation the animation that sent the event.
-         */
-        private void startIfReady(Animator dependencyAnimation) {
-            if (mAnimatorSet.mTerminated) {
-                // if the parent AnimatorSet was canceled, then don't start any dependent anims
-                return;
-            }
-            Dependency dependencyToRemove = null;
-            int numDependencies = mNode.tmpDependencies.size();
-            for (int i = 0; i < numDependencies; ++i) {
-                Dependency dependency = mNode.tmpDependencies.get(i);
-                if (dependency.rule == mRule &&
-                        dependency.node.animation == dependencyAnimation) {
-                    // rule fired - remove the dependency and listener and check to
-                    // see whether it's time to start the animation
-                    dependencyToRemove = dependency;
-                    dependencyAnimation.removeListener(this);
-                    break;
-                }
-            }
-            mNode.tmpDependencies.remove(dependencyToRemove);
-            if (mNode.tmpDependencies.size() == 0) {
-                // all dependencies satisfied: start the animation
-                mNode.animation.start();
-                mAnimatorSet.mPlayingSet.add(mNode.animation);
+    /**
+     * Makes sure that each child animation has the listener of its node, in case it was
+     * removed from the outside since the last run.
+     */
+    private void attachNodeListeners() {
+        final ArrayList<Node> nodes = mNodes;
+        final int numNodes = nodes.size();
+        for (int i = 0; i < numNodes; ++i) {
+            Node node = nodes.get(i);
+            ArrayList<AnimatorListener> listeners = node.animation.getListeners();
+            if (listeners == null || !listeners.contains(node.listener)) {
+                node.animation.addListener(node.listener);
             }
         }
-
     }
 
-    private class AnimatorSetListener implements AnimatorListener {
+    /**
+     * This class is the mechanism by which animations are started based on events in other
+     * animations, and by which the AnimatorSet learns that its animations have ended. Each node
+     * has one, which stays on the node's animation from the time the nodes are first sorted, so
+     * that starting the AnimatorSet again does not add or remove listeners. Events are ignored
+     * while the AnimatorSet is not started.
+     *
+     * <p>A start event fires the WITH edges leaving the node, and an end event its AFTER
+     * edges. When all of the edges entering a node have fired, that node is started, unless
+     * it is on the timeline and so was started with the AnimatorSet.</p>
+     */
+    private class NodeListener implements AnimatorListener {
 
-        private AnimatorSet mAnimatorSet;
+        // The node whose animation this listener is on
+        private final Node mNode;
 
-        AnimatorSetListener(AnimatorSet animatorSet) {
-            mAnimatorSet = animatorSet;
+        NodeListener(Node node) {
+            mNode = node;
         }
 
         public void onAnimationCancel(Animator animation) {
-            if (!mTerminated) {
+            if (mStarted && !mTerminated) {
                 // Listeners are already notified of the AnimatorSet canceling in cancel().
                 // The logic below only kicks in when animations end normally
                 if (mPlayingSet.size() == 0) {
-                    if (mListeners != null) {
-                        int numListeners = mListeners.size();
+                    ArrayList<AnimatorListener> listeners = mListeners;
+                    if (listeners != null) {
+                        int numListeners = listeners.size();
                         for (int i = 0; i < numListeners; ++i) {
-                            mListeners.get(i).onAnimationCancel(mAnimatorSet);
+                            listeners.get(i).onAnimationCancel(AnimatorSet.this);
                         }
                     }
                 }
             }
         }
 
-        @SuppressWarnings("unchecked")
         public void onAnimationEnd(Animator animation) {
-            animation.removeListener(this);
+            if (!mStarted) {
+                return;
+            }
             mPlayingSet.remove(animation);
-            Node animNode = mAnimatorSet.mNodeMap.get(animation);
-            animNode.done = true;
+            if (!mNode.done) {
+                mNode.done = true;
+                --mRemainingNodes;
+            }
             if (!mTerminated) {
                 // Listeners are already notified of the AnimatorSet ending in cancel() or
                 // end(); the logic below only kicks in when animations end normally
-                ArrayList<Node> sortedNodes = mAnimatorSet.mSortedNodes;
-                boolean allDone = true;
-                int numSortedNodes = sortedNodes.size();
-                for (int i = 0; i < numSortedNodes; ++i) {
-                    if (!sortedNodes.get(i).done) {
-                        allDone = false;
-                        break;
-                    }
-                }
-                if (allDone) {
+                if (mRemainingNodes == 0) {
                     // If this was the last child animation to end, then notify listeners that this
                     // AnimatorSet has ended
-                    if (mListeners != null) {
-                        ArrayList<AnimatorListener> tmpListeners =
-                                (ArrayList<AnimatorListener>) mListeners.clone();
-                        int numListeners = tmpListeners.size();
+                    ArrayList<AnimatorListener> listeners = mListeners;
+                    if (listeners != null) {
+                        int numListeners = listeners.size();
                         for (int i = 0; i < numListeners; ++i) {
-                            tmpListeners.get(i).onAnimationEnd(mAnimatorSet);
+                            listeners.get(i).onAnimationEnd(AnimatorSet.this);
                         }
                     }
-                    mAnimatorSet.mStarted = false;
+                    mStarted = false;
+                } else {
+                    fireEdges(Dependency.AFTER);
                 }
             }
         }
@@ -765,81 +817,173 @@ public final class AnimatorSet extends Animator {
         public void onAnimationRepeat(Animator animation) {
         }
 
-        // Nothing to do
         public void onAnimationStart(Animator animation) {
+            if (mStarted && !mTerminated) {
+                fireEdges(Dependency.WITH);
+            }
+        }
+
+        /**
+         * Fires the edges with the given rule leaving this node, once per run, and starts the
+         * nodes that have no edges left to wait for.
+         */
+        private void fireEdges(int rule) {
+            final int[] dependents = mDependents;
+            final int[] rules = mDependentRules;
+            final boolean[] fired = mEdgeFired;
+            final int end = mDependentsStart[mNode.index + 1];
+            for (int i = mDependentsStart[mNode.index]; i < end; ++i) {
+                if (rules[i] == rule && !fired[i]) {
+                    fired[i] = true;
+                    final int dependent = dependents[i];
+                    if (--mPendingDependencies[dependent] == 0 && !mTerminated
+                            && !mOnTimeline[dependent]) {
+                        // all dependencies satisfied: start the animation
+                        Animator dependentAnimation = mNodes.get(dependent).animation;
+                        dependentAnimation.start();
+                        mPlayingSet.add(dependentAnimation);
+                    }
+                }
+            }
         }
 
     }
 
     /**
-     * This method sorts the current set of nodes, if needed. The sort is a simple
-     * DependencyGraph sort, which goes like this:
+     * Starts the root nodes once the start delay has elapsed, unless it was canceled.
+     */
+    private class DelayListener extends AnimatorListenerAdapter {
+        private boolean mCanceled;
+
+        @Override
+        public void onAnimationStart(Animator anim) {
+            mCanceled = false;
+        }
+
+        @Override
+        public void onAnimationCancel(Animator anim) {
+            mCanceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator anim) {
+            if (!mCanceled) {
+                startRootNodes();
+            }
+        }
+    }
+
+    /**
+     * This method sorts the current set of nodes and compiles their dependencies into the
+     * edge arrays, if needed. The sort is a simple DependencyGraph sort, which goes like this:
      * - All nodes without dependencies become 'roots'
      * - while roots list is not null
      * -   for each root r
      * -     add r to sorted list
      * -     remove r as a dependency from any other node
      * -   any nodes with no dependencies are added to the roots list
+     * The result is kept until the dependencies change, so replaying an unchanged AnimatorSet
+     * does not sort or allocate anything.
      */
     private void sortNodes() {
-        if (mNeedsSort) {
-            mSortedNodes.clear();
-            ArrayList<Node> roots = new ArrayList<Node>();
-            int numNodes = mNodes.size();
-            for (int i = 0; i < numNodes; ++i) {
-                Node node = mNodes.get(i);
-                if (node.dependencies == null || node.dependencies.size() == 0) {
-                    roots.add(node);
-                }
+        if (!mNeedsSort) {
+            return;
+        }
+        final ArrayList<Node> nodes = mNodes;
+        final int numNodes = nodes.size();
+        int numEdges = 0;
+        for (int i = 0; i < numNodes; ++i) {
+            Node node = nodes.get(i);
+            node.index = i;
+            if (node.listener == null) {
+                node.listener = new NodeListener(node);
             }
-            ArrayList<Node> tmpRoots = new ArrayList<Node>();
-            while (roots.size() > 0) {
-                int numRoots = roots.size();
-                for (int i = 0; i < numRoots; ++i) {
-                    Node root = roots.get(i);
-                    mSortedNodes.add(root);
-                    if (root.nodeDependents != null) {
-                        int numDependents = root.nodeDependents.size();
-                        for (int j = 0; j < numDependents; ++j) {
-                            Node node = root.nodeDependents.get(j);
-                            node.nodeDependencies.remove(root);
-                            if (node.nodeDependencies.size() == 0) {
-                                tmpRoots.add(node);
-                            }
-                        }
-                    }
+            if (node.dependencies != null) {
+                numEdges += node.dependencies.size();
+            }
+        }
+
+        // Count the edges entering and leaving each node
+        final int[] dependencyCounts = new int[numNodes];
+        final int[] dependentsStart = new int[numNodes + 1];
+        for (int i = 0; i < numNodes; ++i) {
+            ArrayList<Dependency> dependencies = nodes.get(i).dependencies;
+            if (dependencies != null) {
+                int numDependencies = dependencies.size();
+                for (int j = 0; j < numDependencies; ++j) {
+                    dependentsStart[dependencies.get(j).node.index + 1]++;
                 }
-                roots.clear();
-                roots.addAll(tmpRoots);
-                tmpRoots.clear();
+                dependencyCounts[i] = numDependencies;
+            }
+        }
+        for (int i = 0; i < numNodes; ++i) {
+            dependentsStart[i + 1] += dependentsStart[i];
+        }
+        final int[] dependents = new int[numEdges];
+        final int[] dependentRules = new int[numEdges];
+        final int[] fill = new int[numNodes];
+
+        // Sort, following the edges in the order of the nodes
+        fillEdges(nodes, dependentsStart, fill, dependents, dependentRules);
+        final int[] remaining = dependencyCounts.clone();
+        final int[] order = new int[numNodes];
+        int numSorted = 0;
+        for (int i = 0; i < numNodes; ++i) {
+            if (remaining[i] == 0) {
+                order[numSorted++] = i;
             }
-            mNeedsSort = false;
-            if (mSortedNodes.size() != mNodes.size()) {
-                throw new IllegalStateException("Circular dependencies cannot exist"
-                        + " in AnimatorSet");
+        }
+        for (int next = 0; next < numSorted; ++next) {
+            final int root = order[next];
+            for (int i = dependentsStart[root]; i < dependentsStart[root + 1]; ++i) {
+                if (--remaining[dependents[i]] == 0) {
+                    order[numSorted++] = dependents[i];
+                }
             }
-        } else {
-            // Doesn't need sorting, but still need to add in the nodeDependencies list
-            // because these get removed as the event listeners fire and the dependencies
-            // are satisfied
-            int numNodes = mNodes.size();
-            for (int i = 0; i < numNodes; ++i) {
-                Node node = mNodes.get(i);
-                if (node.dependencies != null && node.dependencies.size() > 0) {
-                    int numDependencies = node.dependencies.size();
-                    for (int j = 0; j < numDependencies; ++j) {
-                        Dependency dependency = node.dependencies.get(j);
-                        if (node.nodeDependencies == null) {
-                            node.nodeDependencies = new ArrayList<Node>();
-                        }
-                        if (!node.nodeDependencies.contains(dependency.node)) {
-                            node.nodeDependencies.add(dependency.node);
-                        }
-                    }
+        }
+        if (numSorted != numNodes) {
+            throw new IllegalStateException("Circular dependencies cannot exist"
+                    + " in AnimatorSet");
+        }
+        mSortedNodes.clear();
+        for (int i = 0; i < numNodes; ++i) {
+            mSortedNodes.add(nodes.get(order[i]));
+        }
+
+        // Refill the edges in sorted order, the order in which dependent nodes are started
+        Arrays.fill(fill, 0);
+        fillEdges(mSortedNodes, dependentsStart, fill, dependents, dependentRules);
+
+        mDependentsStart = dependentsStart;
+        mDependents = dependents;
+        mDependentRules = dependentRules;
+        mDependencyCounts = dependencyCounts;
+        mPendingDependencies = new int[numNodes];
+        mEdgeFired = new boolean[numEdges];
+        mOnTimeline = new boolean[numNodes];
+        mStartOffsets = new long[numNodes];
+        mNeedsSort = false;
+    }
+
+    /**
+     * Puts the edges entering the given nodes, in that order, into the buckets of the nodes
+     * they leave.
+     */
+    private static void fillEdges(ArrayList<Node> nodes, int[] dependentsStart, int[] fill,
+            int[] dependents, int[] dependentRules) {
+        final int numNodes = nodes.size();
+        for (int i = 0; i < numNodes; ++i) {
+            Node node = nodes.get(i);
+            ArrayList<Dependency> dependencies = node.dependencies;
+            if (dependencies != null) {
+                int numDependencies = dependencies.size();
+                for (int j = 0; j < numDependencies; ++j) {
+                    Dependency dependency = dependencies.get(j);
+                    final int from = dependency.node.index;
+                    final int edge = dependentsStart[from] + fill[from]++;
+                    dependents[edge] = node.index;
+                    dependentRules[edge] = dependency.rule;
                 }
-                // nodes are 'done' by default; they become un-done when started, and done
-                // again when ended
-                node.done = false;
             }
         }
     }
@@ -867,9 +1011,9 @@ public final class AnimatorSet extends Animator {
 
     /**
      * A Node is an embodiment of both the Animator that it wraps as well as
-     * any dependencies that are associated with that Animation. This includes
-     * both dependencies upon other nodes (in the dependencies list) as
-     * well as dependencies of other nodes upon this (in the nodeDependents list).
+     * any dependencies that are associated with that Animation, that is the
+     * dependencies upon other nodes (in the dependencies list). Dependencies of other
+     * nodes upon this one are found in the graph compiled by sortNodes().
      */
     private static class Node implements Cloneable {
         public Animator animation;
@@ -883,28 +1027,15 @@ public final class AnimatorSet extends Animator {
         public ArrayList<Dependency> dependencies = null;
 
         /**
-         * tmpDependencies is a runtime detail. We use the dependencies list for sorting.
-         * But we also use the list to keep track of when multiple dependencies are satisfied,
-         * but removing each dependency as it is satisfied. We do not want to remove
-         * the dependency itself from the list, because we need to retain that information
-         * if the AnimatorSet is launched in the future. So we create a copy of the dependency
-         * list when the AnimatorSet starts and use this tmpDependencies list to track the
-         * list of satisfied dependencies.
+         * The position of this node in mNodes, which indexes the compiled dependency graph.
+         * Set by sortNodes().
          */
-        public ArrayList<Dependency> tmpDependencies = null;
+        public int index;
 
         /**
-         * nodeDependencies is just a list of the nodes that this Node is dependent upon.
-         * This information is used in sortNodes(), to determine when a node is a root.
+         * The listener that this node keeps on its animation. Created by sortNodes().
          */
-        public ArrayList<Node> nodeDependencies = null;
-
-        /**
-         * nodeDepdendents is the list of nodes that have this node as a dependency. This
-         * is a utility field used in sortNodes to facilitate removing this node as a
-         * dependency when it is a root node.
-         */
-        public ArrayList<Node> nodeDependents = null;
+        public NodeListener listener = null;
 
         /**
          * Flag indicating whether the animation in this node is finished. This flag
@@ -932,17 +1063,8 @@ public final class AnimatorSet extends Animator {
         public void addDependency(Dependency dependency) {
             if (dependencies == null) {
                 dependencies = new ArrayList<Dependency>();
-                nodeDependencies = new ArrayList<Node>();
             }
             dependencies.add(dependency);
-            if (!nodeDependencies.contains(dependency.node)) {
-                nodeDependencies.add(dependency.node);
-            }
-            Node dependencyNode = dependency.node;
-            if (dependencyNode.nodeDependents == null) {
-                dependencyNode.nodeDependents = new ArrayList<Node>();
-            }
-            dependencyNode.nodeDependents.add(this);
         }
 
         @Override
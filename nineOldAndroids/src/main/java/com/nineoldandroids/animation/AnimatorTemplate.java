@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.nineoldandroids.animation;
+
+import java.util.ArrayList;
+
+/**
+ * Hands out copies of an animation, each bound to its own target, for animations that are
+ * played on many targets, such as the rows of a list. The animation is copied once when the
+ * template is made, and instances are put back into a pool when they end or are canceled, so
+ * that obtaining an instance again usually costs no more than setting its target:
+ *
+ * <pre>
+ * AnimatorTemplate template = new AnimatorTemplate(rowAnimation);
+ * ...
+ * template.obtain(rowView).start();
+ * </pre>
+ *
+ * <p>Each instance is set up from the template's copy of the animation when it is obtained:
+ * its listeners are the ones the animation had when the template was made, and start or end
+ * values that the animation reads from its target are read from the new target. Other changes
+ * made to an instance, such as its duration, are kept when it is reused. An instance must not
+ * be used after it has ended or been canceled, as it may already have been handed out again.
+ * </p>
+ *
+ * <p>Only instances that have ended are reused. When none is waiting in the pool,
+ * {@link #obtain(Object)} makes a new instance with {@link Animator#clone()}, which costs as
+ * much as copying the animation by hand: an {@link AnimatorSet} copies every child and links
+ * its nodes up again. Make the pool at least as large as the number of instances that run at
+ * the same time, so that this only happens while the pool fills up.</p>
+ *
+ * <p>Pooled instances keep their last target until they are obtained again or the pool is
+ * {@link #clear() cleared}.</p>
+ *
+ * <p>A template, like the animators it hands out, is only meant to be used on the thread that
+ * runs the animations.</p>
+ */
+public final class AnimatorTemplate {
+    /**
+     * The number of instances kept for reuse, unless given to the constructor.
+     */
+    public static final int DEFAULT_MAX_POOL_SIZE = 16;
+
+    // The copy of the animation every instance is made from; it is never started or changed
+    private final Animator mDescription;
+
+    // The ObjectAnimators of mDescription that read values from their targets
+    private final ObjectAnimator[] mTargetDependents;
+
+    private final int mMaxPoolSize;
+    private final ArrayList<Instance> mPool;
+
+    /**
+     * Creates a template of the given animation, keeping up to {@link #DEFAULT_MAX_POOL_SIZE}
+     * instances for reuse.
+     *
+     * @param prototype The animation to copy. It is copied with {@link Animator#clone()}, so
+     * later changes to it do not affect the template.
+     */
+    public AnimatorTemplate(Animator prototype) {
+        this(prototype, DEFAULT_MAX_POOL_SIZE);
+    }
+
+    /**
+     * Creates a template of the given animation.
+     *
+     * @param prototype The animation to copy. It is copied with {@link Animator#clone()}, so
+     * later changes to it do not affect the template.
+     * @param maxPoolSize The number of finished instances kept for reuse.
+     */
+    public AnimatorTemplate(Animator prototype, int maxPoolSize) {
+        if (maxPoolSize < 0) {
+            throw new IllegalArgumentException("maxPoolSize must not be negative");
+        }
+        mDescription = prototype.clone();
+        mMaxPoolSize = maxPoolSize;
+        mPool = new ArrayList<Instance>(maxPoolSize);
+
+        ArrayList<ObjectAnimator> dependents = new ArrayList<ObjectAnimator>();
+        collectTargetDependents(mDescription, dependents);
+        mTargetDependents = dependents.toArray(new ObjectAnimator[dependents.size()]);
+    }
+
+    /**
+     * Returns an instance of the animation bound to the given target, reusing one that has
+     * finished if there is one. The instance is not started.
+     *
+     * @param target The object to animate, set on the instance with
+     * {@link Animator#setTarget(Object)}.
+     * @return An instance of the animation.
+     */
+    public Animator obtain(Object target) {
+        Instance instance = null;
+        for (int i = mPool.size() - 1; i >= 0; --i) {
+            // An instance joins the pool while its end is being dispatched, and the end would
+            // undo a restart made by a later listener, so it waits until the dispatch is over
+            if (!mPool.get(i).mAnimator.isStarted()) {
+                instance = mPool.remove(i);
+                instance.mInPool = false;
+                instance.reset();
+                break;
+            }
+        }
+        if (instance == null) {
+            // The full cost of a clone; see the class documentation
+            instance = new Instance(mDescription.clone());
+        }
+        instance.mAnimator.setTarget(target);
+        return instance.mAnimator;
+    }
+
+    /**
+     * Returns the number of finished instances waiting to be reused.
+     */
+    public int getPoolSize() {
+        return mPool.size();
+    }
+
+    /**
+     * Drops the finished instances waiting to be reused, along with their last targets.
+     */
+    public void clear() {
+        final int poolSize = mPool.size();
+        for (int i = 0; i < poolSize; ++i) {
+            mPool.get(i).mInPool = false;
+        }
+        mPool.clear();
+    }
+
+    /**
+     * Finds the ObjectAnimators under <code>animation</code> with values that are read from
+     * the target, in the order of {@link AnimatorSet#getChildAnimations()}, which copies made
+     * with {@link Animator#clone()} share.
+     */
+    private static void collectTargetDependents(Animator animation,
+            ArrayList<ObjectAnimator> dependents) {
+        if (animation instanceof AnimatorSet) {
+            ArrayList<Animator> children = ((AnimatorSet) animation).getChildAnimations();
+            final int numChildren = children.size();
+            for (int i = 0; i < numChildren; ++i) {
+                collectTargetDependents(children.get(i), dependents);
+            }
+        } else if (animation instanceof ObjectAnimator) {
+            PropertyValuesHolder[] values = ((ObjectAnimator) animation).getValues();
+            if (values != null) {
+                for (int i = 0; i < values.length; ++i) {
+                    if (values[i].mKeyframeSet.hasMissingValues()) {
+                        dependents.add((ObjectAnimator) animation);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int size(ArrayList<?> list) {
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * Returns whether <code>list</code> starts with the same objects as <code>prefix</code>,
+     * either of which may be <code>null</code> for an empty list.
+     */
+    private static boolean startsWith(ArrayList<?> list, ArrayList<?> prefix) {
+        final int numPrefix = size(prefix);
+        if (size(list) < numPrefix) {
+            return false;
+        }
+        for (int i = 0; i < numPrefix; ++i) {
+            if (list.get(i) != prefix.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One copy of the animation, which puts itself back into the pool when it finishes.
+     */
+    private class Instance implements Animator.AnimatorListener {
+        final Animator mAnimator;
+
+        // The copies of mTargetDependents in mAnimator, in the same order
+        private final ObjectAnimator[] mDependents;
+
+        boolean mInPool;
+
+        Instance(Animator animator) {
+            mAnimator = animator;
+            animator.addListener(this);
+
+            ArrayList<ObjectAnimator> dependents =
+                    new ArrayList<ObjectAnimator>(mTargetDependents.length);
+            if (mTargetDependents.length > 0) {
+                collectTargetDependents(animator, dependents);
+            }
+            mDependents = dependents.toArray(new ObjectAnimator[dependents.size()]);
+        }
+
+        /**
+         * Undoes what the previous use of the animation left behind.
+         */
+        void reset() {
+            // Listeners added or removed since the instance was obtained
+            ArrayList<Animator.AnimatorListener> original = mDescription.mListeners;
+            final int numOriginal = size(original);
+            ArrayList<Animator.AnimatorListener> listeners = mAnimator.mListeners;
+            if (size(listeners) != numOriginal + 1 || !startsWith(listeners, original)
+                    || listeners.get(numOriginal) != this) {
+                mAnimator.removeAllListeners();
+                for (int i = 0; i < numOriginal; ++i) {
+                    mAnimator.addListener(original.get(i));
+                }
+                mAnimator.addListener(this);
+            }
+            if (mAnimator instanceof ValueAnimator) {
+                ValueAnimator animator = (ValueAnimator) mAnimator;
+                ArrayList<ValueAnimator.AnimatorUpdateListener> originalUpdateListeners =
+                        ((ValueAnimator) mDescription).mUpdateListeners;
+                final int numOriginalUpdateListeners = size(originalUpdateListeners);
+                if (size(animator.mUpdateListeners) != numOriginalUpdateListeners
+                        || !startsWith(animator.mUpdateListeners, originalUpdateListeners)) {
+                    animator.removeAllUpdateListeners();
+                    for (int i = 0; i < numOriginalUpdateListeners; ++i) {
+                        animator.addUpdateListener(originalUpdateListeners.get(i));
+                    }
+                }
+            }
+
+            // Values read from the previous target
+            for (int i = 0; i < mDependents.length; ++i) {
+                PropertyValuesHolder[] values = mDependents[i].getValues();
+                PropertyValuesHolder[] originalValues = mTargetDependents[i].getValues();
+                for (int j = 0; j < values.length; ++j) {
+                    values[j].resetMissingValues(originalValues[j]);
+                }
+                mDependents[i].mInitialized = false;
+            }
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (!mInPool && mPool.size() < mMaxPoolSize) {
+                mInPool = true;
+                mPool.add(this);
+            }
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+        }
+
+        @Override
+        public void onAnimationRepeat(Animator animation) {
+        }
+    }
+}
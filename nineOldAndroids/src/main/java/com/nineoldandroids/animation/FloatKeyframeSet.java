@@ -30,26 +30,75 @@ import java.util.ArrayList;
  * <p>This type-specific subclass of KeyframeSet, along with the other type-specific subclass for
  * int, exists to speed up the getValue() method when there is no custom
  * TypeEvaluator set for the animation, so that values can be calculated without autoboxing to the
- * Object equivalents of these primitive types.</p>
+ * Object equivalents of these primitive types. The fractions, values and interpolators are kept
+ * in parallel arrays, and Keyframe objects are only created if {@link #getKeyframes()} is
+ * called.</p>
  */
 class FloatKeyframeSet extends KeyframeSet {
-    private float firstValue;
-    private float lastValue;
-    private float deltaValue;
-    private boolean firstTime = true;
+    private float[] mValues;
+    private /*Time*/Interpolator[] mInterpolators;
 
     public FloatKeyframeSet(FloatKeyframe... keyframes) {
         super(keyframes);
     }
 
+    FloatKeyframeSet(float[] fractions, float[] values, /*Time*/Interpolator[] interpolators) {
+        super(fractions, interpolators[interpolators.length - 1]);
+        mValues = values;
+        mInterpolators = interpolators;
+    }
+
     @Override
     public Object getValue(float fraction) {
         return getFloatValue(fraction);
     }
 
+    @Override
+    ArrayList<Keyframe> getKeyframes() {
+        if (mKeyframes == null) {
+            final int numKeyframes = mNumKeyframes;
+            final ArrayList<Keyframe> keyframes = new ArrayList<Keyframe>(numKeyframes);
+            for (int i = 0; i < numKeyframes; ++i) {
+                final Keyframe keyframe = Keyframe.ofFloat(mFractions[i], mValues[i]);
+                keyframe.setInterpolator(mInterpolators[i]);
+                keyframe.addOwner(this);
+                keyframes.add(keyframe);
+            }
+            mKeyframes = keyframes;
+            mFirstKeyframe = keyframes.get(0);
+            mLastKeyframe = keyframes.get(numKeyframes - 1);
+        }
+        return super.getKeyframes();
+    }
+
+    @Override
+    Object getKeyframeValue(int index) {
+        return mKeyframes != null ? super.getKeyframeValue(index) : mValues[index];
+    }
+
+    @Override
+    void updateFromKeyframes() {
+        super.updateFromKeyframes();
+        final int numKeyframes = mNumKeyframes;
+        if (mValues == null) {
+            mValues = new float[numKeyframes];
+            mInterpolators = new /*Time*/Interpolator[numKeyframes];
+        }
+        final ArrayList<Keyframe> keyframes = mKeyframes;
+        for (int i = 0; i < numKeyframes; ++i) {
+            final FloatKeyframe keyframe = (FloatKeyframe) keyframes.get(i);
+            mValues[i] = keyframe.getFloatValue();
+            mInterpolators[i] = keyframe.getInterpolator();
+        }
+    }
+
     @Override
     public FloatKeyframeSet clone() {
         ArrayList<Keyframe> keyframes = mKeyframes;
+        if (keyframes == null) {
+            return new FloatKeyframeSet(mFractions.clone(), mValues.clone(),
+                    mInterpolators.clone());
+        }
         int numKeyframes = mKeyframes.size();
         FloatKeyframe[] newKeyframes = new FloatKeyframe[numKeyframes];
         for (int i = 0; i < numKeyframes; ++i) {
@@ -60,77 +109,47 @@ class FloatKeyframeSet extends KeyframeSet {
     }
 
     public float getFloatValue(float fraction) {
+        if (mKeyframesChanged) {
+            updateFromKeyframes();
+        }
+        final float[] fractions = mFractions;
+        final float[] values = mValues;
         if (mNumKeyframes == 2) {
-            if (firstTime) {
-                firstTime = false;
-                firstValue = ((FloatKeyframe) mKeyframes.get(0)).getFloatValue();
-                lastValue = ((FloatKeyframe) mKeyframes.get(1)).getFloatValue();
-                deltaValue = lastValue - firstValue;
-            }
             if (mInterpolator != null) {
                 fraction = mInterpolator.getInterpolation(fraction);
             }
+            final float firstValue = values[0];
+            final float lastValue = values[1];
             if (mEvaluator == null) {
-                return firstValue + fraction * deltaValue;
+                return firstValue + fraction * (lastValue - firstValue);
             } else {
                 return ((Number)mEvaluator.evaluate(fraction, firstValue, lastValue)).floatValue();
             }
         }
+        int next;
         if (fraction <= 0f) {
-            final FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(0);
-            final FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(1);
-            float prevValue = prevKeyframe.getFloatValue();
-            float nextValue = nextKeyframe.getFloatValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + intervalFraction * (nextValue - prevValue) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            floatValue();
+            next = 1;
         } else if (fraction >= 1f) {
-            final FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(mNumKeyframes - 2);
-            final FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(mNumKeyframes - 1);
-            float prevValue = prevKeyframe.getFloatValue();
-            float nextValue = nextKeyframe.getFloatValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
+            next = mNumKeyframes - 1;
+        } else {
+            next = findInterval(fraction);
+            if (next < 0) {
+                // shouldn't get here
+                return values[mNumKeyframes - 1];
             }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + intervalFraction * (nextValue - prevValue) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            floatValue();
         }
-        FloatKeyframe prevKeyframe = (FloatKeyframe) mKeyframes.get(0);
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            FloatKeyframe nextKeyframe = (FloatKeyframe) mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                float intervalFraction = (fraction - prevKeyframe.getFraction()) /
-                    (nextKeyframe.getFraction() - prevKeyframe.getFraction());
-                float prevValue = prevKeyframe.getFloatValue();
-                float nextValue = nextKeyframe.getFloatValue();
-                return mEvaluator == null ?
-                        prevValue + intervalFraction * (nextValue - prevValue) :
-                        ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            floatValue();
-            }
-            prevKeyframe = nextKeyframe;
+        final /*Time*/Interpolator interpolator = mInterpolators[next];
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
         }
-        // shouldn't get here
-        return ((Number)mKeyframes.get(mNumKeyframes - 1).getValue()).floatValue();
+        final float prevFraction = fractions[next - 1];
+        float intervalFraction = (fraction - prevFraction) / (fractions[next] - prevFraction);
+        float prevValue = values[next - 1];
+        float nextValue = values[next];
+        return mEvaluator == null ?
+                prevValue + intervalFraction * (nextValue - prevValue) :
+                ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
+                    floatValue();
     }
 
 }
-
@@ -30,26 +30,75 @@ import java.util.ArrayList;
  * <p>This type-specific subclass of KeyframeSet, along with the other type-specific subclass for
  * float, exists to speed up the getValue() method when there is no custom
  * TypeEvaluator set for the animation, so that values can be calculated without autoboxing to the
- * Object equivalents of these primitive types.</p>
+ * Object equivalents of these primitive types. The fractions, values and interpolators are kept
+ * in parallel arrays, and Keyframe objects are only created if {@link #getKeyframes()} is
+ * called.</p>
  */
 class IntKeyframeSet extends KeyframeSet {
-    private int firstValue;
-    private int lastValue;
-    private int deltaValue;
-    private boolean firstTime = true;
+    private int[] mValues;
+    private /*Time*/Interpolator[] mInterpolators;
 
     public IntKeyframeSet(IntKeyframe... keyframes) {
         super(keyframes);
     }
 
+    IntKeyframeSet(float[] fractions, int[] values, /*Time*/Interpolator[] interpolators) {
+        super(fractions, interpolators[interpolators.length - 1]);
+        mValues = values;
+        mInterpolators = interpolators;
+    }
+
     @Override
     public Object getValue(float fraction) {
         return getIntValue(fraction);
     }
 
+    @Override
+    ArrayList<Keyframe> getKeyframes() {
+        if (mKeyframes == null) {
+            final int numKeyframes = mNumKeyframes;
+            final ArrayList<Keyframe> keyframes = new ArrayList<Keyframe>(numKeyframes);
+            for (int i = 0; i < numKeyframes; ++i) {
+                final Keyframe keyframe = Keyframe.ofInt(mFractions[i], mValues[i]);
+                keyframe.setInterpolator(mInterpolators[i]);
+                keyframe.addOwner(this);
+                keyframes.add(keyframe);
+            }
+            mKeyframes = keyframes;
+            mFirstKeyframe = keyframes.get(0);
+            mLastKeyframe = keyframes.get(numKeyframes - 1);
+        }
+        return super.getKeyframes();
+    }
+
+    @Override
+    Object getKeyframeValue(int index) {
+        return mKeyframes != null ? super.getKeyframeValue(index) : mValues[index];
+    }
+
+    @Override
+    void updateFromKeyframes() {
+        super.updateFromKeyframes();
+        final int numKeyframes = mNumKeyframes;
+        if (mValues == null) {
+            mValues = new int[numKeyframes];
+            mInterpolators = new /*Time*/Interpolator[numKeyframes];
+        }
+        final ArrayList<Keyframe> keyframes = mKeyframes;
+        for (int i = 0; i < numKeyframes; ++i) {
+            final IntKeyframe keyframe = (IntKeyframe) keyframes.get(i);
+            mValues[i] = keyframe.getIntValue();
+            mInterpolators[i] = keyframe.getInterpolator();
+        }
+    }
+
     @Override
     public IntKeyframeSet clone() {
         ArrayList<Keyframe> keyframes = mKeyframes;
+        if (keyframes == null) {
+            return new IntKeyframeSet(mFractions.clone(), mValues.clone(),
+                    mInterpolators.clone());
+        }
         int numKeyframes = mKeyframes.size();
         IntKeyframe[] newKeyframes = new IntKeyframe[numKeyframes];
         for (int i = 0; i < numKeyframes; ++i) {
@@ -60,76 +109,47 @@ class IntKeyframeSet extends KeyframeSet {
     }
 
     public int getIntValue(float fraction) {
+        if (mKeyframesChanged) {
+            updateFromKeyframes();
+        }
+        final float[] fractions = mFractions;
+        final int[] values = mValues;
         if (mNumKeyframes == 2) {
-            if (firstTime) {
-                firstTime = false;
-                firstValue = ((IntKeyframe) mKeyframes.get(0)).getIntValue();
-                lastValue = ((IntKeyframe) mKeyframes.get(1)).getIntValue();
-                deltaValue = lastValue - firstValue;
-            }
             if (mInterpolator != null) {
                 fraction = mInterpolator.getInterpolation(fraction);
             }
+            final int firstValue = values[0];
+            final int lastValue = values[1];
             if (mEvaluator == null) {
-                return firstValue + (int)(fraction * deltaValue);
+                return firstValue + (int)(fraction * (lastValue - firstValue));
             } else {
                 return ((Number)mEvaluator.evaluate(fraction, firstValue, lastValue)).intValue();
             }
         }
+        int next;
         if (fraction <= 0f) {
-            final IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(0);
-            final IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(1);
-            int prevValue = prevKeyframe.getIntValue();
-            int nextValue = nextKeyframe.getIntValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
-            }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                            intValue();
+            next = 1;
         } else if (fraction >= 1f) {
-            final IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(mNumKeyframes - 2);
-            final IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(mNumKeyframes - 1);
-            int prevValue = prevKeyframe.getIntValue();
-            int nextValue = nextKeyframe.getIntValue();
-            float prevFraction = prevKeyframe.getFraction();
-            float nextFraction = nextKeyframe.getFraction();
-            final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-            if (interpolator != null) {
-                fraction = interpolator.getInterpolation(fraction);
+            next = mNumKeyframes - 1;
+        } else {
+            next = findInterval(fraction);
+            if (next < 0) {
+                // shouldn't get here
+                return values[mNumKeyframes - 1];
             }
-            float intervalFraction = (fraction - prevFraction) / (nextFraction - prevFraction);
-            return mEvaluator == null ?
-                    prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                    ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).intValue();
         }
-        IntKeyframe prevKeyframe = (IntKeyframe) mKeyframes.get(0);
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            IntKeyframe nextKeyframe = (IntKeyframe) mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                float intervalFraction = (fraction - prevKeyframe.getFraction()) /
-                    (nextKeyframe.getFraction() - prevKeyframe.getFraction());
-                int prevValue = prevKeyframe.getIntValue();
-                int nextValue = nextKeyframe.getIntValue();
-                return mEvaluator == null ?
-                        prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
-                        ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
-                                intValue();
-            }
-            prevKeyframe = nextKeyframe;
+        final /*Time*/Interpolator interpolator = mInterpolators[next];
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
         }
-        // shouldn't get here
-        return ((Number)mKeyframes.get(mNumKeyframes - 1).getValue()).intValue();
+        final float prevFraction = fractions[next - 1];
+        float intervalFraction = (fraction - prevFraction) / (fractions[next] - prevFraction);
+        int prevValue = values[next - 1];
+        int nextValue = values[next];
+        return mEvaluator == null ?
+                prevValue + (int)(intervalFraction * (nextValue - prevValue)) :
+                ((Number)mEvaluator.evaluate(intervalFraction, prevValue, nextValue)).
+                    intValue();
     }
 
 }
-
@@ -18,6 +18,9 @@ package com.nineoldandroids.animation;
 
 import android.view.animation.Interpolator;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
 /**
  * This class holds a time/value pair for an animation. The Keyframe class is used
  * by {@link ValueAnimator} to define the values that the animation target will have over the course
@@ -60,6 +63,13 @@ public abstract class Keyframe implements Cloneable {
      */
     boolean mHasValue = false;
 
+    /**
+     * The keyframe sets holding this keyframe, which copy its fraction, value and interpolator
+     * and are told when one of them is set. A keyframe may be passed to any number of sets, so
+     * they are only weakly referenced.
+     */
+    private ArrayList<WeakReference<KeyframeSet>> mOwners;
+
     /**
      * Constructs a Keyframe object with the given time and value. The time defines the
      * time, as a proportion of an overall animation's duration, at which the value will hold true
@@ -199,6 +209,7 @@ public abstract class Keyframe implements Cloneable {
      */
     public void setFraction(float fraction) {
         mFraction = fraction;
+        notifyOwners();
     }
 
     /**
@@ -213,12 +224,42 @@ public abstract class Keyframe implements Cloneable {
 
     /**
      * Sets the optional interpolator for this Keyframe. A value of <code>null</code> indicates
-     * that there is no interpolation, which is the same as linear interpolation.
+     * that there is no interpolation, which is the same as linear interpolation. An
+     * interpolator that is expensive to evaluate can be wrapped with
+     * {@link LookupTableInterpolator#of(Interpolator)}.
      *
      * @return The optional interpolator for this Keyframe.
      */
     public void setInterpolator(/*Time*/Interpolator interpolator) {
         mInterpolator = interpolator;
+        notifyOwners();
+    }
+
+    /**
+     * Makes the given set be told when this keyframe changes.
+     */
+    void addOwner(KeyframeSet owner) {
+        if (mOwners == null) {
+            mOwners = new ArrayList<WeakReference<KeyframeSet>>(1);
+        }
+        mOwners.add(new WeakReference<KeyframeSet>(owner));
+    }
+
+    /**
+     * Tells the sets holding this keyframe that what they copied from it is out of date.
+     */
+    void notifyOwners() {
+        final ArrayList<WeakReference<KeyframeSet>> owners = mOwners;
+        if (owners != null) {
+            for (int i = owners.size() - 1; i >= 0; --i) {
+                final KeyframeSet owner = owners.get(i).get();
+                if (owner != null) {
+                    owner.mKeyframesChanged = true;
+                } else {
+                    owners.remove(i);
+                }
+            }
+        }
     }
 
     /**
@@ -259,11 +300,13 @@ public abstract class Keyframe implements Cloneable {
         public void setValue(Object value) {
             mValue = value;
             mHasValue = (value != null);
+            notifyOwners();
         }
 
         @Override
         public ObjectKeyframe clone() {
-            ObjectKeyframe kfClone = new ObjectKeyframe(getFraction(), mValue);
+            // A keyframe without a value stays without one, to be read from the target
+            ObjectKeyframe kfClone = new ObjectKeyframe(getFraction(), mHasValue ? mValue : null);
             kfClone.setInterpolator(getInterpolator());
             return kfClone;
         }
@@ -303,12 +346,15 @@ public abstract class Keyframe implements Cloneable {
             if (value != null && value.getClass() == Integer.class) {
                 mValue = ((Integer)value).intValue();
                 mHasValue = true;
+                notifyOwners();
             }
         }
 
         @Override
         public IntKeyframe clone() {
-            IntKeyframe kfClone = new IntKeyframe(getFraction(), mValue);
+            // A keyframe without a value stays without one, to be read from the target
+            IntKeyframe kfClone = mHasValue ? new IntKeyframe(getFraction(), mValue) :
+                    new IntKeyframe(getFraction());
             kfClone.setInterpolator(getInterpolator());
             return kfClone;
         }
@@ -347,12 +393,15 @@ public abstract class Keyframe implements Cloneable {
             if (value != null && value.getClass() == Float.class) {
                 mValue = ((Float)value).floatValue();
                 mHasValue = true;
+                notifyOwners();
             }
         }
 
         @Override
         public FloatKeyframe clone() {
-            FloatKeyframe kfClone = new FloatKeyframe(getFraction(), mValue);
+            // A keyframe without a value stays without one, to be read from the target
+            FloatKeyframe kfClone = mHasValue ? new FloatKeyframe(getFraction(), mValue) :
+                    new FloatKeyframe(getFraction());
             kfClone.setInterpolator(getInterpolator());
             return kfClone;
         }
@@ -37,47 +37,69 @@ class KeyframeSet {
     Keyframe mFirstKeyframe;
     Keyframe mLastKeyframe;
     /*Time*/Interpolator mInterpolator; // only used in the 2-keyframe case
-    ArrayList<Keyframe> mKeyframes; // only used when there are not 2 keyframes
+    ArrayList<Keyframe> mKeyframes; // null in primitive sets until getKeyframes() is called
     TypeEvaluator mEvaluator;
+    float[] mFractions;
+
+    // Set by the keyframes when one of them is changed after it was copied from
+    boolean mKeyframesChanged;
+
+    // Index of the keyframe ending the interval found by the last call to findInterval()
+    private int mIntervalCursor = 1;
 
 
     public KeyframeSet(Keyframe... keyframes) {
         mNumKeyframes = keyframes.length;
         mKeyframes = new ArrayList<Keyframe>();
         mKeyframes.addAll(Arrays.asList(keyframes));
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            // Keyframes passed to ofKeyframe() stay with the caller, who may change them later
+            keyframes[i].addOwner(this);
+        }
         mFirstKeyframe = mKeyframes.get(0);
         mLastKeyframe = mKeyframes.get(mNumKeyframes - 1);
-        mInterpolator = mLastKeyframe.getInterpolator();
+        mFractions = new float[mNumKeyframes];
+        updateFromKeyframes();
+    }
+
+    /**
+     * Constructor for the primitive sets, which keep their keyframes in arrays and only create
+     * Keyframe objects when {@link #getKeyframes()} asks for them.
+     */
+    KeyframeSet(float[] fractions, /*Time*/Interpolator lastInterpolator) {
+        mNumKeyframes = fractions.length;
+        mFractions = fractions;
+        mInterpolator = lastInterpolator;
     }
 
     public static KeyframeSet ofInt(int... values) {
         int numKeyframes = values.length;
-        IntKeyframe keyframes[] = new IntKeyframe[Math.max(numKeyframes,2)];
         if (numKeyframes == 1) {
-            keyframes[0] = (IntKeyframe) Keyframe.ofInt(0f);
-            keyframes[1] = (IntKeyframe) Keyframe.ofInt(1f, values[0]);
-        } else {
-            keyframes[0] = (IntKeyframe) Keyframe.ofInt(0f, values[0]);
-            for (int i = 1; i < numKeyframes; ++i) {
-                keyframes[i] = (IntKeyframe) Keyframe.ofInt((float) i / (numKeyframes - 1), values[i]);
-            }
+            // The start value is missing until it is read from the target, which needs a Keyframe
+            return new IntKeyframeSet((IntKeyframe) Keyframe.ofInt(0f),
+                    (IntKeyframe) Keyframe.ofInt(1f, values[0]));
         }
-        return new IntKeyframeSet(keyframes);
+        return new IntKeyframeSet(evenFractions(numKeyframes), values.clone(),
+                new /*Time*/Interpolator[numKeyframes]);
     }
 
     public static KeyframeSet ofFloat(float... values) {
         int numKeyframes = values.length;
-        FloatKeyframe keyframes[] = new FloatKeyframe[Math.max(numKeyframes,2)];
         if (numKeyframes == 1) {
-            keyframes[0] = (FloatKeyframe) Keyframe.ofFloat(0f);
-            keyframes[1] = (FloatKeyframe) Keyframe.ofFloat(1f, values[0]);
-        } else {
-            keyframes[0] = (FloatKeyframe) Keyframe.ofFloat(0f, values[0]);
-            for (int i = 1; i < numKeyframes; ++i) {
-                keyframes[i] = (FloatKeyframe) Keyframe.ofFloat((float) i / (numKeyframes - 1), values[i]);
-            }
+            // The start value is missing until it is read from the target, which needs a Keyframe
+            return new FloatKeyframeSet((FloatKeyframe) Keyframe.ofFloat(0f),
+                    (FloatKeyframe) Keyframe.ofFloat(1f, values[0]));
         }
-        return new FloatKeyframeSet(keyframes);
+        return new FloatKeyframeSet(evenFractions(numKeyframes), values.clone(),
+                new /*Time*/Interpolator[numKeyframes]);
+    }
+
+    private static float[] evenFractions(int numKeyframes) {
+        float[] fractions = new float[numKeyframes];
+        for (int i = 1; i < numKeyframes; ++i) {
+            fractions[i] = (float) i / (numKeyframes - 1);
+        }
+        return fractions;
     }
 
     public static KeyframeSet ofKeyframe(Keyframe... keyframes) {
@@ -139,6 +161,52 @@ class KeyframeSet {
         mEvaluator = evaluator;
     }
 
+    /**
+     * Returns the keyframes of this set, creating them first if the set was built from
+     * primitive values. The caller may change the keyframes; the set picks up the changes the
+     * next time it calculates a value.
+     */
+    ArrayList<Keyframe> getKeyframes() {
+        return mKeyframes;
+    }
+
+    /**
+     * Returns the value of the keyframe at the given index without creating keyframes that do
+     * not exist yet.
+     */
+    Object getKeyframeValue(int index) {
+        return mKeyframes.get(index).getValue();
+    }
+
+    /**
+     * Returns whether any keyframe still lacks a value, which is then read from the target
+     * when the animation is set up.
+     */
+    boolean hasMissingValues() {
+        final ArrayList<Keyframe> keyframes = mKeyframes;
+        if (keyframes != null) {
+            for (int i = 0; i < mNumKeyframes; ++i) {
+                if (!keyframes.get(i).hasValue()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies what is needed to calculate values from the keyframes. Subclasses that keep more
+     * than the fractions override this.
+     */
+    void updateFromKeyframes() {
+        final ArrayList<Keyframe> keyframes = mKeyframes;
+        for (int i = 0; i < mNumKeyframes; ++i) {
+            mFractions[i] = keyframes.get(i).getFraction();
+        }
+        mInterpolator = keyframes.get(mNumKeyframes - 1).getInterpolator();
+        mKeyframesChanged = false;
+    }
+
     @Override
     public KeyframeSet clone() {
         ArrayList<Keyframe> keyframes = mKeyframes;
@@ -164,6 +232,9 @@ class KeyframeSet {
      * @return The animated value.
      */
     public Object getValue(float fraction) {
+        if (mKeyframesChanged) {
+            updateFromKeyframes();
+        }
 
         // Special-case optimization for the common case of only two keyframes
         if (mNumKeyframes == 2) {
@@ -196,31 +267,70 @@ class KeyframeSet {
             return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
                     mLastKeyframe.getValue());
         }
-        Keyframe prevKeyframe = mFirstKeyframe;
-        for (int i = 1; i < mNumKeyframes; ++i) {
-            Keyframe nextKeyframe = mKeyframes.get(i);
-            if (fraction < nextKeyframe.getFraction()) {
-                final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
-                if (interpolator != null) {
-                    fraction = interpolator.getInterpolation(fraction);
-                }
-                final float prevFraction = prevKeyframe.getFraction();
-                float intervalFraction = (fraction - prevFraction) /
-                    (nextKeyframe.getFraction() - prevFraction);
-                return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
-                        nextKeyframe.getValue());
+        final int next = findInterval(fraction);
+        if (next < 0) {
+            // shouldn't reach here
+            return mLastKeyframe.getValue();
+        }
+        final Keyframe prevKeyframe = mKeyframes.get(next - 1);
+        final Keyframe nextKeyframe = mKeyframes.get(next);
+        final /*Time*/Interpolator interpolator = nextKeyframe.getInterpolator();
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
+        }
+        final float prevFraction = prevKeyframe.getFraction();
+        float intervalFraction = (fraction - prevFraction) /
+            (nextKeyframe.getFraction() - prevFraction);
+        return mEvaluator.evaluate(intervalFraction, prevKeyframe.getValue(),
+                nextKeyframe.getValue());
+    }
+
+    /**
+     * Finds the keyframe interval that the given fraction falls in, that is the first keyframe
+     * whose fraction is greater than it. Since the fraction mostly moves forward from one frame
+     * to the next, the interval found last time and the one after it are checked first; any
+     * other interval is found by binary search.
+     *
+     * @param fraction The elapsed fraction of the animation
+     * @return The index of the keyframe ending the interval, from 1 to mNumKeyframes - 1, or -1
+     * if the fraction is not before the last keyframe
+     */
+    int findInterval(float fraction) {
+        final float[] fractions = mFractions;
+        int cursor = mIntervalCursor;
+        if (cursor < mNumKeyframes && fraction < fractions[cursor]) {
+            if (cursor == 1 || fraction >= fractions[cursor - 1]) {
+                return cursor;
+            }
+        } else if (cursor + 1 < mNumKeyframes
+                && fraction < fractions[cursor + 1]
+                && fraction >= fractions[cursor]) {
+            mIntervalCursor = cursor + 1;
+            return cursor + 1;
+        }
+
+        int low = 1;
+        int high = mNumKeyframes - 1;
+        if (fraction >= fractions[high]) {
+            return -1;
+        }
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (fraction < fractions[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
             }
-            prevKeyframe = nextKeyframe;
         }
-        // shouldn't reach here
-        return mLastKeyframe.getValue();
+        mIntervalCursor = low;
+        return low;
     }
 
     @Override
     public String toString() {
         String returnVal = " ";
         for (int i = 0; i < mNumKeyframes; ++i) {
-            returnVal += mKeyframes.get(i).getValue() + "  ";
+            returnVal += getKeyframeValue(i) + "  ";
         }
         return returnVal;
     }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.nineoldandroids.animation;
+
+import android.view.animation.Interpolator;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * An {@link Interpolator} that samples another interpolator into a table once and then
+ * interpolates linearly between the samples, so that each frame costs a table lookup however
+ * expensive the original interpolator is. Use it in place of the original interpolator with
+ * {@link ValueAnimator#setInterpolator(Interpolator)} or
+ * {@link Keyframe#setInterpolator(Interpolator)}:
+ *
+ * <pre>
+ * animator.setInterpolator(LookupTableInterpolator.of(new PathInterpolator(path)));
+ * </pre>
+ *
+ * <p>The table holds {@link #SAMPLES} intervals over [0, 1], so the error is at most
+ * <code>max|f''| / (8 * SAMPLES * SAMPLES)</code> for an interpolator <code>f</code> with a
+ * continuous second derivative, which is about 10<sup>-5</sup> for the default accelerate and
+ * decelerate interpolators. Inputs 0 and 1 map exactly to the original values. Inputs
+ * outside [0, 1], which keyframe interpolators can be given by an overshooting animation, are
+ * passed to the original interpolator.</p>
+ *
+ * <p>The original interpolator is only sampled, so it must return the same value for the same
+ * input every time.</p>
+ */
+public final class LookupTableInterpolator implements Interpolator {
+    /**
+     * The number of intervals the interpolator is sampled into.
+     */
+    public static final int SAMPLES = 256;
+
+    // Tables made so far, by the interpolator they were sampled from
+    private static final WeakHashMap<Interpolator, WeakReference<LookupTableInterpolator>> sCache =
+            new WeakHashMap<Interpolator, WeakReference<LookupTableInterpolator>>();
+
+    private final Interpolator mSource;
+    private final float[] mTable;
+
+    private LookupTableInterpolator(Interpolator source) {
+        mSource = source;
+        mTable = new float[SAMPLES + 1];
+        for (int i = 0; i <= SAMPLES; ++i) {
+            mTable[i] = source.getInterpolation((float) i / SAMPLES);
+        }
+    }
+
+    /**
+     * Returns a lookup table for the given interpolator. The table is shared by everyone asking
+     * for the same interpolator instance for as long as it is in use, so reusing interpolator
+     * instances avoids sampling them again.
+     *
+     * @param interpolator The interpolator to sample.
+     * @return The lookup table, <code>interpolator</code> itself if it already is one, or
+     * <code>null</code> if <code>interpolator</code> is <code>null</code>.
+     */
+    public static Interpolator of(Interpolator interpolator) {
+        if (interpolator == null || interpolator instanceof LookupTableInterpolator) {
+            return interpolator;
+        }
+        synchronized (sCache) {
+            WeakReference<LookupTableInterpolator> ref = sCache.get(interpolator);
+            LookupTableInterpolator table = ref != null ? ref.get() : null;
+            if (table == null) {
+                table = new LookupTableInterpolator(interpolator);
+                sCache.put(interpolator, new WeakReference<LookupTableInterpolator>(table));
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Returns the interpolator this table was sampled from.
+     */
+    public Interpolator getSource() {
+        return mSource;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input >= 0f && input <= 1f) {
+            final float position = input * SAMPLES;
+            final int index = (int) position;
+            if (index >= SAMPLES) {
+                return mTable[SAMPLES];
+            }
+            final float start = mTable[index];
+            return start + (position - index) * (mTable[index + 1] - start);
+        }
+        return mSource.getInterpolation(input);
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.nineoldandroids.animation;
+
+import android.view.animation.Interpolator;
+
+import com.nineoldandroids.util.Property;
+
+import java.util.Arrays;
+
+/**
+ * Like {@link ObjectAnimator}, but for many targets at once: the same properties are animated on
+ * every target by one animator, which computes each value once per frame and sets it on all the
+ * targets that share it. Each target can be given its own start offset to stagger the
+ * animation across targets:
+ *
+ * <pre>
+ * MultiTargetAnimator fade = MultiTargetAnimator.ofFloat(icons, "alpha", 0f, 1f);
+ * fade.setStagger(20);
+ * fade.start();
+ * </pre>
+ *
+ * <p>Targets with the same offset share their values, so the values are computed once per
+ * distinct offset, and not at all for offsets whose part of the animation has not started yet
+ * or has already ended. The setters and getters are looked up once, on the first target, so all
+ * the targets should be of the same class.</p>
+ *
+ * <p>{@link #setDuration(long)} sets the length of the animation on each target; the
+ * animation as a whole, as reported by {@link #getDuration()}, also includes the largest
+ * offset. {@link #getAnimatedValue()} and {@link #getAnimatedFraction()} report the targets
+ * with the smallest offset, and update listeners are called once per frame.</p>
+ */
+public final class MultiTargetAnimator extends ValueAnimator {
+    private static final Object[] NO_TARGETS = new Object[0];
+
+    private Object[] mTargets = NO_TARGETS;
+
+    // The start offset of each target, or null to use mStagger
+    private long[] mStartOffsets;
+
+    private long mStagger;
+
+    // The length of the animation on each target; the animator's own duration adds the largest
+    // offset to it
+    private long mTargetDuration = super.getDuration();
+
+    /*
+     * The targets grouped by offset: group i starts mGroupOffsets[i] ms into the animation and
+     * holds mGroupTargets[mGroupStart[i]] to mGroupTargets[mGroupStart[i + 1] - 1]. Groups are
+     * ordered by offset.
+     */
+    private long[] mGroupOffsets = new long[0];
+    private int[] mGroupStart = new int[1];
+    private Object[] mGroupTargets = NO_TARGETS;
+
+    // The fraction last set on each group, to skip the groups that have not moved
+    private float[] mGroupFractions = new float[0];
+
+    /**
+     * Creates a new MultiTargetAnimator object. This default constructor is primarily for
+     * use internally; the factory methods which take parameters are more generally useful.
+     */
+    public MultiTargetAnimator() {
+    }
+
+    private MultiTargetAnimator(Object[] targets) {
+        setTargets(targets);
+    }
+
+    /**
+     * Constructs and returns a MultiTargetAnimator that animates the given targets between int
+     * values, as {@link ObjectAnimator#ofInt(Object, String, int...)} does for one target.
+     *
+     * @param targets The objects whose property is to be animated, all of the same class.
+     * @param propertyName The name of the property being animated.
+     * @param values A set of values that the animation will animate between over time.
+     * @return A MultiTargetAnimator object that is set up to animate between the given values.
+     */
+    public static MultiTargetAnimator ofInt(Object[] targets, String propertyName,
+            int... values) {
+        MultiTargetAnimator anim = new MultiTargetAnimator(targets);
+        anim.setValues(PropertyValuesHolder.ofInt(propertyName, values));
+        return anim;
+    }
+
+    /**
+     * Constructs and returns a MultiTargetAnimator that animates the given targets between int
+     * values, as {@link ObjectAnimator#ofInt(Object, Property, int...)} does for one target.
+     *
+     * @param targets The objects whose property is to be animated.
+     * @param property The property being animated.
+     * @param values A set of values that the animation will animate between over time.
+     * @return A MultiTargetAnimator object that is set up to animate between the given values.
+     */
+    public static <T> MultiTargetAnimator ofInt(T[] targets, Property<T, Integer> property,
+            int... values) {
+        MultiTargetAnimator anim = new MultiTargetAnimator(targets);
+        anim.setValues(PropertyValuesHolder.ofInt(property, values));
+        return anim;
+    }
+
+    /**
+     * Constructs and returns a MultiTargetAnimator that animates the given targets between
+     * float values, as {@link ObjectAnimator#ofFloat(Object, String, float...)} does for one
+     * target.
+     *
+     * @param targets The objects whose property is to be animated, all of the same class.
+     * @param propertyName The name of the property being animated.
+     * @param values A set of values that the animation will animate between over time.
+     * @return A MultiTargetAnimator object that is set up to animate between the given values.
+     */
+    public static MultiTargetAnimator ofFloat(Object[] targets, String propertyName,
+            float... values) {
+        MultiTargetAnimator anim = new MultiTargetAnimator(targets);
+        anim.setValues(PropertyValuesHolder.ofFloat(propertyName, values));
+        return anim;
+    }
+
+    /**
+     * Constructs and returns a MultiTargetAnimator that animates the given targets between
+     * float values, as {@link ObjectAnimator#ofFloat(Object, Property, float...)} does for one
+     * target.
+     *
+     * @param targets The objects whose property is to be animated.
+     * @param property The property being animated.
+     * @param values A set of values that the animation will animate between over time.
+     * @return A MultiTargetAnimator object that is set up to animate between the given values.
+     */
+    public static <T> MultiTargetAnimator ofFloat(T[] targets, Property<T, Float> property,
+            float... values) {
+        MultiTargetAnimator anim = new MultiTargetAnimator(targets);
+        anim.setValues(PropertyValuesHolder.ofFloat(property, values));
+        return anim;
+    }
+
+    /**
+     * Constructs and returns a MultiTargetAnimator that animates the given targets through the
+     * given PropertyValuesHolder objects, as
+     * {@link ObjectAnimator#ofPropertyValuesHolder(Object, PropertyValuesHolder...)} does for
+     * one target.
+     *
+     * @param targets The objects whose properties are to be animated, all of the same class.
+     * @param values A set of PropertyValuesHolder objects whose values will be animated
+     * between over time.
+     * @return A MultiTargetAnimator object that is set up to animate between the given values.
+     */
+    public static MultiTargetAnimator ofPropertyValuesHolder(Object[] targets,
+            PropertyValuesHolder... values) {
+        MultiTargetAnimator anim = new MultiTargetAnimator(targets);
+        anim.setValues(values);
+        return anim;
+    }
+
+    /**
+     * Sets the objects whose properties are animated. Offsets given to
+     * {@link #setStartOffsets(long...)} are kept if there are as many targets as before, and
+     * dropped otherwise.
+     *
+     * @param targets The objects being animated, all of the same class.
+     */
+    public void setTargets(Object... targets) {
+        if (targets == null) {
+            targets = NO_TARGETS;
+        }
+        final Object oldTarget = mTargets.length > 0 ? mTargets[0] : null;
+        final Object newTarget = targets.length > 0 ? targets[0] : null;
+        if (oldTarget == null || newTarget == null || oldTarget.getClass() != newTarget.getClass()) {
+            // New target type should cause re-initialization prior to starting
+            mInitialized = false;
+        }
+        if (mStartOffsets != null && mStartOffsets.length != targets.length) {
+            mStartOffsets = null;
+        }
+        mTargets = targets.clone();
+        groupTargets();
+    }
+
+    /**
+     * Returns the objects whose properties are animated.
+     */
+    public Object[] getTargets() {
+        return mTargets.clone();
+    }
+
+    /**
+     * Sets how long after the start of the animation each target starts to move, in the order
+     * of the targets.
+     *
+     * @param offsets The offset of each target in milliseconds, or <code>null</code> to start
+     * all the targets together.
+     */
+    public void setStartOffsets(long... offsets) {
+        if (offsets != null) {
+            if (offsets.length != mTargets.length) {
+                throw new IllegalArgumentException("Expected " + mTargets.length +
+                        " offsets, got " + offsets.length);
+            }
+            for (int i = 0; i < offsets.length; ++i) {
+                if (offsets[i] < 0) {
+                    throw new IllegalArgumentException("Offsets cannot be negative: " +
+                            offsets[i]);
+                }
+            }
+            offsets = offsets.clone();
+        }
+        mStartOffsets = offsets;
+        mStagger = 0;
+        groupTargets();
+    }
+
+    /**
+     * Starts each target the given time after the one before it, replacing any offsets given
+     * to {@link #setStartOffsets(long...)}.
+     *
+     * @param stagger The time between the starts of consecutive targets, in milliseconds.
+     */
+    public void setStagger(long stagger) {
+        if (stagger < 0) {
+            throw new IllegalArgumentException("Stagger cannot be negative: " + stagger);
+        }
+        mStartOffsets = null;
+        mStagger = stagger;
+        groupTargets();
+    }
+
+    /**
+     * Sets the length of the animation on each target. The default duration is 300
+     * milliseconds.
+     *
+     * @param duration The length of the animation on each target, in milliseconds.
+     * @return MultiTargetAnimator The object called with setDuration().
+     */
+    @Override
+    public MultiTargetAnimator setDuration(long duration) {
+        super.setDuration(duration + getMaxOffset());
+        mTargetDuration = duration;
+        return this;
+    }
+
+    private long getMaxOffset() {
+        final int numGroups = mGroupOffsets.length;
+        return numGroups > 0 ? mGroupOffsets[numGroups - 1] : 0;
+    }
+
+    private long getOffset(int target) {
+        return mStartOffsets != null ? mStartOffsets[target] : target * mStagger;
+    }
+
+    /**
+     * Sorts the targets into groups that share an offset.
+     */
+    private void groupTargets() {
+        final int numTargets = mTargets.length;
+        long[] offsets = new long[numTargets];
+        for (int i = 0; i < numTargets; ++i) {
+            offsets[i] = getOffset(i);
+        }
+        Arrays.sort(offsets);
+        int numGroups = 0;
+        for (int i = 0; i < numTargets; ++i) {
+            if (i == 0 || offsets[i] != offsets[i - 1]) {
+                offsets[numGroups++] = offsets[i];
+            }
+        }
+        mGroupOffsets = new long[numGroups];
+        System.arraycopy(offsets, 0, mGroupOffsets, 0, numGroups);
+
+        int[] groupStart = new int[numGroups + 1];
+        for (int i = 0; i < numTargets; ++i) {
+            groupStart[Arrays.binarySearch(mGroupOffsets, getOffset(i)) + 1]++;
+        }
+        for (int i = 0; i < numGroups; ++i) {
+            groupStart[i + 1] += groupStart[i];
+        }
+        int[] next = new int[numGroups];
+        System.arraycopy(groupStart, 0, next, 0, numGroups);
+        Object[] groupTargets = new Object[numTargets];
+        for (int i = 0; i < numTargets; ++i) {
+            groupTargets[next[Arrays.binarySearch(mGroupOffsets, getOffset(i))]++] = mTargets[i];
+        }
+        mGroupStart = groupStart;
+        mGroupTargets = groupTargets;
+        mGroupFractions = new float[numGroups];
+        Arrays.fill(mGroupFractions, Float.NaN);
+
+        super.setDuration(mTargetDuration + getMaxOffset());
+    }
+
+    @Override
+    public void start() {
+        // Set every target on the first frame, even if it was left at the same fraction
+        Arrays.fill(mGroupFractions, Float.NaN);
+        super.start();
+    }
+
+    @Override
+    void initAnimation() {
+        if (!mInitialized) {
+            // mValueType may change due to setter/getter setup; do this before calling
+            // super.init(), which uses mValueType to set up the default type evaluator.
+            if (mTargets.length > 0) {
+                int numValues = mValues.length;
+                for (int i = 0; i < numValues; ++i) {
+                    mValues[i].setupSetterAndGetter(mTargets[0]);
+                }
+            }
+            super.initAnimation();
+        }
+    }
+
+    @Override
+    public void setupStartValues() {
+        initAnimation();
+        if (mTargets.length > 0) {
+            int numValues = mValues.length;
+            for (int i = 0; i < numValues; ++i) {
+                mValues[i].setupStartValue(mTargets[0]);
+            }
+        }
+    }
+
+    @Override
+    public void setupEndValues() {
+        initAnimation();
+        if (mTargets.length > 0) {
+            int numValues = mValues.length;
+            for (int i = 0; i < numValues; ++i) {
+                mValues[i].setupEndValue(mTargets[0]);
+            }
+        }
+    }
+
+    /**
+     * Computes the values of each group of targets whose fraction has changed and sets them on
+     * the group's targets. The first group goes last, through {@link ValueAnimator}, so that
+     * the animator reports its values to update listeners.
+     *
+     * @param fraction The elapsed fraction of the whole animation.
+     */
+    @Override
+    void animateValue(float fraction) {
+        final int numGroups = mGroupOffsets.length;
+        if (numGroups == 0) {
+            super.animateValue(fraction);
+            return;
+        }
+        final int numValues = mValues.length;
+        final /*Time*/Interpolator interpolator = getInterpolator();
+        for (int group = numGroups - 1; group > 0; --group) {
+            final float groupFraction = getGroupFraction(fraction, group);
+            if (groupFraction == mGroupFractions[group]) {
+                continue;
+            }
+            mGroupFractions[group] = groupFraction;
+            final float interpolatedFraction = interpolator.getInterpolation(groupFraction);
+            for (int i = 0; i < numValues; ++i) {
+                mValues[i].calculateValue(interpolatedFraction);
+            }
+            setGroupValues(group);
+        }
+
+        final float firstFraction = getGroupFraction(fraction, 0);
+        super.animateValue(firstFraction);
+        mGroupFractions[0] = firstFraction;
+        setGroupValues(0);
+    }
+
+    private float getGroupFraction(float fraction, int group) {
+        final long maxOffset = getMaxOffset();
+        if (maxOffset == 0) {
+            return fraction;
+        }
+        // Frame times are whole milliseconds, so rounding keeps groups that have not started at 0
+        final long playTime = Math.round(fraction * getDuration()) - mGroupOffsets[group];
+        if (playTime <= 0) {
+            return 0f;
+        }
+        if (playTime >= mTargetDuration) {
+            return 1f;
+        }
+        return (float) playTime / mTargetDuration;
+    }
+
+    private void setGroupValues(int group) {
+        final int numValues = mValues.length;
+        final int end = mGroupStart[group + 1];
+        for (int t = mGroupStart[group]; t < end; ++t) {
+            final Object target = mGroupTargets[t];
+            for (int i = 0; i < numValues; ++i) {
+                mValues[i].setAnimatedValue(target);
+            }
+        }
+    }
+
+    @Override
+    public MultiTargetAnimator clone() {
+        final MultiTargetAnimator anim = (MultiTargetAnimator) super.clone();
+        anim.mGroupFractions = mGroupFractions.clone();
+        return anim;
+    }
+
+    @Override
+    public String toString() {
+        String returnVal = "MultiTargetAnimator@" + Integer.toHexString(hashCode()) + ", " +
+                mTargets.length + " targets";
+        if (mValues != null) {
+            for (int i = 0; i < mValues.length; ++i) {
+                returnVal += "\n    " + mValues[i].toString();
+            }
+        }
+        return returnVal;
+    }
+}
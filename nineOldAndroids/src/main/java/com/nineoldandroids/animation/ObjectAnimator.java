@@ -17,14 +17,10 @@
 package com.nineoldandroids.animation;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 import android.util.Log;
-import android.view.View;
 
 import com.nineoldandroids.util.Property;
-import com.nineoldandroids.view.animation.AnimatorProxy;
 
 /**
  * This subclass of {@link ValueAnimator} provides support for animating properties on target objects.
@@ -38,25 +34,6 @@ import com.nineoldandroids.view.animation.AnimatorProxy;
  */
 public final class ObjectAnimator extends ValueAnimator {
     private static final boolean DBG = false;
-    private static final Map<String, Property> PROXY_PROPERTIES = new HashMap<String, Property>();
-
-    static {
-        PROXY_PROPERTIES.put("alpha", PreHoneycombCompat.ALPHA);
-        PROXY_PROPERTIES.put("pivotX", PreHoneycombCompat.PIVOT_X);
-        PROXY_PROPERTIES.put("pivotY", PreHoneycombCompat.PIVOT_Y);
-        PROXY_PROPERTIES.put("translationX", PreHoneycombCompat.TRANSLATION_X);
-        PROXY_PROPERTIES.put("translationY", PreHoneycombCompat.TRANSLATION_Y);
-        PROXY_PROPERTIES.put("rotation", PreHoneycombCompat.ROTATION);
-        PROXY_PROPERTIES.put("rotationX", PreHoneycombCompat.ROTATION_X);
-        PROXY_PROPERTIES.put("rotationY", PreHoneycombCompat.ROTATION_Y);
-        PROXY_PROPERTIES.put("scaleX", PreHoneycombCompat.SCALE_X);
-        PROXY_PROPERTIES.put("scaleY", PreHoneycombCompat.SCALE_Y);
-        PROXY_PROPERTIES.put("scrollX", PreHoneycombCompat.SCROLL_X);
-        PROXY_PROPERTIES.put("scrollY", PreHoneycombCompat.SCROLL_Y);
-        PROXY_PROPERTIES.put("x", PreHoneycombCompat.X);
-        PROXY_PROPERTIES.put("y", PreHoneycombCompat.Y);
-    }
-
     // The target object on which the property exists, set in the constructor
     private Object mTarget;
 
@@ -376,7 +353,7 @@ public final class ObjectAnimator extends ValueAnimator {
             Log.d("ObjectAnimator", "Anim target, duration: " + mTarget + ", " + getDuration());
             for (int i = 0; i < mValues.length; ++i) {
                 PropertyValuesHolder pvh = mValues[i];
-                ArrayList<Keyframe> keyframes = pvh.mKeyframeSet.mKeyframes;
+                ArrayList<Keyframe> keyframes = pvh.mKeyframeSet.getKeyframes();
                 Log.d("ObjectAnimator", "   Values[" + i + "]: " +
                     pvh.getPropertyName() + ", " + keyframes.get(0).getValue() + ", " +
                     keyframes.get(pvh.mKeyframeSet.mNumKeyframes - 1).getValue());
@@ -402,9 +379,6 @@ public final class ObjectAnimator extends ValueAnimator {
         if (!mInitialized) {
             // mValueType may change due to setter/getter setup; do this before calling super.init(),
             // which uses mValueType to set up the default type evaluator.
-            if ((mProperty == null) && AnimatorProxy.NEEDS_PROXY && (mTarget instanceof View) && PROXY_PROPERTIES.containsKey(mPropertyName)) {
-                setProperty(PROXY_PROPERTIES.get(mPropertyName));
-            }
             int numValues = mValues.length;
             for (int i = 0; i < numValues; ++i) {
                 mValues[i].setupSetterAndGetter(mTarget);
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.nineoldandroids.animation;
+
+import android.view.View;
+
+import com.nineoldandroids.util.Property;
+import com.nineoldandroids.view.animation.AnimatorProxy;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Property} objects that {@link ObjectAnimator} and {@link PropertyValuesHolder} use in
+ * place of reflection when a property is given by name. A registered property applies to its
+ * class and all of its subclasses. Use {@link com.nineoldandroids.util.FloatProperty} or
+ * {@link com.nineoldandroids.util.IntProperty} so that animated values are set without boxing.
+ *
+ * <p>The View properties animated by {@link com.nineoldandroids.view.ViewPropertyAnimator}
+ * (alpha, pivotX, rotation, scaleX, translationX, x and so on) are registered for
+ * {@link View} from the start, going through {@link AnimatorProxy} on platforms older than
+ * Honeycomb.</p>
+ */
+public final class PropertyRegistry {
+    private static final ConcurrentHashMap<Class, ConcurrentHashMap<String, Property>> sProperties =
+            new ConcurrentHashMap<Class, ConcurrentHashMap<String, Property>>();
+
+    static {
+        if (AnimatorProxy.NEEDS_PROXY) {
+            register(View.class, PreHoneycombCompat.ALPHA);
+            register(View.class, PreHoneycombCompat.PIVOT_X);
+            register(View.class, PreHoneycombCompat.PIVOT_Y);
+            register(View.class, PreHoneycombCompat.TRANSLATION_X);
+            register(View.class, PreHoneycombCompat.TRANSLATION_Y);
+            register(View.class, PreHoneycombCompat.ROTATION);
+            register(View.class, PreHoneycombCompat.ROTATION_X);
+            register(View.class, PreHoneycombCompat.ROTATION_Y);
+            register(View.class, PreHoneycombCompat.SCALE_X);
+            register(View.class, PreHoneycombCompat.SCALE_Y);
+            register(View.class, PreHoneycombCompat.SCROLL_X);
+            register(View.class, PreHoneycombCompat.SCROLL_Y);
+            register(View.class, PreHoneycombCompat.X);
+            register(View.class, PreHoneycombCompat.Y);
+        } else {
+            register(View.class, HoneycombCompat.ALPHA);
+            register(View.class, HoneycombCompat.PIVOT_X);
+            register(View.class, HoneycombCompat.PIVOT_Y);
+            register(View.class, HoneycombCompat.TRANSLATION_X);
+            register(View.class, HoneycombCompat.TRANSLATION_Y);
+            register(View.class, HoneycombCompat.ROTATION);
+            register(View.class, HoneycombCompat.ROTATION_X);
+            register(View.class, HoneycombCompat.ROTATION_Y);
+            register(View.class, HoneycombCompat.SCALE_X);
+            register(View.class, HoneycombCompat.SCALE_Y);
+            register(View.class, HoneycombCompat.SCROLL_X);
+            register(View.class, HoneycombCompat.SCROLL_Y);
+            register(View.class, HoneycombCompat.X);
+            register(View.class, HoneycombCompat.Y);
+        }
+    }
+
+    /**
+     * Makes {@code property} the one used to animate the property of the same name on instances
+     * of {@code targetClass}, replacing any registered before for that class.
+     *
+     * @param targetClass The class on which the property is declared
+     * @param property The property
+     */
+    public static <T> void register(Class<T> targetClass, Property<T, ?> property) {
+        ConcurrentHashMap<String, Property> properties = sProperties.get(targetClass);
+        if (properties == null) {
+            final ConcurrentHashMap<String, Property> newProperties =
+                    new ConcurrentHashMap<String, Property>(8, 0.75f, 1);
+            properties = sProperties.putIfAbsent(targetClass, newProperties);
+            if (properties == null) {
+                properties = newProperties;
+            }
+        }
+        properties.put(property.getName(), property);
+    }
+
+    /**
+     * Removes the property with the given name registered for {@code targetClass}, so that
+     * animations fall back to a property registered for a superclass, or to reflection.
+     *
+     * @param targetClass The class the property was registered for
+     * @param name The name of the property
+     */
+    public static void unregister(Class<?> targetClass, String name) {
+        final ConcurrentHashMap<String, Property> properties = sProperties.get(targetClass);
+        if (properties != null) {
+            properties.remove(name);
+        }
+    }
+
+    /**
+     * Returns the property registered with the given name for {@code targetClass} or its
+     * nearest superclass, or null if there is none.
+     */
+    static Property find(Class targetClass, String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Class c = targetClass; c != null; c = c.getSuperclass()) {
+            final ConcurrentHashMap<String, Property> properties = sProperties.get(c);
+            if (properties != null) {
+                final Property property = properties.get(name);
+                if (property != null) {
+                    return property;
+                }
+            }
+        }
+        return null;
+    }
+
+    //No instances
+    private PropertyRegistry() {}
+}
@@ -20,8 +20,8 @@ import android.util.Log;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.nineoldandroids.util.FloatProperty;
 import com.nineoldandroids.util.IntProperty;
@@ -47,6 +47,12 @@ public class PropertyValuesHolder implements Cloneable {
      */
     protected Property mProperty;
 
+    /**
+     * Whether mProperty was found in the {@link PropertyRegistry} for the current target rather
+     * than set by the caller, in which case it is looked up again for each new target.
+     */
+    private boolean mPropertyFromRegistry;
+
     /**
      * The setter function, if needed. ObjectAnimator hands off this functionality to
      * PropertyValuesHolder, since it holds all of the per-property information. This
@@ -94,17 +100,11 @@ public class PropertyValuesHolder implements Cloneable {
     private static Class[] DOUBLE_VARIANTS = {double.class, Double.class, float.class, int.class,
             Float.class, Integer.class};
 
-    // These maps hold all property entries for a particular class. This map
-    // is used to speed up property/setter/getter lookups for a given class/property
+    // These caches hold all property entries for a particular class. They are
+    // used to speed up property/setter/getter lookups for a given class/property
     // combination. No need to use reflection on the combination more than once.
-    private static final HashMap<Class, HashMap<String, Method>> sSetterPropertyMap =
-            new HashMap<Class, HashMap<String, Method>>();
-    private static final HashMap<Class, HashMap<String, Method>> sGetterPropertyMap =
-            new HashMap<Class, HashMap<String, Method>>();
-
-    // This lock is used to ensure that only one thread is accessing the property maps
-    // at a time.
-    final ReentrantReadWriteLock mPropertyMapLock = new ReentrantReadWriteLock();
+    private static final MethodCache sSetterCache = new MethodCache();
+    private static final MethodCache sGetterCache = new MethodCache();
 
     // Used to pass single value to varargs parameter in setter invocation
     final Object[] mTmpValueArray = new Object[1];
@@ -443,39 +443,33 @@ public class PropertyValuesHolder implements Cloneable {
 
     /**
      * Returns the setter or getter requested. This utility function checks whether the
-     * requested method exists in the propertyMapMap cache. If not, it calls another
-     * utility function to request the Method from the targetClass directly.
+     * requested method exists in the cache. If not, it calls another utility function to
+     * request the Method from the targetClass directly. A cache hit takes no lock.
      * @param targetClass The Class on which the requested method should exist.
-     * @param propertyMapMap The cache of setters/getters derived so far.
+     * @param cache The cache of setters/getters derived so far.
      * @param prefix "set" or "get", for the setter or getter.
      * @param valueType The type of parameter passed into the method (null for getter).
-     * @return Method the method associated with mPropertyName.
+     * @return Method the method associated with mPropertyName, or null if there is none.
      */
-    private Method setupSetterOrGetter(Class targetClass,
-            HashMap<Class, HashMap<String, Method>> propertyMapMap,
-            String prefix, Class valueType) {
-        Method setterOrGetter = null;
-        try {
-            // Have to lock property map prior to reading it, to guard against
-            // another thread putting something in there after we've checked it
-            // but before we've added an entry to it
-            mPropertyMapLock.writeLock().lock();
-            HashMap<String, Method> propertyMap = propertyMapMap.get(targetClass);
-            if (propertyMap != null) {
-                setterOrGetter = propertyMap.get(mPropertyName);
-            }
-            if (setterOrGetter == null) {
-                setterOrGetter = getPropertyFunction(targetClass, prefix, valueType);
-                if (propertyMap == null) {
-                    propertyMap = new HashMap<String, Method>();
-                    propertyMapMap.put(targetClass, propertyMap);
+    private Method setupSetterOrGetter(Class targetClass, MethodCache cache, String prefix,
+            Class valueType) {
+        final MethodEntry entry = cache.getEntry(targetClass, mPropertyName, valueType);
+        if (!entry.mResolved) {
+            // Only one thread looks the method up; the others wait for its result
+            synchronized (entry) {
+                if (!entry.mResolved) {
+                    entry.mMethod = getPropertyFunction(targetClass, prefix, valueType);
+                    entry.mValueType = mValueType;
+                    entry.mResolved = true;
+                    return entry.mMethod;
                 }
-                propertyMap.put(mPropertyName, setterOrGetter);
             }
-        } finally {
-            mPropertyMapLock.writeLock().unlock();
         }
-        return setterOrGetter;
+        if (valueType != null && entry.mMethod != null) {
+            // Settle on the same value type as the lookup that found the setter
+            mValueType = entry.mValueType;
+        }
+        return entry.mMethod;
     }
 
     /**
@@ -483,14 +477,14 @@ public class PropertyValuesHolder implements Cloneable {
      * @param targetClass The Class on which the requested method should exist.
      */
     void setupSetter(Class targetClass) {
-        mSetter = setupSetterOrGetter(targetClass, sSetterPropertyMap, "set", mValueType);
+        mSetter = setupSetterOrGetter(targetClass, sSetterCache, "set", mValueType);
     }
 
     /**
      * Utility function to get the getter from targetClass
      */
     private void setupGetter(Class targetClass) {
-        mGetter = setupSetterOrGetter(targetClass, sGetterPropertyMap, "get", null);
+        mGetter = setupSetterOrGetter(targetClass, sGetterCache, "get", null);
     }
 
     /**
@@ -504,27 +498,46 @@ public class PropertyValuesHolder implements Cloneable {
      * @param target The object on which the setter (and possibly getter) exist.
      */
     void setupSetterAndGetter(Object target) {
+        if (mPropertyFromRegistry) {
+            setProperty(null);
+            mPropertyFromRegistry = false;
+        }
+        if (mProperty == null) {
+            // Prefer a registered Property to reflection, as it needs neither Method.invoke()
+            // nor boxing
+            Property property = PropertyRegistry.find(target.getClass(), mPropertyName);
+            if (property != null && isPropertyTypeSupported(property.getType())) {
+                setProperty(property);
+                mPropertyFromRegistry = true;
+            }
+        }
         if (mProperty != null) {
             // check to make sure that mProperty is on the class of target
             try {
                 Object testValue = mProperty.get(target);
-                for (Keyframe kf : mKeyframeSet.mKeyframes) {
-                    if (!kf.hasValue()) {
-                        kf.setValue(mProperty.get(target));
+                if (mKeyframeSet.hasMissingValues()) {
+                    for (Keyframe kf : mKeyframeSet.getKeyframes()) {
+                        if (!kf.hasValue()) {
+                            kf.setValue(mProperty.get(target));
+                        }
                     }
                 }
                 return;
             } catch (ClassCastException e) {
                 Log.e("PropertyValuesHolder","No such property (" + mProperty.getName() +
                         ") on target object " + target + ". Trying reflection instead");
-                mProperty = null;
+                setProperty(null);
+                mPropertyFromRegistry = false;
             }
         }
         Class targetClass = target.getClass();
         if (mSetter == null) {
             setupSetter(targetClass);
         }
-        for (Keyframe kf : mKeyframeSet.mKeyframes) {
+        if (!mKeyframeSet.hasMissingValues()) {
+            return;
+        }
+        for (Keyframe kf : mKeyframeSet.getKeyframes()) {
             if (!kf.hasValue()) {
                 if (mGetter == null) {
                     setupGetter(targetClass);
@@ -573,7 +586,7 @@ public class PropertyValuesHolder implements Cloneable {
      * @param target The object which holds the start values that should be set.
      */
     void setupStartValue(Object target) {
-        setupValue(target, mKeyframeSet.mKeyframes.get(0));
+        setupValue(target, mKeyframeSet.getKeyframes().get(0));
     }
 
     /**
@@ -585,7 +598,26 @@ public class PropertyValuesHolder implements Cloneable {
      * @param target The object which holds the start values that should be set.
      */
     void setupEndValue(Object target) {
-        setupValue(target, mKeyframeSet.mKeyframes.get(mKeyframeSet.mKeyframes.size() - 1));
+        ArrayList<Keyframe> keyframes = mKeyframeSet.getKeyframes();
+        setupValue(target, keyframes.get(keyframes.size() - 1));
+    }
+
+    /**
+     * Forgets the values of the keyframes that have no value in <code>source</code>, which this
+     * holder was cloned from, so that they are read from the next target again. Used by
+     * {@link AnimatorTemplate} to reuse an animator on a new target.
+     *
+     * @param source The holder this one was cloned from.
+     */
+    void resetMissingValues(PropertyValuesHolder source) {
+        ArrayList<Keyframe> sourceKeyframes = source.mKeyframeSet.getKeyframes();
+        ArrayList<Keyframe> keyframes = mKeyframeSet.getKeyframes();
+        int numKeyframes = keyframes.size();
+        for (int i = 0; i < numKeyframes; ++i) {
+            if (!sourceKeyframes.get(i).hasValue()) {
+                keyframes.get(i).mHasValue = false;
+            }
+        }
     }
 
     @Override
@@ -701,6 +733,14 @@ public class PropertyValuesHolder implements Cloneable {
         mProperty = property;
     }
 
+    /**
+     * Returns whether a Property of the given type can be set with the values of this
+     * PropertyValuesHolder.
+     */
+    boolean isPropertyTypeSupported(Class propertyType) {
+        return mValueType != null && propertyType.isAssignableFrom(mValueType);
+    }
+
     /**
      * Gets the name of the property that will be animated. This name will be used to derive
      * a setter function that will be called to set animated values.
@@ -750,6 +790,81 @@ public class PropertyValuesHolder implements Cloneable {
         return prefix + firstLetter + theRest;
     }
 
+    /**
+     * Setters or getters found by reflection, keyed by class, then by property name and, for
+     * setters, by the value type they were looked up for, shared by every thread. Reads take no
+     * lock, and properties without such a method are cached too.
+     */
+    private static final class MethodCache {
+        private final ConcurrentHashMap<Class, ConcurrentHashMap<String, MethodEntry>> mClassMap =
+                new ConcurrentHashMap<Class, ConcurrentHashMap<String, MethodEntry>>();
+
+        /**
+         * Returns the entry for the given property and value type (null for a getter), adding
+         * an unresolved one if there is none.
+         */
+        MethodEntry getEntry(Class targetClass, String propertyName, Class valueType) {
+            ConcurrentHashMap<String, MethodEntry> propertyMap = mClassMap.get(targetClass);
+            if (propertyMap == null) {
+                // Classes rarely gain properties concurrently, so one segment is enough
+                final ConcurrentHashMap<String, MethodEntry> newMap =
+                        new ConcurrentHashMap<String, MethodEntry>(8, 0.75f, 1);
+                propertyMap = mClassMap.putIfAbsent(targetClass, newMap);
+                if (propertyMap == null) {
+                    propertyMap = newMap;
+                }
+            }
+            MethodEntry entry = propertyMap.get(propertyName);
+            if (entry == null) {
+                final MethodEntry newEntry = new MethodEntry(valueType);
+                entry = propertyMap.putIfAbsent(propertyName, newEntry);
+                if (entry == null) {
+                    return newEntry;
+                }
+            }
+            for (MethodEntry e = entry; e != null; e = e.mNext) {
+                if (e.mRequestedType == valueType) {
+                    return e;
+                }
+            }
+            // A property animated with values of another type; chain an entry for that type
+            synchronized (propertyMap) {
+                MethodEntry last = entry;
+                while (last.mRequestedType != valueType) {
+                    if (last.mNext == null) {
+                        last.mNext = new MethodEntry(valueType);
+                    }
+                    last = last.mNext;
+                }
+                return last;
+            }
+        }
+    }
+
+    /**
+     * The result of looking up one setter or getter. mMethod and mValueType are written before
+     * mResolved is set, and must only be read after mResolved has been seen to be true.
+     */
+    private static final class MethodEntry {
+        MethodEntry(Class requestedType) {
+            mRequestedType = requestedType;
+        }
+
+        // The value type the setter was looked up for, or null for a getter
+        final Class mRequestedType;
+
+        // The entry for the same property with another requested type
+        volatile MethodEntry mNext;
+
+        // The method found, or null if the class has none for the property
+        Method mMethod;
+
+        // The value type the setter was found for
+        Class mValueType;
+
+        volatile boolean mResolved;
+    }
+
     static class IntPropertyValuesHolder extends PropertyValuesHolder {
 
         // Cache JNI functions to avoid looking them up twice
@@ -797,6 +912,17 @@ public class PropertyValuesHolder implements Cloneable {
             mIntKeyframeSet = (IntKeyframeSet) mKeyframeSet;
         }
 
+        @Override
+        public void setProperty(Property property) {
+            super.setProperty(property);
+            mIntProperty = property instanceof IntProperty ? (IntProperty) property : null;
+        }
+
+        @Override
+        boolean isPropertyTypeSupported(Class propertyType) {
+            return propertyType == Integer.class;
+        }
+
         @Override
         void calculateValue(float fraction) {
             mIntAnimatedValue = mIntKeyframeSet.getIntValue(fraction);
@@ -933,6 +1059,17 @@ public class PropertyValuesHolder implements Cloneable {
             mFloatKeyframeSet = (FloatKeyframeSet) mKeyframeSet;
         }
 
+        @Override
+        public void setProperty(Property property) {
+            super.setProperty(property);
+            mFloatProperty = property instanceof FloatProperty ? (FloatProperty) property : null;
+        }
+
+        @Override
+        boolean isPropertyTypeSupported(Class propertyType) {
+            return propertyType == Float.class;
+        }
+
         @Override
         void calculateValue(float fraction) {
             mFloatAnimatedValue = mFloatKeyframeSet.getFloatValue(fraction);
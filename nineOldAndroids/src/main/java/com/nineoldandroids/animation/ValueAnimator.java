@@ -16,9 +16,7 @@
 
 package com.nineoldandroids.animation;
 
-import android.os.Handler;
 import android.os.Looper;
-import android.os.Message;
 import android.util.AndroidRuntimeException;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.AnimationUtils;
@@ -32,8 +30,9 @@ import java.util.HashMap;
  * This class provides a simple timing engine for running animations
  * which calculate animated values and set them on target objects.
  *
- * <p>There is a single timing pulse that all animations use. It runs in a
- * custom handler to ensure that property changes happen on the UI thread.</p>
+ * <p>There is a single timing pulse that all animations use. It runs on the
+ * thread's Looper to ensure that property changes happen on the UI thread, and
+ * follows the display's vsync where the platform provides a Choreographer.</p>
  *
  * <p>By default, ValueAnimator uses non-linear time interpolation, via the
  * {@link AccelerateDecelerateInterpolator} class, which accelerates into and decelerates
@@ -51,13 +50,6 @@ public class ValueAnimator extends Animator {
      */
     private static final long DEFAULT_FRAME_DELAY = 10;
 
-    /**
-     * Messages sent to timing handler: START is sent when an animation first begins, FRAME is sent
-     * by the handler to itself to process the next animation frame
-     */
-    static final int ANIMATION_START = 0;
-    static final int ANIMATION_FRAME = 1;
-
     /**
      * Values used with internal variable mPlayingState to indicate the current state of an
      * animation.
@@ -84,59 +76,14 @@ public class ValueAnimator extends Animator {
      */
     long mSeekTime = -1;
 
-    // TODO: We access the following ThreadLocal variables often, some of them on every update.
-    // If ThreadLocal access is significantly expensive, we may want to put all of these
-    // fields into a structure sot hat we just access ThreadLocal once to get the reference
-    // to that structure, then access the structure directly for each field.
-
-    // The static sAnimationHandler processes the internal timing loop on which all animations
-    // are based
-    private static ThreadLocal<AnimationHandler> sAnimationHandler =
-            new ThreadLocal<AnimationHandler>();
-
-    // The per-thread list of all active animations
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sAnimations =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
-
-    // The per-thread set of animations to be started on the next animation frame
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sPendingAnimations =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
-
-    /**
-     * Internal per-thread collections used to avoid set collisions as animations start and end
-     * while being processed.
-     */
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sDelayedAnims =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
-
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sEndingAnims =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
-                @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
-                }
-            };
-
-    private static final ThreadLocal<ArrayList<ValueAnimator>> sReadyAnims =
-            new ThreadLocal<ArrayList<ValueAnimator>>() {
+    // The per-thread animation lists and the frame source that drives the internal timing loop on
+    // which all animations are based. They are kept in one structure so that the timing loop
+    // and start() only need to look up the ThreadLocal once.
+    private static final ThreadLocal<AnimationContext> sAnimationContext =
+            new ThreadLocal<AnimationContext>() {
                 @Override
-                protected ArrayList<ValueAnimator> initialValue() {
-                    return new ArrayList<ValueAnimator>();
+                protected AnimationContext initialValue() {
+                    return new AnimationContext();
                 }
             };
 
@@ -218,6 +165,10 @@ public class ValueAnimator extends Animator {
     // The amount of time in ms to delay starting the animation after start() is called
     private long mStartDelay = 0;
 
+    // Further delay in ms added by an AnimatorSet that plays this animation at a fixed offset
+    // from its own start. Cleared when the animation ends.
+    long mTimelineOffset = 0;
+
     // The number of milliseconds between animation frames
     private static long sFrameDelay = DEFAULT_FRAME_DELAY;
 
@@ -240,9 +191,10 @@ public class ValueAnimator extends Animator {
     private /*Time*/Interpolator mInterpolator = sDefaultInterpolator;
 
     /**
-     * The set of listeners to be sent events through the life of an animation.
+     * The set of listeners to be sent events through the life of an animation. Like
+     * {@link Animator#mListeners}, the list is copied on every change rather than modified.
      */
-    private ArrayList<AnimatorUpdateListener> mUpdateListeners = null;
+    ArrayList<AnimatorUpdateListener> mUpdateListeners = null;
 
     /**
      * The property/value sets being animated.
@@ -536,7 +488,7 @@ public class ValueAnimator extends Animator {
      */
     public void setCurrentPlayTime(long playTime) {
         initAnimation();
-        long currentTime = AnimationUtils.currentAnimationTimeMillis();
+        long currentTime = sAnimationContext.get().getCurrentAnimationTime();
         if (mPlayingState != RUNNING) {
             mSeekTime = playTime;
             mPlayingState = SEEKED;
@@ -556,128 +508,211 @@ public class ValueAnimator extends Animator {
         if (!mInitialized || mPlayingState == STOPPED) {
             return 0;
         }
-        return AnimationUtils.currentAnimationTimeMillis() - mStartTime;
+        return sAnimationContext.get().getCurrentAnimationTime() - mStartTime;
     }
 
     /**
-     * This custom, static handler handles the timing pulse that is shared by
-     * all active animations. This approach ensures that the setting of animation
-     * values will happen on the UI thread and that all animations will share
-     * the same times for calculating their values, which makes synchronizing
-     * animations possible.
+     * The animation state of one thread: the lists holding its animations at each stage of their
+     * life and the frame source that drives them. Fetched once per frame and once per start().
      *
+     * <p>The frame source is shared by all active animations. This approach ensures that the
+     * setting of animation values will happen on the UI thread and that all animations will
+     * share the same times for calculating their values, which makes synchronizing animations
+     * possible.</p>
      */
-    private static class AnimationHandler extends Handler {
+    static final class AnimationContext implements AnimationFrameSource.Callback {
+        // The list of all active animations
+        final ArrayList<ValueAnimator> mAnimations = new ArrayList<ValueAnimator>();
+
+        // The set of animations to be started on the next animation frame
+        ArrayList<ValueAnimator> mPendingAnimations = new ArrayList<ValueAnimator>();
+
+        // The animations being started by startPendingAnimations(), swapped with
+        // mPendingAnimations so that neither list has to be copied
+        private ArrayList<ValueAnimator> mStartingAnims = new ArrayList<ValueAnimator>();
+
         /**
-         * There are only two messages that we care about: ANIMATION_START and
-         * ANIMATION_FRAME. The START message is sent when an animation's start()
-         * method is called. It cannot start synchronously when start() is called
-         * because the call may be on the wrong thread, and it would also not be
-         * synchronized with other animations because it would not start on a common
-         * timing pulse. So each animation sends a START message to the handler, which
-         * causes the handler to place the animation on the active animations queue and
-         * start processing frames for that animation.
-         * The FRAME message is the one that is sent over and over while there are any
-         * active animations to process.
+         * Internal collections used to avoid set collisions as animations start and end
+         * while being processed.
+         */
+        final ArrayList<ValueAnimator> mDelayedAnims = new ArrayList<ValueAnimator>();
+        final ArrayList<ValueAnimator> mEndingAnims = new ArrayList<ValueAnimator>();
+        final ArrayList<ValueAnimator> mReadyAnims = new ArrayList<ValueAnimator>();
+
+        // Created on the first start() since it needs the thread's Looper
+        private AnimationFrameSource mFrameSource;
+        private boolean mFrameScheduled;
+
+        // The time of the frame being processed, while mInFrame is set
+        private long mFrameTime;
+        private boolean mInFrame;
+
+        /**
+         * Processes one frame of every delayed and active animation, ending those that are done.
+         *
+         * @param currentTime The common time for all animations processed during this frame
+         * @return Whether there are still active or delayed animations
+         */
+        boolean doAnimationFrame(long currentTime) {
+            final ArrayList<ValueAnimator> animations = mAnimations;
+            final ArrayList<ValueAnimator> delayedAnims = mDelayedAnims;
+            final ArrayList<ValueAnimator> readyAnims = mReadyAnims;
+            final ArrayList<ValueAnimator> endingAnims = mEndingAnims;
+
+            // First, process animations currently sitting on the delayed queue, adding
+            // them to the active animations if they are ready
+            int numDelayedAnims = delayedAnims.size();
+            for (int i = 0; i < numDelayedAnims; ++i) {
+                ValueAnimator anim = delayedAnims.get(i);
+                if (anim.delayedAnimationFrame(currentTime)) {
+                    readyAnims.add(anim);
+                }
+            }
+            int numReadyAnims = readyAnims.size();
+            if (numReadyAnims > 0) {
+                for (int i = 0; i < numReadyAnims; ++i) {
+                    ValueAnimator anim = readyAnims.get(i);
+                    anim.startAnimation(this);
+                    anim.mRunning = true;
+                    delayedAnims.remove(anim);
+                }
+                readyAnims.clear();
+            }
+
+            // Now process all active animations. The return value from animationFrame()
+            // tells the context whether it should now be ended
+            int numAnims = animations.size();
+            int i = 0;
+            while (i < numAnims) {
+                ValueAnimator anim = animations.get(i);
+                if (anim.animationFrame(currentTime)) {
+                    endingAnims.add(anim);
+                }
+                if (animations.size() == numAnims) {
+                    ++i;
+                } else {
+                    // An animation might be canceled or ended by client code
+                    // during the animation frame. Check to see if this happened by
+                    // seeing whether the current index is the same as it was before
+                    // calling animationFrame(). Another approach would be to copy
+                    // animations to a temporary list and process that list instead,
+                    // but that entails garbage and processing overhead that would
+                    // be nice to avoid.
+                    --numAnims;
+                    endingAnims.remove(anim);
+                }
+            }
+            if (endingAnims.size() > 0) {
+                for (i = 0; i < endingAnims.size(); ++i) {
+                    endingAnims.get(i).endAnimation(this);
+                }
+                endingAnims.clear();
+            }
+
+            return !animations.isEmpty() || !delayedAnims.isEmpty();
+        }
+
+        /**
+         * Starts the animations that have requested to be started, then processes the frame.
+         * Animations cannot start synchronously when start() is called because the call may be
+         * on the wrong thread, and they would also not be synchronized with other animations
+         * because they would not start on a common timing pulse.
          */
         @Override
-        public void handleMessage(Message msg) {
-            boolean callAgain = true;
-            ArrayList<ValueAnimator> animations = sAnimations.get();
-            ArrayList<ValueAnimator> delayedAnims = sDelayedAnims.get();
-            switch (msg.what) {
-                // TODO: should we avoid sending frame message when starting if we
-                // were already running?
-                case ANIMATION_START:
-                    ArrayList<ValueAnimator> pendingAnimations = sPendingAnimations.get();
-                    if (animations.size() > 0 || delayedAnims.size() > 0) {
-                        callAgain = false;
-                    }
-                    // pendingAnims holds any animations that have requested to be started
-                    // We're going to clear sPendingAnimations, but starting animation may
-                    // cause more to be added to the pending list (for example, if one animation
-                    // starting triggers another starting). So we loop until sPendingAnimations
-                    // is empty.
-                    while (pendingAnimations.size() > 0) {
-                        ArrayList<ValueAnimator> pendingCopy =
-                                (ArrayList<ValueAnimator>) pendingAnimations.clone();
-                        pendingAnimations.clear();
-                        int count = pendingCopy.size();
-                        for (int i = 0; i < count; ++i) {
-                            ValueAnimator anim = pendingCopy.get(i);
-                            // If the animation has a startDelay, place it on the delayed list
-                            if (anim.mStartDelay == 0) {
-                                anim.startAnimation();
-                            } else {
-                                delayedAnims.add(anim);
-                            }
-                        }
-                    }
-                    // fall through to process first frame of new animations
-                case ANIMATION_FRAME:
-                    // currentTime holds the common time for all animations processed
-                    // during this frame
-                    long currentTime = AnimationUtils.currentAnimationTimeMillis();
-                    ArrayList<ValueAnimator> readyAnims = sReadyAnims.get();
-                    ArrayList<ValueAnimator> endingAnims = sEndingAnims.get();
-
-                    // First, process animations currently sitting on the delayed queue, adding
-                    // them to the active animations if they are ready
-                    int numDelayedAnims = delayedAnims.size();
-                    for (int i = 0; i < numDelayedAnims; ++i) {
-                        ValueAnimator anim = delayedAnims.get(i);
-                        if (anim.delayedAnimationFrame(currentTime)) {
-                            readyAnims.add(anim);
-                        }
-                    }
-                    int numReadyAnims = readyAnims.size();
-                    if (numReadyAnims > 0) {
-                        for (int i = 0; i < numReadyAnims; ++i) {
-                            ValueAnimator anim = readyAnims.get(i);
-                            anim.startAnimation();
-                            anim.mRunning = true;
-                            delayedAnims.remove(anim);
-                        }
-                        readyAnims.clear();
-                    }
+        public void onFrame(long frameTime) {
+            mFrameScheduled = false;
+            mFrameTime = frameTime;
+            mInFrame = true;
+            try {
+                startPendingAnimations();
+                // If there are still active or delayed animations, ask for another frame
+                if (doAnimationFrame(frameTime)) {
+                    scheduleFrame();
+                }
+            } finally {
+                mInFrame = false;
+            }
+        }
 
-                    // Now process all active animations. The return value from animationFrame()
-                    // tells the handler whether it should now be ended
-                    int numAnims = animations.size();
-                    int i = 0;
-                    while (i < numAnims) {
-                        ValueAnimator anim = animations.get(i);
-                        if (anim.animationFrame(currentTime)) {
-                            endingAnims.add(anim);
-                        }
-                        if (animations.size() == numAnims) {
-                            ++i;
-                        } else {
-                            // An animation might be canceled or ended by client code
-                            // during the animation frame. Check to see if this happened by
-                            // seeing whether the current index is the same as it was before
-                            // calling animationFrame(). Another approach would be to copy
-                            // animations to a temporary list and process that list instead,
-                            // but that entails garbage and processing overhead that would
-                            // be nice to avoid.
-                            --numAnims;
-                            endingAnims.remove(anim);
-                        }
-                    }
-                    if (endingAnims.size() > 0) {
-                        for (i = 0; i < endingAnims.size(); ++i) {
-                            endingAnims.get(i).endAnimation();
-                        }
-                        endingAnims.clear();
-                    }
+        /**
+         * Returns the time that animations seeked, reversed or queried outside of their own
+         * frame processing are measured against: the time of the frame being processed if
+         * called from a frame (for example from a listener), so that the animation lines up
+         * with the others of the frame, or else the current time.
+         */
+        long getCurrentAnimationTime() {
+            return mInFrame ? mFrameTime : AnimationUtils.currentAnimationTimeMillis();
+        }
+
+        /**
+         * Returns the frame rate of the frame source, or the rate asked for by the frame delay
+         * if no animation has been started on this thread yet.
+         */
+        float getFrameRate() {
+            if (mFrameSource == null) {
+                return 1000f / Math.max(1, sFrameDelay);
+            }
+            return mFrameSource.getFrameRate();
+        }
+
+        /**
+         * Asks the frame source for the next frame, unless one has already been asked for.
+         */
+        void scheduleFrame() {
+            if (mFrameScheduled) {
+                return;
+            }
+            if (mFrameSource == null) {
+                mFrameSource = AnimationFrameSource.create(this);
+            }
+            mFrameScheduled = true;
+            mFrameSource.scheduleFrame();
+        }
 
-                    // If there are still active or delayed animations, call the handler again
-                    // after the frameDelay
-                    if (callAgain && (!animations.isEmpty() || !delayedAnims.isEmpty())) {
-                        sendEmptyMessageDelayed(ANIMATION_FRAME, Math.max(0, sFrameDelay -
-                            (AnimationUtils.currentAnimationTimeMillis() - currentTime)));
+        /**
+         * Replaces the source of this thread's frames, for example to drive them by hand.
+         */
+        void setFrameSource(AnimationFrameSource frameSource) {
+            final boolean frameScheduled = mFrameScheduled;
+            if (frameScheduled) {
+                // Otherwise the old source would still deliver its frame, on top of the new
+                // source's
+                mFrameSource.cancelFrame();
+                mFrameScheduled = false;
+            }
+            mFrameSource = frameSource;
+            // Carry the request over if there is still something to animate
+            if (frameScheduled && (!mAnimations.isEmpty() || !mDelayedAnims.isEmpty()
+                    || !mPendingAnimations.isEmpty())) {
+                scheduleFrame();
+            }
+        }
+
+        /**
+         * Moves the pending animations to the active list, or to the delayed list if they have a
+         * start delay.
+         */
+        void startPendingAnimations() {
+            // mPendingAnimations holds any animations that have requested to be started
+            // We're going to empty it, but starting animation may cause more to be added to
+            // the pending list (for example, if one animation starting triggers another
+            // starting). So we swap in the empty list and loop until mPendingAnimations
+            // stays empty.
+            while (mPendingAnimations.size() > 0) {
+                final ArrayList<ValueAnimator> startingAnims = mPendingAnimations;
+                mPendingAnimations = mStartingAnims;
+                mStartingAnims = startingAnims;
+                int count = startingAnims.size();
+                for (int i = 0; i < count; ++i) {
+                    ValueAnimator anim = startingAnims.get(i);
+                    // If the animation has a startDelay, place it on the delayed list
+                    if (anim.getTotalStartDelay() == 0) {
+                        anim.startAnimation(this);
+                    } else {
+                        mDelayedAnims.add(anim);
                     }
-                    break;
+                }
+                startingAnims.clear();
             }
         }
     }
@@ -702,6 +737,14 @@ public class ValueAnimator extends Animator {
         this.mStartDelay = startDelay;
     }
 
+    /**
+     * Returns the delay before the animation starts, including any offset given to it by an
+     * {@link AnimatorSet} playing it on a timeline.
+     */
+    long getTotalStartDelay() {
+        return mStartDelay + mTimelineOffset;
+    }
+
     /**
      * The amount of time, in milliseconds, between each frame of the animation. This is a
      * requested time that the animation will attempt to honor, but the actual delay between
@@ -709,12 +752,26 @@ public class ValueAnimator extends Animator {
      * function because the same delay will be applied to all animations, since they are all
      * run off of a single timing loop.
      *
+     * <p>From Jelly Bean on, frames follow the display's vsync instead and this delay is not
+     * used.</p>
+     *
      * @return the requested time between frames, in milliseconds
      */
     public static long getFrameDelay() {
         return sFrameDelay;
     }
 
+    /**
+     * The rate, in frames per second, at which the animations of the calling thread are being
+     * processed. From Jelly Bean on this is the display's refresh rate, measured from the timing
+     * of past frames; before that it is the rate asked for by {@link #setFrameDelay(long)}.
+     *
+     * @return the current frame rate of the timing loop
+     */
+    public static float getFrameRate() {
+        return sAnimationContext.get().getFrameRate();
+    }
+
     /**
      * The amount of time, in milliseconds, between each frame of the animation. This is a
      * requested time that the animation will attempt to honor, but the actual delay between
@@ -722,6 +779,9 @@ public class ValueAnimator extends Animator {
      * function because the same delay will be applied to all animations, since they are all
      * run off of a single timing loop.
      *
+     * <p>From Jelly Bean on, frames follow the display's vsync instead and this delay is not
+     * used.</p>
+     *
      * @param frameDelay the requested time between frames, in milliseconds
      */
     public static void setFrameDelay(long frameDelay) {
@@ -817,20 +877,21 @@ public class ValueAnimator extends Animator {
      * @param listener the listener to be added to the current set of listeners for this animation.
      */
     public void addUpdateListener(AnimatorUpdateListener listener) {
+        ArrayList<AnimatorUpdateListener> listeners;
         if (mUpdateListeners == null) {
-            mUpdateListeners = new ArrayList<AnimatorUpdateListener>();
+            listeners = new ArrayList<AnimatorUpdateListener>(1);
+        } else {
+            listeners = new ArrayList<AnimatorUpdateListener>(mUpdateListeners.size() + 1);
+            listeners.addAll(mUpdateListeners);
         }
-        mUpdateListeners.add(listener);
+        listeners.add(listener);
+        mUpdateListeners = listeners;
     }
 
     /**
      * Removes all listeners from the set listening to frame updates for this animation.
      */
     public void removeAllUpdateListeners() {
-        if (mUpdateListeners == null) {
-            return;
-        }
-        mUpdateListeners.clear();
         mUpdateListeners = null;
     }
 
@@ -841,13 +902,17 @@ public class ValueAnimator extends Animator {
      * for this animation.
      */
     public void removeUpdateListener(AnimatorUpdateListener listener) {
-        if (mUpdateListeners == null) {
+        if (mUpdateListeners == null || !mUpdateListeners.contains(listener)) {
             return;
         }
-        mUpdateListeners.remove(listener);
-        if (mUpdateListeners.size() == 0) {
+        if (mUpdateListeners.size() == 1) {
             mUpdateListeners = null;
+            return;
         }
+        ArrayList<AnimatorUpdateListener> listeners =
+                new ArrayList<AnimatorUpdateListener>(mUpdateListeners);
+        listeners.remove(listener);
+        mUpdateListeners = listeners;
     }
 
 
@@ -855,7 +920,8 @@ public class ValueAnimator extends Animator {
      * The time interpolator used in calculating the elapsed fraction of this animation. The
      * interpolator determines whether the animation runs with linear or non-linear motion,
      * such as acceleration and deceleration. The default value is
-     * {@link android.view.animation.AccelerateDecelerateInterpolator}
+     * {@link android.view.animation.AccelerateDecelerateInterpolator}. An interpolator that is
+     * expensive to evaluate can be wrapped with {@link LookupTableInterpolator#of(Interpolator)}.
      *
      * @param value the interpolator to be used by this animation. A value of <code>null</code>
      * will result in linear interpolation.
@@ -922,28 +988,23 @@ public class ValueAnimator extends Animator {
         mPlayingState = STOPPED;
         mStarted = true;
         mStartedDelay = false;
-        sPendingAnimations.get().add(this);
-        if (mStartDelay == 0) {
+        final AnimationContext context = sAnimationContext.get();
+        context.mPendingAnimations.add(this);
+        if (getTotalStartDelay() == 0) {
             // This sets the initial value of the animation, prior to actually starting it running
             setCurrentPlayTime(getCurrentPlayTime());
             mPlayingState = STOPPED;
             mRunning = true;
 
             if (mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
-                int numListeners = tmpListeners.size();
+                ArrayList<AnimatorListener> listeners = mListeners;
+                int numListeners = listeners.size();
                 for (int i = 0; i < numListeners; ++i) {
-                    tmpListeners.get(i).onAnimationStart(this);
+                    listeners.get(i).onAnimationStart(this);
                 }
             }
         }
-        AnimationHandler animationHandler = sAnimationHandler.get();
-        if (animationHandler == null) {
-            animationHandler = new AnimationHandler();
-            sAnimationHandler.set(animationHandler);
-        }
-        animationHandler.sendEmptyMessage(ANIMATION_START);
+        context.scheduleFrame();
     }
 
     @Override
@@ -955,26 +1016,28 @@ public class ValueAnimator extends Animator {
     public void cancel() {
         // Only cancel if the animation is actually running or has been started and is about
         // to run
-        if (mPlayingState != STOPPED || sPendingAnimations.get().contains(this) ||
-                sDelayedAnims.get().contains(this)) {
+        final AnimationContext context = sAnimationContext.get();
+        if (mPlayingState != STOPPED || context.mPendingAnimations.contains(this) ||
+                context.mDelayedAnims.contains(this)) {
             // Only notify listeners if the animator has actually started
             if (mRunning && mListeners != null) {
-                ArrayList<AnimatorListener> tmpListeners =
-                        (ArrayList<AnimatorListener>) mListeners.clone();
-                for (AnimatorListener listener : tmpListeners) {
-                    listener.onAnimationCancel(this);
+                ArrayList<AnimatorListener> listeners = mListeners;
+                int numListeners = listeners.size();
+                for (int i = 0; i < numListeners; ++i) {
+                    listeners.get(i).onAnimationCancel(this);
                 }
             }
-            endAnimation();
+            endAnimation(context);
         }
     }
 
     @Override
     public void end() {
-        if (!sAnimations.get().contains(this) && !sPendingAnimations.get().contains(this)) {
+        final AnimationContext context = sAnimationContext.get();
+        if (!context.mAnimations.contains(this) && !context.mPendingAnimations.contains(this)) {
             // Special case if the animation has not yet started; get it ready for ending
             mStartedDelay = false;
-            startAnimation();
+            startAnimation(context);
         } else if (!mInitialized) {
             initAnimation();
         }
@@ -985,7 +1048,7 @@ public class ValueAnimator extends Animator {
         } else {
             animateValue(1f);
         }
-        endAnimation();
+        endAnimation(context);
     }
 
     @Override
@@ -1008,7 +1071,7 @@ public class ValueAnimator extends Animator {
     public void reverse() {
         mPlayingBackwards = !mPlayingBackwards;
         if (mPlayingState == RUNNING) {
-            long currentTime = AnimationUtils.currentAnimationTimeMillis();
+            long currentTime = sAnimationContext.get().getCurrentAnimationTime();
             long currentPlayTime = currentTime - mStartTime;
             long timeLeft = mDuration - currentPlayTime;
             mStartTime = currentTime - timeLeft;
@@ -1021,17 +1084,17 @@ public class ValueAnimator extends Animator {
      * Called internally to end an animation by removing it from the animations list. Must be
      * called on the UI thread.
      */
-    private void endAnimation() {
-        sAnimations.get().remove(this);
-        sPendingAnimations.get().remove(this);
-        sDelayedAnims.get().remove(this);
+    private void endAnimation(AnimationContext context) {
+        mTimelineOffset = 0;
+        context.mAnimations.remove(this);
+        context.mPendingAnimations.remove(this);
+        context.mDelayedAnims.remove(this);
         mPlayingState = STOPPED;
         if (mRunning && mListeners != null) {
-            ArrayList<AnimatorListener> tmpListeners =
-                    (ArrayList<AnimatorListener>) mListeners.clone();
-            int numListeners = tmpListeners.size();
+            ArrayList<AnimatorListener> listeners = mListeners;
+            int numListeners = listeners.size();
             for (int i = 0; i < numListeners; ++i) {
-                tmpListeners.get(i).onAnimationEnd(this);
+                listeners.get(i).onAnimationEnd(this);
             }
         }
         mRunning = false;
@@ -1042,17 +1105,16 @@ public class ValueAnimator extends Animator {
      * Called internally to start an animation by adding it to the active animations list. Must be
      * called on the UI thread.
      */
-    private void startAnimation() {
+    private void startAnimation(AnimationContext context) {
         initAnimation();
-        sAnimations.get().add(this);
-        if (mStartDelay > 0 && mListeners != null) {
+        context.mAnimations.add(this);
+        if (getTotalStartDelay() > 0 && mListeners != null) {
             // Listeners were already notified in start() if startDelay is 0; this is
             // just for delayed animations
-            ArrayList<AnimatorListener> tmpListeners =
-                    (ArrayList<AnimatorListener>) mListeners.clone();
-            int numListeners = tmpListeners.size();
+            ArrayList<AnimatorListener> listeners = mListeners;
+            int numListeners = listeners.size();
             for (int i = 0; i < numListeners; ++i) {
-                tmpListeners.get(i).onAnimationStart(this);
+                listeners.get(i).onAnimationStart(this);
             }
         }
     }
@@ -1073,10 +1135,11 @@ public class ValueAnimator extends Animator {
             mDelayStartTime = currentTime;
         } else {
             long deltaTime = currentTime - mDelayStartTime;
-            if (deltaTime > mStartDelay) {
+            final long startDelay = getTotalStartDelay();
+            if (deltaTime > startDelay) {
                 // startDelay ended - start the anim and record the
                 // mStartTime appropriately
-                mStartTime = currentTime - (deltaTime - mStartDelay);
+                mStartTime = currentTime - (deltaTime - startDelay);
                 mPlayingState = RUNNING;
                 return true;
             }
@@ -1086,13 +1149,13 @@ public class ValueAnimator extends Animator {
 
     /**
      * This internal function processes a single animation frame for a given animation. The
-     * currentTime parameter is the timing pulse sent by the handler, used to calculate the
+     * currentTime parameter is the timing pulse sent by the frame source, used to calculate the
      * elapsed duration, and therefore
      * the elapsed fraction, of the animation. The return value indicates whether the animation
      * should be ended (which happens when the elapsed time of the animation exceeds the
      * animation's duration, including the repeatCount).
      *
-     * @param currentTime The current time, as tracked by the static timing handler
+     * @param currentTime The current time, as tracked by the timing loop
      * @return true if the animation's duration, including any repetitions due to
      * <code>repeatCount</code> has been exceeded and the animation should be ended.
      */
@@ -1112,14 +1175,18 @@ public class ValueAnimator extends Animator {
         switch (mPlayingState) {
         case RUNNING:
         case SEEKED:
+            // A frame's time can be slightly behind the clock that the animation was started,
+            // seeked or reversed with; never compute a time before its start
+            currentTime = Math.max(currentTime, mStartTime);
             float fraction = mDuration > 0 ? (float)(currentTime - mStartTime) / mDuration : 1f;
             if (fraction >= 1f) {
                 if (mCurrentIteration < mRepeatCount || mRepeatCount == INFINITE) {
                     // Time to repeat
                     if (mListeners != null) {
-                        int numListeners = mListeners.size();
+                        ArrayList<AnimatorListener> listeners = mListeners;
+                        int numListeners = listeners.size();
                         for (int i = 0; i < numListeners; ++i) {
-                            mListeners.get(i).onAnimationRepeat(this);
+                            listeners.get(i).onAnimationRepeat(this);
                         }
                     }
                     if (mRepeatMode == REVERSE) {
@@ -1173,9 +1240,10 @@ public class ValueAnimator extends Animator {
             mValues[i].calculateValue(fraction);
         }
         if (mUpdateListeners != null) {
-            int numListeners = mUpdateListeners.size();
+            ArrayList<AnimatorUpdateListener> listeners = mUpdateListeners;
+            int numListeners = listeners.size();
             for (int i = 0; i < numListeners; ++i) {
-                mUpdateListeners.get(i).onAnimationUpdate(this);
+                listeners.get(i).onAnimationUpdate(this);
             }
         }
     }
@@ -1197,6 +1265,7 @@ public class ValueAnimator extends Animator {
         anim.mInitialized = false;
         anim.mPlayingState = STOPPED;
         anim.mStartedDelay = false;
+        anim.mTimelineOffset = 0;
         PropertyValuesHolder[] oldValues = mValues;
         if (oldValues != null) {
             int numValues = oldValues.length;
@@ -1236,7 +1305,7 @@ public class ValueAnimator extends Animator {
      * @hide
      */
     public static int getCurrentAnimationsCount() {
-        return sAnimations.get().size();
+        return sAnimationContext.get().mAnimations.size();
     }
 
     /**
@@ -1246,9 +1315,17 @@ public class ValueAnimator extends Animator {
      * @hide
      */
     public static void clearAllAnimations() {
-        sAnimations.get().clear();
-        sPendingAnimations.get().clear();
-        sDelayedAnims.get().clear();
+        final AnimationContext context = sAnimationContext.get();
+        context.mAnimations.clear();
+        context.mPendingAnimations.clear();
+        context.mDelayedAnims.clear();
+    }
+
+    /**
+     * Returns the animation state of the calling thread.
+     */
+    static AnimationContext getAnimationContext() {
+        return sAnimationContext.get();
     }
 
     @Override
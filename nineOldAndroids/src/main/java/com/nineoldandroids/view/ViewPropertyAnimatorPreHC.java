@@ -18,8 +18,6 @@ package com.nineoldandroids.view;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Set;
 import android.view.View;
 import android.view.animation.Interpolator;
 import com.nineoldandroids.animation.Animator;
@@ -91,14 +89,17 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
     private AnimatorEventListener mAnimatorEventListener = new AnimatorEventListener();
 
     /**
-     * This list holds the properties that have been asked to animate. We allow the caller to
+     * This mask holds the properties that have been asked to animate, and the arrays hold their
+     * from/delta values, indexed by {@link #indexOf(int)}. We allow the caller to
      * request several animations prior to actually starting the underlying animator. This
      * enables us to run one single animator to handle several properties in parallel. Each
-     * property is tossed onto the pending list until the animation actually starts (which is
-     * done by posting it onto mView), at which time the pending list is cleared and the properties
-     * on that list are added to the list of properties associated with that animator.
+     * property is added to the pending mask until the animation actually starts (which is
+     * done by posting it onto mView), at which time the pending mask is cleared and the
+     * properties in it are copied into the bundle associated with that animator.
      */
-    ArrayList<NameValuesHolder> mPendingAnimations = new ArrayList<NameValuesHolder>();
+    int mPendingMask = NONE;
+    final float[] mPendingFromValues = new float[NUM_PROPERTIES];
+    final float[] mPendingDeltaValues = new float[NUM_PROPERTIES];
 
     /**
      * Constants used to associate a property being requested and the mechanism used to set
@@ -119,6 +120,11 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
     private static final int TRANSFORM_MASK = TRANSLATION_X | TRANSLATION_Y | SCALE_X | SCALE_Y |
             ROTATION | ROTATION_X | ROTATION_Y | X | Y;
 
+    /**
+     * The number of property constants above, which is the size of the from/delta arrays.
+     */
+    private static final int NUM_PROPERTIES = 10;
+
     /**
      * The mechanism by which the user can request several properties that are then animated
      * together works by posting this Runnable to start the underlying Animator. Every time
@@ -136,16 +142,19 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
 
     /**
      * This class holds information about the overall animation being run on the set of
-     * properties. The mask describes which properties are being animated and the
-     * values holder is the list of all property/value objects.
+     * properties. The mask describes which properties are being animated and the from/delta
+     * arrays hold their values, indexed by {@link #indexOf(int)}. A bundle keeps its animator
+     * for its whole life, and is put back into a pool when the animator ends, so that
+     * starting and canceling animations does not allocate.
      */
     private static class PropertyBundle {
+        final ValueAnimator mAnimator;
         int mPropertyMask;
-        ArrayList<NameValuesHolder> mNameValuesHolder;
+        final float[] mFromValues = new float[NUM_PROPERTIES];
+        final float[] mDeltaValues = new float[NUM_PROPERTIES];
 
-        PropertyBundle(int propertyMask, ArrayList<NameValuesHolder> nameValuesHolder) {
-            mPropertyMask = propertyMask;
-            mNameValuesHolder = nameValuesHolder;
+        PropertyBundle(ValueAnimator animator) {
+            mAnimator = animator;
         }
 
         /**
@@ -159,49 +168,29 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
          * has therefore been canceled.
          */
         boolean cancel(int propertyConstant) {
-            if ((mPropertyMask & propertyConstant) != 0 && mNameValuesHolder != null) {
-                int count = mNameValuesHolder.size();
-                for (int i = 0; i < count; ++i) {
-                    NameValuesHolder nameValuesHolder = mNameValuesHolder.get(i);
-                    if (nameValuesHolder.mNameConstant == propertyConstant) {
-                        mNameValuesHolder.remove(i);
-                        mPropertyMask &= ~propertyConstant;
-                        return true;
-                    }
-                }
+            if ((mPropertyMask & propertyConstant) != 0) {
+                mPropertyMask &= ~propertyConstant;
+                return true;
             }
             return false;
         }
     }
 
     /**
-     * This list tracks the list of properties being animated by any particular animator.
+     * This list tracks the properties being animated by any particular animator.
      * In most situations, there would only ever be one animator running at a time. But it is
      * possible to request some properties to animate together, then while those properties
      * are animating, to request some other properties to animate together. The way that
-     * works is by having this map associate the group of properties being animated with the
-     * animator handling the animation. On every update event for an Animator, we ask the
-     * map for the associated properties and set them accordingly.
-     */
-    private HashMap<Animator, PropertyBundle> mAnimatorMap =
-            new HashMap<Animator, PropertyBundle>();
-
-    /**
-     * This is the information we need to set each property during the animation.
-     * mNameConstant is used to set the appropriate field in View, and the from/delta
-     * values are used to calculate the animated value for a given animation fraction
-     * during the animation.
-     */
-    private static class NameValuesHolder {
-        int mNameConstant;
-        float mFromValue;
-        float mDeltaValue;
-        NameValuesHolder(int nameConstant, float fromValue, float deltaValue) {
-            mNameConstant = nameConstant;
-            mFromValue = fromValue;
-            mDeltaValue = deltaValue;
-        }
-    }
+     * works is by having one bundle per animator holding the group of properties being
+     * animated. On every update event for an Animator, we look up the bundle of that animator
+     * and set its properties accordingly.
+     */
+    private final ArrayList<PropertyBundle> mRunningBundles = new ArrayList<PropertyBundle>();
+
+    /**
+     * Bundles whose animators have ended, kept with their animators for later animations.
+     */
+    private final ArrayList<PropertyBundle> mBundlePool = new ArrayList<PropertyBundle>();
 
     /**
      * Constructor, called by View. This is private by design, as the user should only
@@ -287,20 +276,22 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
 
     @Override
     public void start() {
+        View v = mView.get();
+        if (v != null) {
+            v.removeCallbacks(mAnimationStarter);
+        }
         startAnimation();
     }
 
     @Override
     public void cancel() {
-        if (mAnimatorMap.size() > 0) {
-            HashMap<Animator, PropertyBundle> mAnimatorMapCopy =
-                    (HashMap<Animator, PropertyBundle>)mAnimatorMap.clone();
-            Set<Animator> animatorSet = mAnimatorMapCopy.keySet();
-            for (Animator runningAnim : animatorSet) {
-                runningAnim.cancel();
+        // Canceling an animator removes its bundle, so walk the list from the end
+        for (int i = mRunningBundles.size() - 1; i >= 0; --i) {
+            if (i < mRunningBundles.size()) {
+                cancelBundle(mRunningBundles.get(i));
             }
         }
-        mPendingAnimations.clear();
+        mPendingMask = NONE;
         View v = mView.get();
         if (v != null) {
             v.removeCallbacks(mAnimationStarter);
@@ -433,19 +424,15 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
      * value accordingly.
      */
     private void startAnimation() {
-        ValueAnimator animator = ValueAnimator.ofFloat(1.0f);
-        ArrayList<NameValuesHolder> nameValueList =
-                (ArrayList<NameValuesHolder>) mPendingAnimations.clone();
-        mPendingAnimations.clear();
-        int propertyMask = 0;
-        int propertyCount = nameValueList.size();
-        for (int i = 0; i < propertyCount; ++i) {
-            NameValuesHolder nameValuesHolder = nameValueList.get(i);
-            propertyMask |= nameValuesHolder.mNameConstant;
-        }
-        mAnimatorMap.put(animator, new PropertyBundle(propertyMask, nameValueList));
-        animator.addUpdateListener(mAnimatorEventListener);
-        animator.addListener(mAnimatorEventListener);
+        PropertyBundle bundle = obtainBundle();
+        bundle.mPropertyMask = mPendingMask;
+        System.arraycopy(mPendingFromValues, 0, bundle.mFromValues, 0, NUM_PROPERTIES);
+        System.arraycopy(mPendingDeltaValues, 0, bundle.mDeltaValues, 0, NUM_PROPERTIES);
+        mPendingMask = NONE;
+        mRunningBundles.add(bundle);
+        // The duration, start delay and interpolator are only ever set, never unset, so a
+        // pooled animator has nothing left over from its last use that has to be reset
+        ValueAnimator animator = bundle.mAnimator;
         if (mStartDelaySet) {
             animator.setStartDelay(mStartDelay);
         }
@@ -458,6 +445,66 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
         animator.start();
     }
 
+    /**
+     * Returns a bundle from the pool, or a new bundle with its own animator.
+     */
+    private PropertyBundle obtainBundle() {
+        final int poolSize = mBundlePool.size();
+        if (poolSize > 0) {
+            return mBundlePool.remove(poolSize - 1);
+        }
+        ValueAnimator animator = ValueAnimator.ofFloat(1.0f);
+        animator.addUpdateListener(mAnimatorEventListener);
+        animator.addListener(mAnimatorEventListener);
+        return new PropertyBundle(animator);
+    }
+
+    /**
+     * Returns the running bundle of the given animator, or null if it has none.
+     */
+    private PropertyBundle findBundle(Animator animator) {
+        final int numBundles = mRunningBundles.size();
+        for (int i = 0; i < numBundles; ++i) {
+            PropertyBundle bundle = mRunningBundles.get(i);
+            if (bundle.mAnimator == animator) {
+                return bundle;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cancels the animator of a running bundle. An animator canceled during its start delay
+     * sends no end event, so its bundle is released here instead.
+     */
+    private void cancelBundle(PropertyBundle bundle) {
+        bundle.mAnimator.cancel();
+        if (mRunningBundles.contains(bundle)) {
+            releaseBundle(bundle);
+        }
+    }
+
+    /**
+     * Moves a bundle whose animator has ended from the running list to the pool.
+     */
+    private void releaseBundle(PropertyBundle bundle) {
+        mRunningBundles.remove(bundle);
+        mBundlePool.add(bundle);
+        // If no bundle is running, it means all animation are done or canceled, so the listener
+        // isn't needed anymore. Not nulling it would cause it to leak any objects used in
+        // its implementation
+        if (mRunningBundles.isEmpty()) {
+            mListener = null;
+        }
+    }
+
+    /**
+     * Returns the index of a property constant in the from/delta arrays.
+     */
+    private static int indexOf(int propertyConstant) {
+        return Integer.numberOfTrailingZeros(propertyConstant);
+    }
+
     /**
      * Utility function, called by the various x(), y(), etc. methods. This stores the
      * constant name for the property along with the from/delta values that will be used to
@@ -499,30 +546,30 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
      */
     private void animatePropertyBy(int constantName, float startValue, float byValue) {
         // First, cancel any existing animations on this property
-        if (mAnimatorMap.size() > 0) {
-            Animator animatorToCancel = null;
-            Set<Animator> animatorSet = mAnimatorMap.keySet();
-            for (Animator runningAnim : animatorSet) {
-                PropertyBundle bundle = mAnimatorMap.get(runningAnim);
-                if (bundle.cancel(constantName)) {
-                    // property was canceled - cancel the animation if it's now empty
-                    // Note that it's safe to break out here because every new animation
-                    // on a property will cancel a previous animation on that property, so
-                    // there can only ever be one such animation running.
-                    if (bundle.mPropertyMask == NONE) {
-                        // the animation is no longer changing anything - cancel it
-                        animatorToCancel = runningAnim;
-                        break;
-                    }
+        PropertyBundle bundleToCancel = null;
+        final int numBundles = mRunningBundles.size();
+        for (int i = 0; i < numBundles; ++i) {
+            PropertyBundle bundle = mRunningBundles.get(i);
+            if (bundle.cancel(constantName)) {
+                // property was canceled - cancel the animation if it's now empty
+                // Note that it's safe to break out here because every new animation
+                // on a property will cancel a previous animation on that property, so
+                // there can only ever be one such animation running.
+                if (bundle.mPropertyMask == NONE) {
+                    // the animation is no longer changing anything - cancel it
+                    bundleToCancel = bundle;
+                    break;
                 }
             }
-            if (animatorToCancel != null) {
-                animatorToCancel.cancel();
-            }
+        }
+        if (bundleToCancel != null) {
+            cancelBundle(bundleToCancel);
         }
 
-        NameValuesHolder nameValuePair = new NameValuesHolder(constantName, startValue, byValue);
-        mPendingAnimations.add(nameValuePair);
+        final int index = indexOf(constantName);
+        mPendingMask |= constantName;
+        mPendingFromValues[index] = startValue;
+        mPendingDeltaValues[index] = byValue;
         View v = mView.get();
         if (v != null) {
             v.removeCallbacks(mAnimationStarter);
@@ -661,12 +708,9 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
             if (mListener != null) {
                 mListener.onAnimationEnd(animation);
             }
-            mAnimatorMap.remove(animation);
-            // If the map is empty, it means all animation are done or canceled, so the listener
-            // isn't needed anymore. Not nulling it would cause it to leak any objects used in
-            // its implementation
-            if (mAnimatorMap.isEmpty()) {
-                mListener = null;
+            PropertyBundle bundle = findBundle(animation);
+            if (bundle != null) {
+                releaseBundle(bundle);
             }
         }
 
@@ -688,7 +732,10 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
             //boolean alphaHandled = false;
             //mView.invalidateParentCaches();
             float fraction = animation.getAnimatedFraction();
-            PropertyBundle propertyBundle = mAnimatorMap.get(animation);
+            PropertyBundle propertyBundle = findBundle(animation);
+            if (propertyBundle == null) {
+                return;
+            }
             int propertyMask = propertyBundle.mPropertyMask;
             if ((propertyMask & TRANSFORM_MASK) != 0) {
                 View v = mView.get();
@@ -696,16 +743,16 @@ class ViewPropertyAnimatorPreHC extends ViewPropertyAnimator {
                     v.invalidate(/*false*/);
                 }
             }
-            ArrayList<NameValuesHolder> valueList = propertyBundle.mNameValuesHolder;
-            if (valueList != null) {
-                int count = valueList.size();
-                for (int i = 0; i < count; ++i) {
-                    NameValuesHolder values = valueList.get(i);
-                    float value = values.mFromValue + fraction * values.mDeltaValue;
-                    //if (values.mNameConstant == ALPHA) {
+            final float[] fromValues = propertyBundle.mFromValues;
+            final float[] deltaValues = propertyBundle.mDeltaValues;
+            for (int index = 0; index < NUM_PROPERTIES; ++index) {
+                final int propertyConstant = 1 << index;
+                if ((propertyMask & propertyConstant) != 0) {
+                    float value = fromValues[index] + fraction * deltaValues[index];
+                    //if (propertyConstant == ALPHA) {
                     //    alphaHandled = mView.setAlphaNoInvalidation(value);
                     //} else {
-                        setValue(values.mNameConstant, value);
+                        setValue(propertyConstant, value);
                     //}
                 }
             }
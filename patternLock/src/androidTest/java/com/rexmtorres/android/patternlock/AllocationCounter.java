@@ -0,0 +1,27 @@
+package com.rexmtorres.android.patternlock;
+
+import android.os.Debug;
+
+/**
+ * Counts the objects allocated by the calling thread between {@link #start()} and
+ * {@link #stop()}.
+ */
+@SuppressWarnings("deprecation")
+final class AllocationCounter {
+    private AllocationCounter() {
+    }
+
+    static void start() {
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+    }
+
+    /**
+     * @return The number of objects allocated since {@link #start()}.
+     */
+    static int stop() {
+        final int allocations = Debug.getThreadAllocCount();
+        Debug.stopAllocCounting();
+        return allocations;
+    }
+}
@@ -0,0 +1,9 @@
+package com.rexmtorres.android.patternlock;
+
+import android.app.Activity;
+
+/**
+ * An empty activity for the tests to show views in.
+ */
+public class PatternLockTestActivity extends Activity {
+}
@@ -0,0 +1,109 @@
+package com.rexmtorres.android.patternlock;
+
+import android.os.SystemClock;
+import android.test.ActivityInstrumentationTestCase2;
+import android.test.UiThreadTest;
+import android.view.MotionEvent;
+import android.view.ViewGroup;
+
+/**
+ * Counts the objects allocated on the UI thread while a pattern is entered and its animations run.
+ */
+public class PatternLockViewAllocationTest extends ActivityInstrumentationTestCase2<PatternLockTestActivity> {
+    private static final int SIZE = 300;
+    private static final int FRAME_MILLIS = 16;
+    /**
+     * Long enough for the dot and line animations of the last cell to end.
+     */
+    private static final int SETTLE_MILLIS = 1000;
+    // Every cell, so the frames drive the dot and line animations of all of them
+    private static final int[][] PATTERN = {{0, 0}, {0, 1}, {0, 2}, {1, 2}, {1, 1}, {1, 0}, {2, 0}, {2, 1}, {2, 2}};
+
+    public PatternLockViewAllocationTest() {
+        super(PatternLockTestActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        final PatternLockTestActivity activity = getActivity();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mView = new PatternLockView(activity, null);
+                mView.setReducedMotion(false);
+                mView.setAdaptiveRenderQualityEnabled(false);
+                // Haptic feedback goes through the window session once attached
+                mView.setTactileFeedbackEnabled(false);
+                activity.setContentView(mView, new ViewGroup.LayoutParams(SIZE, SIZE));
+            }
+        });
+        // Attached, laid out and shown, so its animations are no longer suspended
+        getInstrumentation().waitForIdleSync();
+    }
+
+    @UiThreadTest
+    public void testPatternEntryDoesNotAllocateAfterWarmUp() {
+        assertNotNull(mView.getWindowToken());
+        assertTrue(mView.isShown());
+
+        MotionEvent[] events = obtainPatternEvents();
+        try {
+            enterPattern(mView, events);
+            enterPattern(mView, events);
+
+            AllocationCounter.start();
+            enterPattern(mView, events);
+            final int allocations = AllocationCounter.stop();
+
+            assertEquals(0, allocations);
+        } finally {
+            for (MotionEvent event : events) {
+                event.recycle();
+            }
+        }
+    }
+
+    /**
+     * Touch the pattern in with a frame after each event, then run frames till its animations
+     * are over.
+     */
+    private static void enterPattern(PatternLockView view, MotionEvent[] events) {
+        for (MotionEvent event : events) {
+            view.onTouchEvent(event);
+            runFrame(view);
+        }
+        for (int elapsed = 0; elapsed < SETTLE_MILLIS; elapsed += FRAME_MILLIS) {
+            runFrame(view);
+        }
+    }
+
+    private static float getCenter(int index) {
+        return SIZE / 6f + index * SIZE / 3f;
+    }
+
+    private static MotionEvent[] obtainPatternEvents() {
+        final long downTime = SystemClock.uptimeMillis();
+        MotionEvent[] events = new MotionEvent[PATTERN.length + 1];
+        for (int i = 0; i < PATTERN.length; i++) {
+            int action = i == 0 ? MotionEvent.ACTION_DOWN : MotionEvent.ACTION_MOVE;
+            events[i] = MotionEvent.obtain(downTime, downTime + i * FRAME_MILLIS, action, getCenter(PATTERN[i][1]), getCenter(PATTERN[i][0]), 0);
+        }
+        int[] last = PATTERN[PATTERN.length - 1];
+        events[PATTERN.length] = MotionEvent.obtain(downTime, downTime + PATTERN.length * FRAME_MILLIS, MotionEvent.ACTION_UP, getCenter(last[1]), getCenter(last[0]), 0);
+        return events;
+    }
+
+    /**
+     * Run the frame the view asked for, if any, on this thread. The test holds the UI thread, so
+     * the view's posted frame would otherwise never run.
+     */
+    private static void runFrame(PatternLockView view) {
+        SystemClock.sleep(FRAME_MILLIS);
+        // Also recycles the posted callback, so posting the next one does not allocate
+        view.removeCallbacks(view.mAnimationFrame);
+        view.mAnimationFrame.run();
+    }
+
+    private PatternLockView mView;
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import android.graphics.Bitmap;
+
+/**
+ * {@link PatternSprite} of a {@link Bitmap}, which {@link CanvasPatternSurface} draws as is.
+ */
+final class BitmapSprite extends PatternSprite {
+    BitmapSprite(Bitmap bitmap) {
+        mBitmap = bitmap;
+    }
+
+    Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    @Override
+    public int getHeight() {
+        return mBitmap.getHeight();
+    }
+
+    @Override
+    public int getPixel(int x, int y) {
+        return mBitmap.getPixel(x, y);
+    }
+
+    @Override
+    public int getWidth() {
+        return mBitmap.getWidth();
+    }
+
+    private final Bitmap mBitmap;
+}
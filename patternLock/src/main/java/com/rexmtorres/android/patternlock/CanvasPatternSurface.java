@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * {@link PatternSurface} that draws on an Android {@link Canvas}. This is what
+ * {@link PatternLockView} uses in {@link PatternLockView#onDraw(Canvas)}.
+ */
+class CanvasPatternSurface implements PatternSurface {
+    /**
+     * @param dotPaint  The paint used for the dots. Only its color is changed while drawing.
+     * @param pathPaint The paint used for the path. Only its color and stroke width are changed
+     *                  while drawing.
+     */
+    CanvasPatternSurface(Paint dotPaint, Paint pathPaint) {
+        mDotPaint = dotPaint;
+        mPathPaint = pathPaint;
+    }
+
+    @Override
+    public void drawSprite(PatternSprite sprite, float centerX, float centerY, int color) {
+        final Bitmap bitmap = getBitmap(sprite);
+        mDotPaint.setColor(color);
+        float nBitmapCenterX = centerX - (bitmap.getScaledWidth(mCanvas) / 2f);
+        float nBitmapCenterY = centerY - (bitmap.getScaledHeight(mCanvas) / 2f);
+        mCanvas.drawBitmap(bitmap, nBitmapCenterX, nBitmapCenterY, mDotPaint);
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, int color) {
+        mDotPaint.setColor(color);
+        if (mDotSprite != null) {
+            mSpriteBounds.set(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+            mCanvas.drawBitmap(mDotSprite, null, mSpriteBounds, mDotPaint);
+        } else {
+            mCanvas.drawCircle(centerX, centerY, radius, mDotPaint);
+        }
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float endX, float endY, float width, int color) {
+        final Path path = mPath;
+        path.rewind();
+        path.moveTo(startX, startY);
+        path.lineTo(endX, endY);
+        mPathPaint.setColor(color);
+        mPathPaint.setStrokeWidth(width);
+        mCanvas.drawPath(path, mPathPaint);
+    }
+
+    @Override
+    public float getSpriteRadius(PatternSprite sprite) {
+        final Bitmap bitmap = getBitmap(sprite);
+        return Math.max(bitmap.getScaledWidth(mCanvas), bitmap.getScaledHeight(mCanvas)) / 2f;
+    }
+
+    @Override
+    public boolean isOutside(float left, float top, float right, float bottom) {
+        final Rect clip = mClipBounds;
+        return !mHasClip || right < clip.left || left > clip.right || bottom < clip.top || top > clip.bottom;
+    }
+
+    /**
+     * Sets an alpha mask of a circle to be scaled and drawn in place of rasterizing each dot, or
+     * null to draw the dots as circles.
+     */
+    void setDotSprite(Bitmap dotSprite) {
+        mDotSprite = dotSprite;
+    }
+
+    /**
+     * Sets the canvas to draw on, and reads its clip bounds.
+     */
+    void setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+        mHasClip = canvas.getClipBounds(mClipBounds);
+    }
+
+    /**
+     * Sprites that do not wrap a bitmap are copied into one the first time they are drawn.
+     */
+    private Bitmap getBitmap(PatternSprite sprite) {
+        if (sprite instanceof BitmapSprite) {
+            return ((BitmapSprite) sprite).getBitmap();
+        }
+        Bitmap bitmap = mSpriteBitmaps.get(sprite);
+        if (bitmap == null) {
+            final int width = sprite.getWidth();
+            final int height = sprite.getHeight();
+            final int[] pixels = new int[width * height];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    pixels[y * width + x] = sprite.getPixel(x, y);
+                }
+            }
+            bitmap = Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+            mSpriteBitmaps.put(sprite, bitmap);
+        }
+        return bitmap;
+    }
+
+    private final Map<PatternSprite, Bitmap> mSpriteBitmaps = new WeakHashMap<PatternSprite, Bitmap>();
+    private final Paint mDotPaint;
+    private final Paint mPathPaint;
+    private final Path mPath = new Path();
+    private final Rect mClipBounds = new Rect();
+    private final RectF mSpriteBounds = new RectF();
+    private Bitmap mDotSprite;
+    private Canvas mCanvas;
+    private boolean mHasClip;
+}
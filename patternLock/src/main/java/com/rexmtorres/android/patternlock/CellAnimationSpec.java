@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import android.view.animation.Interpolator;
+
+/**
+ * An immutable description of an animation of the whole grid of a {@link PatternLockView}, such
+ * as the dots appearing or disappearing one row after another.
+ * <p>
+ * A spec animates any of the alpha, the vertical translation and the scale of the dots, each from
+ * one value to another or through a list of keyframes, and can stagger the start of each cell by its row, its column or its
+ * distance from a given cell. The start delay of every cell is worked out once when the spec is
+ * built, so a spec can be kept and played on any number of views with {@link PatternLockView#startCellAnimation(CellAnimationSpec, Runnable)}.
+ * <pre>
+ * CellAnimationSpec appear = new CellAnimationSpec.Builder()
+ *         .alpha(0f, 1f)
+ *         .translationY(50f, 0f)
+ *         .duration(300)
+ *         .stagger(CellAnimationSpec.STAGGER_ROW, 50)
+ *         .build();
+ * CellAnimationSpec pulse = new CellAnimationSpec.Builder()
+ *         .scaleKeyframes(new float[] {0f, 0.3f, 1f}, new float[] {1f, 1.4f, 1f})
+ *         .duration(400)
+ *         .build();
+ * </pre>
+ */
+public final class CellAnimationSpec {
+    /**
+     * All the cells start together.
+     */
+    public static final int STAGGER_NONE = 0;
+    /**
+     * Each row starts one step after the row above it.
+     */
+    public static final int STAGGER_ROW = 1;
+    /**
+     * Each column starts one step after the column to its left.
+     */
+    public static final int STAGGER_COLUMN = 2;
+    /**
+     * Each cell starts one step for each cell of distance from the origin cell; see
+     * {@link Builder#staggerOrigin(PatternLockView.Cell)}.
+     */
+    public static final int STAGGER_DISTANCE = 3;
+
+    /**
+     * Builds a {@link CellAnimationSpec}. Tracks that are not set are left alone by the spec.
+     */
+    public static final class Builder {
+        public Builder() {
+        }
+
+        /**
+         * Animate the alpha of the dots.
+         */
+        public Builder alpha(float from, float to) {
+            return alpha(from, to, null);
+        }
+
+        /**
+         * Animate the alpha of the dots with an interpolator of its own.
+         */
+        public Builder alpha(float from, float to, Interpolator interpolator) {
+            return setTrack(CellAnimator.TRACK_ALPHA, from, to, interpolator);
+        }
+
+        /**
+         * Animate the alpha of the dots through keyframes.
+         */
+        public Builder alphaKeyframes(float[] fractions, float[] values) {
+            return alphaKeyframes(fractions, values, null);
+        }
+
+        /**
+         * Animate the alpha of the dots through keyframes, with an interpolator of its own.
+         */
+        public Builder alphaKeyframes(float[] fractions, float[] values, Interpolator interpolator) {
+            return setKeyframeTrack(CellAnimator.TRACK_ALPHA, fractions, values, interpolator);
+        }
+
+        public CellAnimationSpec build() {
+            return new CellAnimationSpec(this);
+        }
+
+        /**
+         * @param duration How long each cell animates, in milliseconds. Defaults to 300.
+         */
+        public Builder duration(long duration) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("duration must not be negative");
+            }
+            mDuration = duration;
+            return this;
+        }
+
+        /**
+         * @param interpolator The interpolator of the tracks that have none of their own, or
+         *                     null for linear.
+         */
+        public Builder interpolator(Interpolator interpolator) {
+            mInterpolator = interpolator;
+            return this;
+        }
+
+        /**
+         * Animate the size of the dots, as a fraction of their normal size.
+         */
+        public Builder scale(float from, float to) {
+            return scale(from, to, null);
+        }
+
+        /**
+         * Animate the size of the dots with an interpolator of its own.
+         */
+        public Builder scale(float from, float to, Interpolator interpolator) {
+            return setTrack(CellAnimator.TRACK_RADIUS, from, to, interpolator);
+        }
+
+        /**
+         * Animate the size of the dots through keyframes.
+         */
+        public Builder scaleKeyframes(float[] fractions, float[] values) {
+            return scaleKeyframes(fractions, values, null);
+        }
+
+        /**
+         * Animate the size of the dots through keyframes, with an interpolator of its own.
+         */
+        public Builder scaleKeyframes(float[] fractions, float[] values, Interpolator interpolator) {
+            return setKeyframeTrack(CellAnimator.TRACK_RADIUS, fractions, values, interpolator);
+        }
+
+        /**
+         * @param stagger One of {@link #STAGGER_NONE}, {@link #STAGGER_ROW},
+         *                {@link #STAGGER_COLUMN} and {@link #STAGGER_DISTANCE}.
+         * @param step    The delay between one step and the next, in milliseconds.
+         */
+        public Builder stagger(int stagger, long step) {
+            if (stagger < STAGGER_NONE || stagger > STAGGER_DISTANCE) {
+                throw new IllegalArgumentException("unknown stagger: " + stagger);
+            }
+            if (step < 0) {
+                throw new IllegalArgumentException("stagger step must not be negative");
+            }
+            mStagger = stagger;
+            mStaggerStep = step;
+            return this;
+        }
+
+        /**
+         * Sets the cell {@link #STAGGER_DISTANCE} measures from. Defaults to the top left cell.
+         */
+        public Builder staggerOrigin(PatternLockView.Cell origin) {
+            mOriginRow = origin.getRow();
+            mOriginColumn = origin.getColumn();
+            return this;
+        }
+
+        /**
+         * @param startDelay How long to wait before the first cell starts, in milliseconds.
+         */
+        public Builder startDelay(long startDelay) {
+            if (startDelay < 0) {
+                throw new IllegalArgumentException("start delay must not be negative");
+            }
+            mStartDelay = startDelay;
+            return this;
+        }
+
+        /**
+         * Animate the vertical translation of the dots, in pixels.
+         */
+        public Builder translationY(float from, float to) {
+            return translationY(from, to, null);
+        }
+
+        /**
+         * Animate the vertical translation of the dots with an interpolator of its own.
+         */
+        public Builder translationY(float from, float to, Interpolator interpolator) {
+            return setTrack(CellAnimator.TRACK_TRANSLATION_Y, from, to, interpolator);
+        }
+
+        /**
+         * Animate the vertical translation of the dots through keyframes.
+         */
+        public Builder translationYKeyframes(float[] fractions, float[] values) {
+            return translationYKeyframes(fractions, values, null);
+        }
+
+        /**
+         * Animate the vertical translation of the dots through keyframes, with an interpolator of
+         * its own.
+         */
+        public Builder translationYKeyframes(float[] fractions, float[] values, Interpolator interpolator) {
+            return setKeyframeTrack(CellAnimator.TRACK_TRANSLATION_Y, fractions, values, interpolator);
+        }
+
+        /**
+         * @param fractions Where each keyframe is, from 0 at the start of the track to 1 at its
+         *                  end. Starts at 0, ends at 1 and never goes down.
+         * @param values    The value of each keyframe, as many as there are fractions.
+         */
+        private Builder setKeyframeTrack(int track, float[] fractions, float[] values, Interpolator interpolator) {
+            if (fractions.length != values.length) {
+                throw new IllegalArgumentException("there must be as many keyframe values as fractions");
+            }
+            if (fractions.length < 2) {
+                throw new IllegalArgumentException("there must be at least two keyframes");
+            }
+            if (fractions[0] != 0f || fractions[fractions.length - 1] != 1f) {
+                throw new IllegalArgumentException("keyframe fractions must go from 0 to 1");
+            }
+            for (int i = 1; i < fractions.length; i++) {
+                if (fractions[i] < fractions[i - 1]) {
+                    throw new IllegalArgumentException("keyframe fractions must not go down");
+                }
+            }
+            setTrack(track, values[0], values[values.length - 1], interpolator);
+            mKeyFractions[track] = fractions.clone();
+            mKeyValues[track] = values.clone();
+            return this;
+        }
+
+        private Builder setTrack(int track, float from, float to, Interpolator interpolator) {
+            mHasTrack[track] = true;
+            mKeyFractions[track] = null;
+            mKeyValues[track] = null;
+            mFrom[track] = from;
+            mTo[track] = to;
+            mTrackInterpolator[track] = interpolator;
+            return this;
+        }
+
+        private final boolean[] mHasTrack = new boolean[CellAnimator.TRACK_COUNT];
+        private final float[] mFrom = new float[CellAnimator.TRACK_COUNT];
+        private final float[] mTo = new float[CellAnimator.TRACK_COUNT];
+        private final float[][] mKeyFractions = new float[CellAnimator.TRACK_COUNT][];
+        private final float[][] mKeyValues = new float[CellAnimator.TRACK_COUNT][];
+        private final Interpolator[] mTrackInterpolator = new Interpolator[CellAnimator.TRACK_COUNT];
+        private Interpolator mInterpolator;
+        private int mOriginColumn;
+        private int mOriginRow;
+        private int mStagger = STAGGER_NONE;
+        private long mDuration = 300;
+        private long mStaggerStep;
+        private long mStartDelay;
+    }
+
+    public long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * @return How long the whole grid takes, from the start of the first cell to the end of the
+     * last one, in milliseconds.
+     */
+    public long getTotalDuration() {
+        return mMaxStartDelay + mDuration;
+    }
+
+    float getFrom(int track) {
+        return mFrom[track];
+    }
+
+    Interpolator getInterpolator(int track) {
+        return mInterpolator[track];
+    }
+
+    /**
+     * @return Where the keyframes of the track are, or null if it goes straight from one value to
+     * another. Not to be changed.
+     */
+    float[] getKeyFractions(int track) {
+        return mKeyFractions[track];
+    }
+
+    /**
+     * @return The values of the keyframes of the track, or null if it goes straight from one
+     * value to another. Not to be changed.
+     */
+    float[] getKeyValues(int track) {
+        return mKeyValues[track];
+    }
+
+    /**
+     * @return The index of the cell that starts last.
+     */
+    int getLastCell() {
+        return mLastCell;
+    }
+
+    /**
+     * @param cell The index of the cell, <code>row * 3 + column</code>.
+     */
+    long getStartDelay(int cell) {
+        return mStartDelays[cell];
+    }
+
+    float getTo(int track) {
+        return mTo[track];
+    }
+
+    /**
+     * @return The tracks the spec animates, one bit for each: <code>1 &lt;&lt; track</code>.
+     */
+    int getTrackMask() {
+        int trackMask = 0;
+        for (int track = 0; track < CellAnimator.TRACK_COUNT; track++) {
+            if (mHasTrack[track]) {
+                trackMask |= 1 << track;
+            }
+        }
+        return trackMask;
+    }
+
+    boolean hasTrack(int track) {
+        return mHasTrack[track];
+    }
+
+    private CellAnimationSpec(Builder builder) {
+        mHasTrack = builder.mHasTrack.clone();
+        mFrom = builder.mFrom.clone();
+        mTo = builder.mTo.clone();
+        // The builder copies the keyframes it is given and never changes them afterwards
+        mKeyFractions = builder.mKeyFractions.clone();
+        mKeyValues = builder.mKeyValues.clone();
+        mInterpolator = new Interpolator[CellAnimator.TRACK_COUNT];
+        for (int track = 0; track < CellAnimator.TRACK_COUNT; track++) {
+            mInterpolator[track] = builder.mTrackInterpolator[track] != null ? builder.mTrackInterpolator[track] : builder.mInterpolator;
+        }
+        mDuration = builder.mDuration;
+
+        mStartDelays = new long[9];
+        long maxStartDelay = 0;
+        int lastCell = 0;
+        for (int cell = 0; cell < 9; cell++) {
+            final int row = cell / 3;
+            final int column = cell % 3;
+            final float steps;
+            switch (builder.mStagger) {
+                case STAGGER_ROW:
+                    steps = row;
+                    break;
+                case STAGGER_COLUMN:
+                    steps = column;
+                    break;
+                case STAGGER_DISTANCE:
+                    final int dRow = row - builder.mOriginRow;
+                    final int dColumn = column - builder.mOriginColumn;
+                    steps = (float) Math.sqrt(dRow * dRow + dColumn * dColumn);
+                    break;
+                default:
+                    steps = 0;
+            }
+            final long startDelay = builder.mStartDelay + Math.round(steps * builder.mStaggerStep);
+            mStartDelays[cell] = startDelay;
+            if (startDelay >= maxStartDelay) {
+                maxStartDelay = startDelay;
+                lastCell = cell;
+            }
+        }
+        mMaxStartDelay = maxStartDelay;
+        mLastCell = lastCell;
+    }
+
+    private final boolean[] mHasTrack;
+    private final float[] mFrom;
+    private final float[] mTo;
+    private final float[][] mKeyFractions;
+    private final float[][] mKeyValues;
+    private final Interpolator[] mInterpolator;
+    private final int mLastCell;
+    private final long mDuration;
+    private final long mMaxStartDelay;
+    private final long[] mStartDelays;
+}
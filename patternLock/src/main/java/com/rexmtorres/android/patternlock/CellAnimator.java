@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import android.view.animation.Interpolator;
+
+/**
+ * Animates the cells of {@link PatternLockView} from a single frame callback.
+ * <p>
+ * Every cell has a slot for each track. The state of all the slots is kept in parallel primitive
+ * arrays indexed by <code>cell * TRACK_COUNT + track</code>, so a frame is one pass over the
+ * arrays no matter how many cells are animating. The view copies the values of the slots that
+ * were updated into its {@link PatternLockView.CellState}s and invalidates once.
+ * <p>
+ * A slot animates one segment at a time, either from one value to another or through a list of
+ * keyframes. One more segment can be queued to follow it, starting from where the current one
+ * ends. Use a {@link Completion} to find out when the segments some
+ * animation started are over.
+ */
+final class CellAnimator {
+    static final int TRACK_RADIUS = 0;
+    static final int TRACK_ALPHA = 1;
+    static final int TRACK_TRANSLATION_Y = 2;
+    /**
+     * How far the line from the previous cell has gone, from 0 to 1.
+     */
+    static final int TRACK_LINE_END = 3;
+    static final int TRACK_COUNT = 4;
+
+    /**
+     * Waits for the segments an animation started on some tracks of a cell to be over, whether
+     * they ran to their end or were replaced or canceled by another animation of the same tracks.
+     * <p>
+     * A completion can be reused, so watching animations does not allocate.
+     */
+    static final class Completion {
+        /**
+         * If the watched segments are over, stop watching them.
+         *
+         * @return The runnable to run now that they are over, or null if they are not over (or
+         * nothing is watched).
+         */
+        Runnable poll(CellAnimator animator) {
+            if (mRunnable == null) {
+                return null;
+            }
+            for (int track = 0; track < TRACK_COUNT; track++) {
+                if ((mTrackMask & (1 << track)) != 0 && animator.isRunning(mCell, track, mGenerations[track])) {
+                    return null;
+                }
+            }
+            return take();
+        }
+
+        /**
+         * Stop watching.
+         *
+         * @return The runnable that was waiting, or null.
+         */
+        Runnable take() {
+            final Runnable runnable = mRunnable;
+            mRunnable = null;
+            return runnable;
+        }
+
+        /**
+         * Watch the segments the tracks of the cell are running now, in place of whatever was
+         * watched before.
+         *
+         * @param trackMask The tracks, one bit for each: <code>1 &lt;&lt; track</code>.
+         * @param runnable  Run once the segments are over.
+         *
+         * @return The runnable that was waiting before, or null. Whatever it waited for is no
+         * longer watched, so the caller should run it.
+         */
+        Runnable watch(CellAnimator animator, int cell, int trackMask, Runnable runnable) {
+            final Runnable replaced = take();
+            if (runnable != null) {
+                mRunnable = runnable;
+                mCell = cell;
+                mTrackMask = trackMask;
+                for (int track = 0; track < TRACK_COUNT; track++) {
+                    mGenerations[track] = animator.mGeneration[cell * TRACK_COUNT + track];
+                }
+            }
+            return replaced;
+        }
+
+        private final int[] mGenerations = new int[TRACK_COUNT];
+        private Runnable mRunnable;
+        private int mCell;
+        private int mTrackMask;
+    }
+
+    /**
+     * @param cellCount The number of cells to animate.
+     */
+    CellAnimator(int cellCount) {
+        final int slotCount = cellCount * TRACK_COUNT;
+        mFrom = new float[slotCount];
+        mTo = new float[slotCount];
+        mValue = new float[slotCount];
+        mNextTo = new float[slotCount];
+        mStartTime = new long[slotCount];
+        mDuration = new long[slotCount];
+        mNextDuration = new long[slotCount];
+        mInterpolator = new Interpolator[slotCount];
+        mKeyFractions = new float[slotCount][];
+        mKeyValues = new float[slotCount][];
+        mKeyScale = new float[slotCount];
+        mNextInterpolator = new Interpolator[slotCount];
+        mRunning = new boolean[slotCount];
+        mHasNext = new boolean[slotCount];
+        mUpdated = new boolean[slotCount];
+        mGeneration = new int[slotCount];
+    }
+
+    /**
+     * Move every running slot to the given time.
+     *
+     * @param now The current animation time, in milliseconds.
+     *
+     * @return Whether any slot is still running.
+     */
+    boolean advance(long now) {
+        final boolean[] running = mRunning;
+        final boolean[] updated = mUpdated;
+        boolean stillRunning = false;
+        for (int slot = 0; slot < running.length; slot++) {
+            updated[slot] = false;
+            if (!running[slot]) {
+                continue;
+            }
+            final long elapsed = now - mStartTime[slot];
+            if (elapsed < 0) {
+                // Still in its start delay
+                stillRunning = true;
+                continue;
+            }
+            final long duration = mDuration[slot];
+            final float fraction = elapsed < duration ? (float) elapsed / duration : 1f;
+            final Interpolator interpolator = mInterpolator[slot];
+            final float t = interpolator != null ? interpolator.getInterpolation(fraction) : fraction;
+            final float[] keyValues = mKeyValues[slot];
+            mValue[slot] = keyValues != null ? mKeyScale[slot] * getKeyframeValue(mKeyFractions[slot], keyValues, t) : mFrom[slot] + t * (mTo[slot] - mFrom[slot]);
+            updated[slot] = true;
+            if (fraction < 1f) {
+                stillRunning = true;
+            } else if (mHasNext[slot]) {
+                mHasNext[slot] = false;
+                mFrom[slot] = mTo[slot];
+                mTo[slot] = mNextTo[slot];
+                // Start exactly where the previous segment ended, not at this frame
+                mStartTime[slot] += duration;
+                mDuration[slot] = mNextDuration[slot];
+                mInterpolator[slot] = mNextInterpolator[slot];
+                mKeyFractions[slot] = null;
+                mKeyValues[slot] = null;
+                stillRunning = true;
+            } else {
+                running[slot] = false;
+            }
+        }
+        return stillRunning;
+    }
+
+    /**
+     * Stop the track of the cell where it is, dropping any queued segment.
+     */
+    void cancel(int cell, int track) {
+        final int slot = cell * TRACK_COUNT + track;
+        mRunning[slot] = false;
+        mHasNext[slot] = false;
+        mGeneration[slot]++;
+    }
+
+    /**
+     * @return The value of the track of the cell as of the last {@link #advance(long)}.
+     */
+    float getValue(int cell, int track) {
+        return mValue[cell * TRACK_COUNT + track];
+    }
+
+    /**
+     * @param t Where the segment is, after its interpolator. Interpolators that overshoot go on
+     *          past the first and last keyframes along the intervals they end.
+     */
+    private static float getKeyframeValue(float[] fractions, float[] values, float t) {
+        int next = 1;
+        while (next < fractions.length - 1 && t >= fractions[next]) {
+            next++;
+        }
+        final float prevFraction = fractions[next - 1];
+        final float interval = fractions[next] - prevFraction;
+        if (interval <= 0) {
+            return values[next];
+        }
+        final float prevValue = values[next - 1];
+        return prevValue + (t - prevFraction) / interval * (values[next] - prevValue);
+    }
+
+    /**
+     * @return Whether the track of the cell has a segment queued after the current one.
+     */
+    boolean hasQueued(int cell, int track) {
+        return mHasNext[cell * TRACK_COUNT + track];
+    }
+
+    boolean isRunning(int cell, int track) {
+        return mRunning[cell * TRACK_COUNT + track];
+    }
+
+    /**
+     * @param generation What {@link Completion} recorded when it started watching the track.
+     *
+     * @return Whether the track of the cell is still running the segments it was running then.
+     */
+    private boolean isRunning(int cell, int track, int generation) {
+        final int slot = cell * TRACK_COUNT + track;
+        return mRunning[slot] && mGeneration[slot] == generation;
+    }
+
+    /**
+     * @return Whether the last {@link #advance(long)} changed the value of the track of the cell.
+     */
+    boolean isUpdated(int cell, int track) {
+        return mUpdated[cell * TRACK_COUNT + track];
+    }
+
+    /**
+     * Queue a segment to run after the current one, from its end value to the given one. Replaces
+     * any segment queued before.
+     *
+     * @param interpolator The interpolator, or null for linear.
+     */
+    void queue(int cell, int track, float to, long duration, Interpolator interpolator) {
+        final int slot = cell * TRACK_COUNT + track;
+        mNextTo[slot] = to;
+        mNextDuration[slot] = duration;
+        mNextInterpolator[slot] = interpolator;
+        mHasNext[slot] = true;
+    }
+
+    /**
+     * Start the track of the cell over, dropping any queued segment.
+     *
+     * @param startTime    When to start, in the same time base as {@link #advance(long)}. Add
+     *                     the start delay to the current time.
+     * @param interpolator The interpolator, or null for linear.
+     */
+    void start(int cell, int track, float from, float to, long startTime, long duration, Interpolator interpolator) {
+        final int slot = cell * TRACK_COUNT + track;
+        mKeyFractions[slot] = null;
+        mKeyValues[slot] = null;
+        mFrom[slot] = from;
+        mTo[slot] = to;
+        mValue[slot] = from;
+        mStartTime[slot] = startTime;
+        mDuration[slot] = duration;
+        mInterpolator[slot] = interpolator;
+        mRunning[slot] = true;
+        mHasNext[slot] = false;
+        mUpdated[slot] = false;
+        mGeneration[slot]++;
+    }
+
+    /**
+     * Start the track of the cell over through the given keyframes, dropping any queued segment.
+     * The arrays are kept, not copied, so they must not change while the segment runs.
+     *
+     * @param fractions    Where each keyframe is in the segment, from 0 to 1 and in order.
+     * @param values       The value of each keyframe, before scaling.
+     * @param scale        What to multiply the values with.
+     * @param startTime    When to start, as for {@link #start(int, int, float, float, long, long, Interpolator)}.
+     * @param interpolator The interpolator of the whole segment, or null for linear.
+     */
+    void start(int cell, int track, float[] fractions, float[] values, float scale, long startTime, long duration, Interpolator interpolator) {
+        start(cell, track, scale * values[0], scale * values[values.length - 1], startTime, duration, interpolator);
+        final int slot = cell * TRACK_COUNT + track;
+        mKeyFractions[slot] = fractions;
+        mKeyValues[slot] = values;
+        mKeyScale[slot] = scale;
+    }
+
+    private final boolean[] mHasNext;
+    private final boolean[] mRunning;
+    private final boolean[] mUpdated;
+    private final float[] mFrom;
+    private final float[] mKeyScale;
+    private final float[] mNextTo;
+    private final float[] mTo;
+    private final float[] mValue;
+    /**
+     * Counts the segments started on, or canceled for, each slot; see {@link Completion}.
+     */
+    private final int[] mGeneration;
+    private final float[][] mKeyFractions;
+    private final float[][] mKeyValues;
+    private final Interpolator[] mInterpolator;
+    private final Interpolator[] mNextInterpolator;
+    private final long[] mDuration;
+    private final long[] mNextDuration;
+    private final long[] mStartTime;
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import com.rexmtorres.android.patternlock.PatternLockView.Cell;
+import com.rexmtorres.android.patternlock.PatternLockView.CellState;
+import com.rexmtorres.android.patternlock.PatternLockView.DisplayMode;
+
+import java.util.List;
+
+/**
+ * The stock look of {@link PatternLockView}: a dot (or the dot bitmap, if set) for each cell and
+ * straight lines between the cells of the pattern.
+ * <p>
+ * Anything lying outside the area being drawn is skipped, so partial invalidations cost
+ * proportionally less.
+ */
+public class DefaultPatternRenderer implements PatternRenderer {
+    @Override
+    public void render(PatternRenderState state, PatternSurface surface) {
+        // draw the circles
+        for (int i = 0; i < 3; i++) {
+            float centerY = state.getCenterY(i);
+            for (int j = 0; j < 3; j++) {
+                CellState cellState = state.getCellState(i, j);
+                float centerX = state.getCenterX(j);
+                drawDot(state, surface, cellState, (int) centerX, (int) centerY + cellState.getTranslationY(), state.isDrawn(i, j));
+            }
+        }
+
+        // draw the path of the pattern (unless we are in stealth mode)
+        if (!state.isInStealthMode()) {
+            drawPath(state, surface);
+        }
+    }
+
+    // [rexmtorres 20160401]
+    // Original name: drawCircle
+    // Added support for drawing a Bitmap, if set, instead of a circle for the pattern dots.
+
+    /**
+     * @param partOfPattern Whether this circle is part of the pattern.
+     */
+    protected void drawDot(PatternRenderState state, PatternSurface surface, CellState cellState, float centerX, float centerY, boolean partOfPattern) {
+        final PatternSprite oDotSprite = cellState.getDotSprite();
+        final float radius = cellState.getRadius();
+        // Account for the anti-aliased edge
+        final float reach = (oDotSprite != null ? surface.getSpriteRadius(oDotSprite) : radius) + 1f;
+        if (surface.isOutside(centerX - reach, centerY - reach, centerX + reach, centerY + reach)) {
+            return;
+        }
+
+        final int color = withAlpha(state.getCurrentColor(partOfPattern), cellState.getAlpha());
+
+        // If the bitmap is set, draw it.  If not, draw a circle.
+        if (oDotSprite != null) {
+            surface.drawSprite(oDotSprite, centerX, centerY, color);
+        } else {
+            surface.drawCircle(centerX, centerY, radius, color);
+        }
+    }
+
+    protected void drawPath(PatternRenderState state, PatternSurface surface) {
+        final List<Cell> pattern = state.getPattern();
+        final int count = pattern.size();
+        final int color = state.getCurrentColor(true /* partOfPattern */);
+        final float pathWidth = state.getPathWidth();
+        boolean anyCircles = false;
+        float lastX = 0f;
+        float lastY = 0f;
+        for (int i = 0; i < count; i++) {
+            Cell cell = pattern.get(i);
+            // only draw the part of the pattern stored in
+            // the lookup table (this is only different in the case
+            // of animation).
+            if (!state.isDrawn(cell.row, cell.column)) {
+                break;
+            }
+            anyCircles = true;
+            float centerX = state.getCenterX(cell.column);
+            float centerY = state.getCenterY(cell.row);
+            if (i != 0) {
+                CellState cellState = state.getCellState(cell.row, cell.column);
+                if (cellState.lineEndX != Float.MIN_VALUE && cellState.lineEndY != Float.MIN_VALUE) {
+                    drawSegment(surface, lastX, lastY, cellState.lineEndX, cellState.lineEndY, pathWidth, color);
+                } else {
+                    drawSegment(surface, lastX, lastY, centerX, centerY, pathWidth, color);
+                }
+            }
+            lastX = centerX;
+            lastY = centerY;
+        }
+        // draw last in progress section
+        if ((state.isPatternInProgress() || state.getDisplayMode() == DisplayMode.Animate) && anyCircles) {
+            drawSegment(surface, lastX, lastY, state.getInProgressX(), state.getInProgressY(), pathWidth, withAlpha(color, state.getLastSegmentAlpha(lastX, lastY)));
+        }
+    }
+
+    /**
+     * @return The color, with its alpha channel replaced by the given opacity (0 to 1).
+     */
+    protected static int withAlpha(int color, float alpha) {
+        return (color & 0x00FFFFFF) | ((int) (alpha * 255) << 24);
+    }
+
+    private void drawSegment(PatternSurface surface, float startX, float startY, float endX, float endY, float width, int color) {
+        // Round caps extend past the end points by half the width; be generous.
+        if (surface.isOutside(Math.min(startX, endX) - width, Math.min(startY, endY) - width, Math.max(startX, endX) + width, Math.max(startY, endY) + width)) {
+            return;
+        }
+        surface.drawLine(startX, startY, endX, endY, width, color);
+    }
+}
@@ -44,6 +44,28 @@ public class PatternLockUtils {
         return new String(res);
     }
 
+    /**
+     * Pack a pattern into a single long, four bits per cell in pattern order. Two patterns pack
+     * to the same value only if they are equal, so this is a cheap key for caches.
+     *
+     * @param pattern The pattern.
+     *
+     * @return The packed pattern, or 0 for an empty or null pattern.
+     */
+    public static long packPattern(List<PatternLockView.Cell> pattern) {
+        if (pattern == null) {
+            return 0;
+        }
+        long packed = 0;
+        final int patternSize = pattern.size();
+        for (int i = 0; i < patternSize; i++) {
+            PatternLockView.Cell cell = pattern.get(i);
+            // + 1 so that no cell packs to 0
+            packed = (packed << 4) | (cell.getRow() * 3 + cell.getColumn() + 1);
+        }
+        return packed;
+    }
+
     /**
      * Generate an SHA-1 hash for the pattern. Not the most secure, but it is
      * at least a second level of protection. First level is that the file
@@ -29,7 +29,6 @@ import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
@@ -39,6 +38,7 @@ import android.os.Bundle;
 import android.os.Debug;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.PowerManager;
 import android.os.SystemClock;
 import android.provider.Settings;
 import android.support.v4.view.ViewCompat;
@@ -144,12 +144,42 @@ public class PatternLockView extends View {
     }
 
     public static class CellState {
-        public ValueAnimatorCompat lineAnimator;
+        public float getAlpha() {
+            return alpha;
+        }
+
+        /**
+         * @return The sprite drawn in place of the dot, or null if a circle is drawn instead.
+         */
+        public PatternSprite getDotSprite() {
+            return dotSprite;
+        }
+
+        public int getColumn() {
+            return col;
+        }
+
+        public float getRadius() {
+            return radius;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public float getTranslationY() {
+            return translationY;
+        }
+
         public float lineEndX = Float.MIN_VALUE;
         public float lineEndY = Float.MIN_VALUE;
         // [rexmtorres] If set, replaces the pattern dots with the specified bitmap.
-        Bitmap bitmapDot;
+        PatternSprite dotSprite;
         float alpha = 1f;
+        float lineStartX;
+        float lineStartY;
+        float lineTargetX;
+        float lineTargetY;
         float radius;
         float translationY;
         int col;
@@ -229,8 +259,9 @@ public class PatternLockView extends View {
 
         if (oDotDrawable != null) {
             if (oDotDrawable instanceof BitmapDrawable) {
-                m_oDotBitmap = ((BitmapDrawable) oDotDrawable).getBitmap();
-                m_oBigDotBitmap = Bitmap.createScaledBitmap(m_oDotBitmap, (int) (m_oDotBitmap.getWidth() * 1.25), (int) (m_oDotBitmap.getHeight() * 1.25), false);
+                Bitmap oDotBitmap = ((BitmapDrawable) oDotDrawable).getBitmap();
+                m_oDotSprite = new BitmapSprite(oDotBitmap);
+                m_oBigDotSprite = new BitmapSprite(Bitmap.createScaledBitmap(oDotBitmap, (int) (oDotBitmap.getWidth() * 1.25), (int) (oDotBitmap.getHeight() * 1.25), false));
             }
         }
         // [END rexmtorres 20160401]
@@ -254,9 +285,11 @@ public class PatternLockView extends View {
                 mCellStates[i][j].radius = mDotSize / 2;
                 mCellStates[i][j].row = i;
                 mCellStates[i][j].col = j;
-                mCellStates[i][j].bitmapDot = m_oDotBitmap;
+                mCellStates[i][j].dotSprite = m_oDotSprite;
+                mCellCompletions[i * 3 + j] = new CellAnimator.Completion();
             }
         }
+        mRenderState = new PatternRenderState(mCellStates, mPattern, mPatternDrawLookup, mCellCenterX, mCellCenterY);
 
         mFastOutSlowInInterpolator = new FastOutSlowInInterpolator();
         mLinearOutSlowInInterpolator = new LinearOutSlowInInterpolator();
@@ -264,6 +297,7 @@ public class PatternLockView extends View {
         ViewCompat.setAccessibilityDelegate(this, mExploreByTouchHelper);
         mAccessibilityManager = (AccessibilityManager) mContext.getSystemService(Context.ACCESSIBILITY_SERVICE);
         mAudioManager = (AudioManager) mContext.getSystemService(Context.AUDIO_SERVICE);
+        updateSystemReducedMotion();
     }
 
     public PatternLockView(Context context) {
@@ -325,6 +359,14 @@ public class PatternLockView extends View {
         return false;
     }
 
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        // Losing focus alone does not hide the view (dialogs, multi-window), but regaining it
+        // is when coming back to it, so check again.
+        updateAnimationSuspended();
+    }
+
     /**
      * Clear the pattern.
      */
@@ -351,6 +393,50 @@ public class PatternLockView extends View {
         return mCellStates;
     }
 
+    /**
+     * Animations are suspended while the view is detached or hidden, with their clock frozen so
+     * they pick up where they left off. No frames are scheduled while suspended, so none are
+     * counted; this is an estimate of how many would have been drawn in the meantime had the view
+     * kept animating, worked out from how long it was suspended at one frame per frame budget (see
+     * {@link #setFrameBudget(long)}).
+     *
+     * @return The estimated number of animation frames skipped while hidden.
+     */
+    public long getEstimatedSkippedFrameCount() {
+        return mEstimatedSkippedFrameCount;
+    }
+
+    /**
+     * @return The renderer used to draw the pattern.
+     */
+    public PatternRenderer getPatternRenderer() {
+        return mPatternRenderer;
+    }
+
+    /**
+     * @return The current rendering quality tier, one of the <code>TIER_</code> constants in
+     * {@link RenderQuality}.
+     */
+    public int getRenderQualityTier() {
+        return mRenderQuality.getTier();
+    }
+
+    /**
+     * @return Whether the rendering quality adapts to the measured frame times.
+     */
+    public boolean isAdaptiveRenderQualityEnabled() {
+        return mAdaptiveRenderQuality;
+    }
+
+    /**
+     * @return Whether cell state changes are applied immediately instead of being animated.
+     *
+     * @see #setReducedMotion(boolean)
+     */
+    public boolean isReducedMotion() {
+        return mReducedMotionOverride != null ? mReducedMotionOverride : mSystemReducedMotion;
+    }
+
     /**
      * @return Whether the view is in stealth mode.
      */
@@ -365,6 +451,68 @@ public class PatternLockView extends View {
         return mEnableHapticFeedback;
     }
 
+    /**
+     * Set whether the rendering quality adapts to the measured frame times. If enabled (the
+     * default), the view steps down through the {@link RenderQuality} tiers while frames take
+     * longer than the frame budget, and back up when there is headroom. Disabling this restores
+     * full quality.
+     *
+     * @param enabled Whether to adapt the rendering quality.
+     */
+    public void setAdaptiveRenderQualityEnabled(boolean enabled) {
+        mAdaptiveRenderQuality = enabled;
+        if (!enabled) {
+            mRenderQuality.reset();
+            applyRenderQuality();
+        }
+    }
+
+    /**
+     * Set the time a frame is allowed to take before the rendering quality is lowered. The
+     * default is 16 milliseconds (60 frames per second).
+     *
+     * @param frameBudgetMillis The frame budget, in milliseconds.
+     */
+    public void setFrameBudget(long frameBudgetMillis) {
+        if (frameBudgetMillis <= 0) {
+            throw new IllegalArgumentException("frame budget must be positive");
+        }
+        mRenderQuality.setFrameBudgetNanos(frameBudgetMillis * 1000000L);
+    }
+
+    /**
+     * Set whether cell state changes are applied immediately instead of being animated. No
+     * animators are created at all while this is on.
+     * <p>
+     * By default, this follows the system: it is on when animations are turned off (animator
+     * duration scale of 0) or when the device is in power saving mode. Calling this overrides
+     * the system until {@link #resetReducedMotion()} is called.
+     *
+     * @param reducedMotion Whether to skip animations.
+     */
+    public void setReducedMotion(boolean reducedMotion) {
+        mReducedMotionOverride = reducedMotion;
+    }
+
+    /**
+     * Go back to following the system for whether to skip animations.
+     * @see #setReducedMotion(boolean)
+     */
+    public void resetReducedMotion() {
+        mReducedMotionOverride = null;
+        updateSystemReducedMotion();
+    }
+
+    /**
+     * Set the renderer used to draw the dots and the path of the pattern.
+     *
+     * @param renderer The renderer, or null to use a {@link DefaultPatternRenderer}.
+     */
+    public void setPatternRenderer(PatternRenderer renderer) {
+        mPatternRenderer = renderer != null ? renderer : new DefaultPatternRenderer();
+        invalidate();
+    }
+
     /**
      * Set the display mode of the current pattern.  This can be useful, for
      * instance, after detecting a pattern to tell this view whether change the
@@ -378,7 +526,7 @@ public class PatternLockView extends View {
             if (mPattern.size() == 0) {
                 throw new IllegalStateException("you must have a pattern to " + "animate if you want to set the display mode to animate");
             }
-            mAnimatingPeriodStart = SystemClock.elapsedRealtime();
+            mAnimatingPeriodStart = getAnimationTime();
             final Cell first = mPattern.get(0);
             mInProgressX = getCenterXForColumn(first.getColumn());
             mInProgressY = getCenterYForRow(first.getRow());
@@ -433,7 +581,81 @@ public class PatternLockView extends View {
         mEnableHapticFeedback = tactileFeedbackEnabled;
     }
 
+    /**
+     * Play an animation on every cell of the grid.
+     * <p>
+     * Tracks the spec animates start over from their start values, replacing whatever was
+     * animating them before. When motion is reduced (see {@link #isReducedMotion()}) the end
+     * values are applied right away instead.
+     *
+     * @param spec           The animation.
+     * @param finishRunnable Run once the time the spec takes (see
+     *                       {@link CellAnimationSpec#getTotalDuration()}) is over, whatever other
+     *                       animations did to the cells in the meantime, or null. Run right away
+     *                       instead when another spec is started before then.
+     */
+    public void startCellAnimation(CellAnimationSpec spec, Runnable finishRunnable) {
+        final boolean reducedMotion = isReducedMotion();
+        final long now = getAnimationTime();
+        for (int index = 0; index < 9; index++) {
+            final CellState state = mCellStates[index / 3][index % 3];
+            for (int track = 0; track < CellAnimator.TRACK_COUNT; track++) {
+                if (!spec.hasTrack(track)) {
+                    continue;
+                }
+                final float scale = track == CellAnimator.TRACK_RADIUS ? mDotSize / 2 : 1f;
+                final float from = scale * spec.getFrom(track);
+                final float to = scale * spec.getTo(track);
+                final float[] keyValues = spec.getKeyValues(track);
+                if (reducedMotion) {
+                    mCellAnimator.cancel(index, track);
+                    setCellTrackValue(state, track, to);
+                } else if (keyValues != null) {
+                    setCellTrackValue(state, track, from);
+                    mCellAnimator.start(index, track, spec.getKeyFractions(track), keyValues, scale, now + spec.getStartDelay(index), spec.getDuration(), spec.getInterpolator(track));
+                } else {
+                    setCellTrackValue(state, track, from);
+                    mCellAnimator.start(index, track, from, to, now + spec.getStartDelay(index), spec.getDuration(), spec.getInterpolator(track));
+                }
+            }
+        }
+        final int trackMask = spec.getTrackMask();
+        if (reducedMotion || trackMask == 0) {
+            invalidate();
+            // Also runs the runnables of the animations the spec canceled
+            runFinishedCellRunnables();
+            final Runnable replacedRunnable = mCellAnimationRunnable;
+            mCellAnimationRunnable = null;
+            if (replacedRunnable != null) {
+                replacedRunnable.run();
+            }
+            if (finishRunnable != null) {
+                finishRunnable.run();
+            }
+            return;
+        }
+        // Timed rather than watched: the pattern being entered starts and cancels animations on
+        // the same cells and tracks, and must not finish the spec early
+        final Runnable replacedRunnable = mCellAnimationRunnable;
+        mCellAnimationRunnable = finishRunnable;
+        mCellAnimationEndTime = now + spec.getTotalDuration();
+        if (replacedRunnable != null) {
+            replacedRunnable.run();
+        }
+        scheduleAnimationFrame();
+    }
+
     public void startCellStateAnimation(CellState cellState, float startAlpha, float endAlpha, float startTranslationY, float endTranslationY, float startScale, float endScale, long delay, long duration, Interpolator interpolator, Runnable finishRunnable) {
+        if (isReducedMotion()) {
+            cellState.alpha = endAlpha;
+            cellState.translationY = endTranslationY;
+            cellState.radius = mDotSize / 2 * endScale;
+            invalidate();
+            if (finishRunnable != null) {
+                finishRunnable.run();
+            }
+            return;
+        }
         startCellStateAnimationSw(cellState, startAlpha, endAlpha, startTranslationY, endTranslationY, startScale, endScale, delay, duration, interpolator, finishRunnable);
     }
 
@@ -446,6 +668,22 @@ public class PatternLockView extends View {
         return handled;
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // The settings may have changed while detached
+        updateSystemReducedMotion();
+        mAttached = true;
+        updateAnimationSuspended();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        mAttached = false;
+        updateAnimationSuspended();
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         final ArrayList<Cell> pattern = mPattern;
@@ -455,7 +693,7 @@ public class PatternLockView extends View {
             // figure out which circles to draw
             // + 1 so we pause on complete pattern
             final int oneCycle = (count + 1) * MILLIS_PER_CIRCLE_ANIMATING;
-            final int spotInCycle = (int) (SystemClock.elapsedRealtime() - mAnimatingPeriodStart) % oneCycle;
+            final int spotInCycle = (int) ((getAnimationTime() - mAnimatingPeriodStart) % oneCycle);
             final int numCircles = spotInCycle / MILLIS_PER_CIRCLE_ANIMATING;
             clearPatternDrawLookup();
             for (int i = 0; i < numCircles; i++) {
@@ -478,62 +716,15 @@ public class PatternLockView extends View {
             // TODO: Infinite loop here...
             invalidate();
         }
-        final Path currentPath = mCurrentPath;
-        currentPath.rewind();
-        // draw the circles
-        for (int i = 0; i < 3; i++) {
-            float centerY = getCenterYForRow(i);
-            for (int j = 0; j < 3; j++) {
-                CellState cellState = mCellStates[i][j];
-                float centerX = getCenterXForColumn(j);
-                float translationY = cellState.translationY;
-                drawDot(canvas, (int) centerX, (int) centerY + translationY, cellState.radius, drawLookup[i][j], cellState.alpha, cellState.bitmapDot);
-            }
-        }
-
-        // TODO: the path should be created and cached every time we hit-detect a cell
-        // only the last segment of the path should be computed here
-        // draw the path of the pattern (unless we are in stealth mode)
-        final boolean drawPath = !mInStealthMode;
-        if (drawPath) {
-            mPathPaint.setColor(getCurrentColor(true /* partOfPattern */));
-            boolean anyCircles = false;
-            float lastX = 0f;
-            float lastY = 0f;
-            for (int i = 0; i < count; i++) {
-                Cell cell = pattern.get(i);
-                // only draw the part of the pattern stored in
-                // the lookup table (this is only different in the case
-                // of animation).
-                if (!drawLookup[cell.row][cell.column]) {
-                    break;
-                }
-                anyCircles = true;
-                float centerX = getCenterXForColumn(cell.column);
-                float centerY = getCenterYForRow(cell.row);
-                if (i != 0) {
-                    CellState state = mCellStates[cell.row][cell.column];
-                    currentPath.rewind();
-                    currentPath.moveTo(lastX, lastY);
-                    if (state.lineEndX != Float.MIN_VALUE && state.lineEndY != Float.MIN_VALUE) {
-                        currentPath.lineTo(state.lineEndX, state.lineEndY);
-                    } else {
-                        currentPath.lineTo(centerX, centerY);
-                    }
-                    canvas.drawPath(currentPath, mPathPaint);
-                }
-                lastX = centerX;
-                lastY = centerY;
-            }
-            // draw last in progress section
-            if ((mPatternInProgress || mPatternDisplayMode == DisplayMode.Animate) && anyCircles) {
-                currentPath.rewind();
-                currentPath.moveTo(lastX, lastY);
-                currentPath.lineTo(mInProgressX, mInProgressY);
-                mPathPaint.setAlpha((int) (calculateLastSegmentAlpha(mInProgressX, mInProgressY, lastX, lastY) * 255f));
-                canvas.drawPath(currentPath, mPathPaint);
-            }
+        final long frameStart = System.nanoTime();
+        syncRenderState();
+        mCanvasSurface.setCanvas(canvas);
+        mPatternRenderer.render(mRenderState, mCanvasSurface);
+        if (mAdaptiveRenderQuality && mRenderQuality.onFrame(frameStart, System.nanoTime() - frameStart, mNextFrameRequested)) {
+            applyRenderQuality();
         }
+        // Animations redraw every vsync, so a late frame after this one is jank
+        mNextFrameRequested = mAnimationFrameScheduled || mPatternDisplayMode == DisplayMode.Animate;
     }
 
     @Override
@@ -583,32 +774,128 @@ public class PatternLockView extends View {
         }
         final int height = h - getPaddingTop() - getPaddingBottom();
         mSquareHeight = height / 3.0f;
+        for (int i = 0; i < 3; i++) {
+            mCellCenterX[i] = getPaddingLeft() + i * mSquareWidth + mSquareWidth / 2f;
+            mCellCenterY[i] = getPaddingTop() + i * mSquareHeight + mSquareHeight / 2f;
+        }
         mExploreByTouchHelper.invalidateRoot();
     }
 
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAnimationSuspended();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateAnimationSuspended();
+    }
+
     private void addCellToPattern(Cell newCell) {
         mPatternDrawLookup[newCell.getRow()][newCell.getColumn()] = true;
         mPattern.add(newCell);
         if (!mInStealthMode) {
-            startCellActivatedAnimation(newCell);
+            if (isReducedMotion()) {
+                applyCellActivatedState(newCell);
+            } else {
+                startCellActivatedAnimation(newCell);
+            }
         }
         notifyCellAdded();
     }
 
-    private float calculateLastSegmentAlpha(float x, float y, float lastX, float lastY) {
-        float diffX = x - lastX;
-        float diffY = y - lastY;
-        float dist = (float) Math.sqrt(diffX * diffX + diffY * diffY);
-        float frac = dist / mSquareWidth;
-        return Math.min(1f, Math.max(0f, (frac - 0.3f) * 4f));
+    /**
+     * Advance the cell animations to the current time and copy the updated values into the cell
+     * states. Called once per frame for as long as any cell is animating.
+     */
+    private void advanceCellAnimations() {
+        final CellAnimator animator = mCellAnimator;
+        final boolean running = animator.advance(getAnimationTime());
+        final Rect dirty = mAnimationDirtyRect;
+        dirty.setEmpty();
+        for (int index = 0; index < 9; index++) {
+            final CellState state = mCellStates[index / 3][index % 3];
+            final boolean lineEndUpdated = animator.isUpdated(index, CellAnimator.TRACK_LINE_END);
+            final boolean updated = lineEndUpdated || animator.isUpdated(index, CellAnimator.TRACK_RADIUS) || animator.isUpdated(index, CellAnimator.TRACK_ALPHA) || animator.isUpdated(index, CellAnimator.TRACK_TRANSLATION_Y);
+            // Where the cell was drawn...
+            if (updated) {
+                unionCellBounds(state, lineEndUpdated, dirty);
+            }
+            if (animator.isUpdated(index, CellAnimator.TRACK_RADIUS)) {
+                state.radius = animator.getValue(index, CellAnimator.TRACK_RADIUS);
+                // The big dot is only shown while growing, the shrink segment is queued till then
+                if (state.dotSprite == m_oBigDotSprite && !animator.hasQueued(index, CellAnimator.TRACK_RADIUS)) {
+                    state.dotSprite = m_oDotSprite;
+                }
+            }
+            if (animator.isUpdated(index, CellAnimator.TRACK_ALPHA)) {
+                state.alpha = animator.getValue(index, CellAnimator.TRACK_ALPHA);
+            }
+            if (animator.isUpdated(index, CellAnimator.TRACK_TRANSLATION_Y)) {
+                state.translationY = animator.getValue(index, CellAnimator.TRACK_TRANSLATION_Y);
+            }
+            if (lineEndUpdated) {
+                final float t = animator.getValue(index, CellAnimator.TRACK_LINE_END);
+                state.lineEndX = (1 - t) * state.lineStartX + t * state.lineTargetX;
+                state.lineEndY = (1 - t) * state.lineStartY + t * state.lineTargetY;
+            }
+            // ...and where it is drawn now
+            if (updated) {
+                unionCellBounds(state, lineEndUpdated, dirty);
+            }
+        }
+        if (!dirty.isEmpty()) {
+            invalidate(dirty);
+        }
+        runFinishedCellRunnables();
+        // Keep going till the spec is due even if something else stopped its tracks early
+        if (running || mCellAnimationRunnable != null) {
+            scheduleAnimationFrame();
+        }
+    }
+
+    /**
+     * Put the cell directly in the state {@link #startCellActivatedAnimation(Cell)} would leave
+     * it in, without animating.
+     */
+    private void applyCellActivatedState(Cell cell) {
+        final CellState cellState = mCellStates[cell.row][cell.column];
+        final int index = cell.row * 3 + cell.column;
+        mCellAnimator.cancel(index, CellAnimator.TRACK_RADIUS);
+        mCellAnimator.cancel(index, CellAnimator.TRACK_LINE_END);
+        cellState.radius = mDotSize / 2;
+        cellState.dotSprite = m_oDotSprite;
+        cellState.lineEndX = Float.MIN_VALUE;
+        cellState.lineEndY = Float.MIN_VALUE;
+        runFinishedCellRunnables();
+    }
+
+    /**
+     * Apply the current {@link RenderQuality} tier to the paints and the surface.
+     */
+    private void applyRenderQuality() {
+        final int tier = mRenderQuality.getTier();
+        final boolean dither = tier < RenderQuality.TIER_NO_DITHER;
+        mPaint.setDither(dither);
+        mPathPaint.setDither(dither);
+
+        final boolean useSprites = tier >= RenderQuality.TIER_SPRITES;
+        if (useSprites && mDotSprite == null) {
+            mDotSprite = createDotSprite(Math.max(1, mDotSizeActivated));
+        }
+        mPaint.setFilterBitmap(useSprites);
+        mCanvasSurface.setDotSprite(useSprites ? mDotSprite : null);
+        invalidate();
     }
 
     private void cancelLineAnimations() {
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
                 CellState state = mCellStates[i][j];
-                if (state.lineAnimator != null) {
-                    state.lineAnimator.cancel();
+                if (mCellAnimator.isRunning(i * 3 + j, CellAnimator.TRACK_LINE_END)) {
+                    mCellAnimator.cancel(i * 3 + j, CellAnimator.TRACK_LINE_END);
                     state.lineEndX = Float.MIN_VALUE;
                     state.lineEndY = Float.MIN_VALUE;
                 }
@@ -632,6 +919,17 @@ public class PatternLockView extends View {
         return Cell.of(rowHit, columnHit);
     }
 
+    /**
+     * @return An anti-aliased circle filling a bitmap of the given size. Being an alpha mask,
+     * it is drawn in the color of the paint.
+     */
+    private static Bitmap createDotSprite(int size) {
+        Bitmap sprite = Bitmap.createBitmap(size, size, Bitmap.Config.ALPHA_8);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        new Canvas(sprite).drawCircle(size / 2f, size / 2f, size / 2f, paint);
+        return sprite;
+    }
+
     /**
      * Clear the pattern lookup table.
      */
@@ -681,29 +979,19 @@ public class PatternLockView extends View {
     }
 
     /**
-     * @param partOfPattern Whether this circle is part of the pattern.
+     * @return The time cell animations and the {@link DisplayMode#Animate} loop run on, in
+     * milliseconds. It stands still while animations are suspended.
      */
-    private void drawDot(Canvas canvas, float centerX, float centerY, float radius, boolean partOfPattern, float alpha, Bitmap oDotBitmap) {
-        mPaint.setColor(getCurrentColor(partOfPattern));
-        mPaint.setAlpha((int) (alpha * 255));
-
-        // If the bitmap is set, draw it.  If not, draw a circle.
-        if (oDotBitmap != null) {
-            float nBitmapCenterX = centerX - (oDotBitmap.getScaledHeight(canvas) / 2f);
-            float nBitmapCenterY = centerY - (oDotBitmap.getScaledWidth(canvas) / 2f);
-
-            canvas.drawBitmap(oDotBitmap, nBitmapCenterX, nBitmapCenterY, mPaint);
-        } else {
-            canvas.drawCircle(centerX, centerY, radius, mPaint);
-        }
+    private long getAnimationTime() {
+        return (mAnimationSuspended ? mSuspendedAt : SystemClock.uptimeMillis()) - mSuspendedMillis;
     }
 
     private float getCenterXForColumn(int column) {
-        return getPaddingLeft() + column * mSquareWidth + mSquareWidth / 2f;
+        return mCellCenterX[column];
     }
 
     private float getCenterYForRow(int row) {
-        return getPaddingTop() + row * mSquareHeight + mSquareHeight / 2f;
+        return mCellCenterY[row];
     }
 
     /**
@@ -726,24 +1014,6 @@ public class PatternLockView extends View {
         return -1;
     }
 
-    // [rexmtorres 20160401]
-    // Original name: drawCircle
-    // Added support for drawing a Bitmap, if set, instead of a circle for the pattern dots.
-
-    private int getCurrentColor(boolean partOfPattern) {
-        if (!partOfPattern || mInStealthMode || mPatternInProgress) {
-            // unselected circle
-            return mRegularColor;
-        } else if (mPatternDisplayMode == DisplayMode.Wrong) {
-            // the pattern is wrong
-            return mErrorColor;
-        } else if (mPatternDisplayMode == DisplayMode.Correct || mPatternDisplayMode == DisplayMode.Animate) {
-            return mSuccessColor;
-        } else {
-            throw new IllegalStateException("unknown display mode " + mPatternDisplayMode);
-        }
-    }
-
     /**
      * Helper method to find the row that y falls into.
      *
@@ -927,12 +1197,152 @@ public class PatternLockView extends View {
         return result;
     }
 
+    /**
+     * Run the finish runnables of the cell animations that are over, whether they ran to their
+     * end or were replaced or canceled by another animation, and that of the last
+     * {@link CellAnimationSpec} once it is due.
+     */
+    private void runFinishedCellRunnables() {
+        for (int index = 0; index < 9; index++) {
+            final Runnable finishRunnable = mCellCompletions[index].poll(mCellAnimator);
+            if (finishRunnable != null) {
+                finishRunnable.run();
+            }
+        }
+        final Runnable finishRunnable = mCellAnimationRunnable;
+        if (finishRunnable != null && getAnimationTime() >= mCellAnimationEndTime) {
+            mCellAnimationRunnable = null;
+            finishRunnable.run();
+        }
+    }
+
+    private void scheduleAnimationFrame() {
+        if (!mAnimationFrameScheduled) {
+            mAnimationFrameScheduled = true;
+            // Otherwise posted once resumed
+            if (!mAnimationSuspended) {
+                ViewCompat.postOnAnimation(this, mAnimationFrame);
+            }
+        }
+    }
+
     private void sendAccessEvent(int resId) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
             mContext.getString(resId);
         }
     }
 
+    /**
+     * Copy the state the renderer needs into {@link #mRenderState}.
+     */
+    private void syncRenderState() {
+        final PatternRenderState state = mRenderState;
+        state.mDisplayMode = mPatternDisplayMode;
+        state.mInStealthMode = mInStealthMode;
+        state.mPatternInProgress = mPatternInProgress;
+        state.mInProgressX = mInProgressX;
+        state.mInProgressY = mInProgressY;
+        state.mPathWidth = mPathWidth;
+        state.mSquareWidth = mSquareWidth;
+        state.mErrorColor = mErrorColor;
+        state.mRegularColor = mRegularColor;
+        state.mSuccessColor = mSuccessColor;
+    }
+
+    /**
+     * Add the area covered by the cell's dot, and by the line to the cell if that is animating,
+     * to the given rect.
+     */
+    private void unionCellBounds(CellState state, boolean withLine, Rect rect) {
+        final float centerX = getCenterXForColumn(state.col);
+        final float centerY = getCenterYForRow(state.row) + state.translationY;
+        final PatternSprite sprite = state.dotSprite;
+        // Two more pixels for the anti-aliased edge and the dot center being truncated
+        final float reach = (sprite != null ? Math.max(sprite.getWidth(), sprite.getHeight()) / 2f : state.radius) + 2f;
+        rect.union((int) Math.floor(centerX - reach), (int) Math.floor(centerY - reach), (int) Math.ceil(centerX + reach), (int) Math.ceil(centerY + reach));
+        if (withLine) {
+            // Round caps extend past the end points by half the width; be generous.
+            final float width = mPathWidth + 2f;
+            rect.union((int) Math.floor(Math.min(state.lineStartX, state.lineTargetX) - width), (int) Math.floor(Math.min(state.lineStartY, state.lineTargetY) - width), (int) Math.ceil(Math.max(state.lineStartX, state.lineTargetX) + width), (int) Math.ceil(Math.max(state.lineStartY, state.lineTargetY) + width));
+        }
+    }
+
+    /**
+     * Suspend animations while the view is detached or not shown, and resume them once it is
+     * shown again.
+     */
+    private void updateAnimationSuspended() {
+        final boolean suspend = !mAttached || getWindowVisibility() != VISIBLE || !isShown();
+        if (suspend == mAnimationSuspended) {
+            return;
+        }
+        final long now = SystemClock.uptimeMillis();
+        mAnimationSuspended = suspend;
+        if (suspend) {
+            mSuspendedAt = now;
+            mAnimatingWhenSuspended = mAnimationFrameScheduled || mPatternDisplayMode == DisplayMode.Animate;
+            // mAnimationFrameScheduled stays set so the frame is posted again on resume
+            removeCallbacks(mAnimationFrame);
+        } else {
+            final long suspendedMillis = now - mSuspendedAt;
+            mSuspendedMillis += suspendedMillis;
+            if (mAnimatingWhenSuspended) {
+                mEstimatedSkippedFrameCount += suspendedMillis * 1000000L / mRenderQuality.getFrameBudgetNanos();
+            }
+            if (mAnimationFrameScheduled) {
+                ViewCompat.postOnAnimation(this, mAnimationFrame);
+            }
+            invalidate();
+        }
+    }
+
+    /**
+     * Read whether the system asks for reduced motion, i.e. animations are turned off or the
+     * device is saving power.
+     */
+    @SuppressWarnings("deprecation")
+    private void updateSystemReducedMotion() {
+        float durationScale = 1f;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            durationScale = Settings.Global.getFloat(mContext.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            durationScale = Settings.System.getFloat(mContext.getContentResolver(), Settings.System.ANIMATOR_DURATION_SCALE, 1f);
+        }
+        boolean powerSaveMode = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
+            powerSaveMode = powerManager != null && powerManager.isPowerSaveMode();
+        }
+        mSystemReducedMotion = durationScale == 0f || powerSaveMode;
+    }
+
+    /**
+     * Run the runnable once the segments the tracks of the cell are running now are over.
+     *
+     * @param trackMask The tracks, one bit for each: <code>1 &lt;&lt; track</code>.
+     */
+    private void setCellFinishRunnable(int index, int trackMask, Runnable finishRunnable) {
+        // The animation this one replaces is over, so let its owner know
+        final Runnable replacedRunnable = mCellCompletions[index].watch(mCellAnimator, index, trackMask, finishRunnable);
+        if (replacedRunnable != null) {
+            replacedRunnable.run();
+        }
+    }
+
+    private void setCellTrackValue(CellState state, int track, float value) {
+        switch (track) {
+            case CellAnimator.TRACK_RADIUS:
+                state.radius = value;
+                break;
+            case CellAnimator.TRACK_ALPHA:
+                state.alpha = value;
+                break;
+            case CellAnimator.TRACK_TRANSLATION_Y:
+                state.translationY = value;
+                break;
+        }
+    }
+
     private void setPatternInProgress(boolean progress) {
         mPatternInProgress = progress;
         mExploreByTouchHelper.invalidateRoot();
@@ -940,153 +1350,50 @@ public class PatternLockView extends View {
 
     private void startCellActivatedAnimation(Cell cell) {
         final CellState cellState = mCellStates[cell.row][cell.column];
-        startDotAnimation(mDotSize / 2, mDotSizeActivated / 2, 96, mLinearOutSlowInInterpolator, cellState, new Runnable() {
-            @Override
-            public void run() {
-                startDotAnimation(mDotSizeActivated / 2, mDotSize / 2, 192, mFastOutSlowInInterpolator, cellState, null, m_oDotBitmap);
-            }
-        }, m_oBigDotBitmap);
-        startLineEndAnimation(cellState, mInProgressX, mInProgressY, getCenterXForColumn(cell.column), getCenterYForRow(cell.row));
+        final long now = getAnimationTime();
+        final int tier = mRenderQuality.getTier();
+        final int durationDivisor = tier >= RenderQuality.TIER_SHORT_ANIMATIONS ? 2 : 1;
+        startDotAnimation(cellState, now, 96 / durationDivisor, 192 / durationDivisor);
+        if (tier < RenderQuality.TIER_NO_LINE_END_ANIMATION) {
+            startLineEndAnimation(cellState, now, mInProgressX, mInProgressY, getCenterXForColumn(cell.column), getCenterYForRow(cell.row));
+        }
+        scheduleAnimationFrame();
     }
 
-    private void startCellStateAnimationSw(final CellState cellState, final float startAlpha, final float endAlpha, final float startTranslationY, final float endTranslationY, final float startScale, final float endScale, long delay, long duration, Interpolator interpolator, final Runnable finishRunnable) {
+    private void startCellStateAnimationSw(CellState cellState, float startAlpha, float endAlpha, float startTranslationY, float endTranslationY, float startScale, float endScale, long delay, long duration, Interpolator interpolator, Runnable finishRunnable) {
         cellState.alpha = startAlpha;
         cellState.translationY = startTranslationY;
         cellState.radius = mDotSize / 2 * startScale;
 
-        ValueAnimatorCompat animator = ValueAnimatorCompat.ofFloat(0f, 1f);
-        animator.setDuration(duration);
-        animator.setStartDelay(delay);
-        animator.setInterpolator(interpolator);
-        animator.addUpdateListener(new ValueAnimatorCompat.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimatorCompat animation) {
-                float t = (float) animation.getAnimatedValue();
-                cellState.alpha = (1 - t) * startAlpha + t * endAlpha;
-                cellState.translationY = (1 - t) * startTranslationY + t * endTranslationY;
-                cellState.radius = mDotSize / 2 * ((1 - t) * startScale + t * endScale);
-                invalidate();
-            }
-        });
-        animator.addListener(new ValueAnimatorCompat.AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(ValueAnimatorCompat animation) {
-                if (finishRunnable != null) {
-                    finishRunnable.run();
-                }
-            }
-        });
-        animator.start();
-
-//        if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
-//            ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
-//            animator.setDuration(duration);
-//            animator.setStartDelay(delay);
-//            animator.setInterpolator(interpolator);
-//            animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-//                @TargetApi(Build.VERSION_CODES.HONEYCOMB)
-//                @Override
-//                public void onAnimationUpdate(ValueAnimator animation) {
-//                    float t = (float) animation.getAnimatedValue();
-//                    cellState.alpha = (1 - t) * startAlpha + t * endAlpha;
-//                    cellState.translationY = (1 - t) * startTranslationY + t * endTranslationY;
-//                    cellState.radius = mDotSize/2 * ((1 - t) * startScale + t * endScale);
-//                    invalidate();
-//                }
-//            });
-//            animator.addListener(new AnimatorListenerAdapter() {
-//                @Override
-//                public void onAnimationEnd(Animator animation) {
-//                    if (finishRunnable != null) {
-//                        finishRunnable.run();
-//                    }
-//                }
-//            });
-//            animator.start();
-//        } else {
-//            com.nineoldandroids.animation.ValueAnimator animator =
-//                    com.nineoldandroids.animation.ValueAnimator.ofFloat(0f, 1f);
-//            animator.setDuration(duration);
-//            animator.setStartDelay(delay);
-//            animator.setInterpolator(interpolator);
-//            animator.addUpdateListener(new com.nineoldandroids.animation.ValueAnimator.AnimatorUpdateListener() {
-//                @Override
-//                public void onAnimationUpdate(com.nineoldandroids.animation.ValueAnimator animation) {
-//                    float t = (float) animation.getAnimatedValue();
-//                    cellState.alpha = (1 - t) * startAlpha + t * endAlpha;
-//                    cellState.translationY = (1 - t) * startTranslationY + t * endTranslationY;
-//                    cellState.radius = mDotSize/2 * ((1 - t) * startScale + t * endScale);
-//                    invalidate();
-//                }
-//            });
-//            animator.addListener(new com.nineoldandroids.animation.ValueAnimator.AnimatorListener() {
-//                @Override
-//                public void onAnimationStart(com.nineoldandroids.animation.Animator animation) { }
-//
-//                @Override
-//                public void onAnimationEnd(com.nineoldandroids.animation.Animator animation) {
-//                    if (finishRunnable != null) {
-//                        finishRunnable.run();
-//                    }
-//                }
-//
-//                @Override
-//                public void onAnimationCancel(com.nineoldandroids.animation.Animator animation) { }
-//
-//                @Override
-//                public void onAnimationRepeat(com.nineoldandroids.animation.Animator animation) { }
-//            });
-//            animator.start();
-//        }
+        final int index = cellState.row * 3 + cellState.col;
+        final long startTime = getAnimationTime() + delay;
+        mCellAnimator.start(index, CellAnimator.TRACK_ALPHA, startAlpha, endAlpha, startTime, duration, interpolator);
+        mCellAnimator.start(index, CellAnimator.TRACK_TRANSLATION_Y, startTranslationY, endTranslationY, startTime, duration, interpolator);
+        mCellAnimator.start(index, CellAnimator.TRACK_RADIUS, mDotSize / 2 * startScale, mDotSize / 2 * endScale, startTime, duration, interpolator);
+
+        setCellFinishRunnable(index, 1 << CellAnimator.TRACK_ALPHA | 1 << CellAnimator.TRACK_TRANSLATION_Y | 1 << CellAnimator.TRACK_RADIUS, finishRunnable);
+        scheduleAnimationFrame();
     }
 
     // [rexmtorres 20160401]
     // Original name: startRadiusAnimation
     // Added support for drawing a Bitmap, if set, instead of a circle for the pattern dots.
-    private void startDotAnimation(float start, float end, long duration, Interpolator interpolator, final CellState state, final Runnable endRunnable, final Bitmap oBitmap) {
-        ValueAnimatorCompat valueAnimator = ValueAnimatorCompat.ofFloat(start, end);
-        valueAnimator.addUpdateListener(new ValueAnimatorCompat.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimatorCompat animation) {
-                state.bitmapDot = oBitmap;
-                state.radius = (float) animation.getAnimatedValue();
-                invalidate();
-            }
-        });
-        if (endRunnable != null) {
-            valueAnimator.addListener(new ValueAnimatorCompat.AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(ValueAnimatorCompat animation) {
-                    endRunnable.run();
-                }
-            });
-        }
-        valueAnimator.setInterpolator(interpolator);
-        valueAnimator.setDuration(duration);
-        valueAnimator.start();
+    private void startDotAnimation(CellState state, long now, long growDuration, long shrinkDuration) {
+        final int index = state.row * 3 + state.col;
+        state.dotSprite = m_oBigDotSprite;
+        state.radius = mDotSize / 2;
+        mCellAnimator.start(index, CellAnimator.TRACK_RADIUS, mDotSize / 2, mDotSizeActivated / 2, now, growDuration, mLinearOutSlowInInterpolator);
+        mCellAnimator.queue(index, CellAnimator.TRACK_RADIUS, mDotSize / 2, shrinkDuration, mFastOutSlowInInterpolator);
     }
 
-    private void startLineEndAnimation(final CellState state, final float startX, final float startY, final float targetX, final float targetY) {
-        ValueAnimatorCompat valueAnimator = ValueAnimatorCompat.ofFloat(0, 1);
-        valueAnimator.addUpdateListener(new ValueAnimatorCompat.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimatorCompat animation) {
-                float t = (float) animation.getAnimatedValue();
-                state.lineEndX = (1 - t) * startX + t * targetX;
-                state.lineEndY = (1 - t) * startY + t * targetY;
-                invalidate();
-            }
-        });
-        valueAnimator.addListener(new ValueAnimatorCompat.AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(ValueAnimatorCompat animation) {
-                state.lineAnimator = null;
-            }
-        });
-        valueAnimator.setInterpolator(mFastOutSlowInInterpolator);
-        valueAnimator.setDuration(100);
-        valueAnimator.start();
-        state.lineAnimator = valueAnimator;
+    private void startLineEndAnimation(CellState state, long now, float startX, float startY, float targetX, float targetY) {
+        state.lineStartX = startX;
+        state.lineStartY = startY;
+        state.lineTargetX = targetX;
+        state.lineTargetY = targetY;
+        state.lineEndX = startX;
+        state.lineEndY = startY;
+        mCellAnimator.start(state.row * 3 + state.col, CellAnimator.TRACK_LINE_END, 0f, 1f, now, 100, mFastOutSlowInInterpolator);
     }
 
     /**
@@ -1391,15 +1698,33 @@ public class PatternLockView extends View {
      */
     private static final int MILLIS_PER_CIRCLE_ANIMATING = 700;
     private static final int VIRTUAL_BASE_VIEW_ID = 1;
+    private static final long DEFAULT_FRAME_BUDGET_NANOS = 16 * 1000000L;
     private final ArrayList<Cell> mPattern = new ArrayList<>(9);
+    private final CellAnimator mCellAnimator = new CellAnimator(9);
     private final CellState[][] mCellStates;
     private final Interpolator mFastOutSlowInInterpolator;
     private final Interpolator mLinearOutSlowInInterpolator;
     private final Paint mPaint = new Paint();
     private final Paint mPathPaint = new Paint();
-    private final Path mCurrentPath = new Path();
+    private final CanvasPatternSurface mCanvasSurface = new CanvasPatternSurface(mPaint, mPathPaint);
+    private final Rect mAnimationDirtyRect = new Rect();
     private final Rect mInvalidate = new Rect();
     private final Rect mTmpInvalidateRect = new Rect();
+    /**
+     * The one frame callback that drives every cell animation. Package-private so tests can run
+     * frames themselves.
+     */
+    final Runnable mAnimationFrame = new Runnable() {
+        @Override
+        public void run() {
+            mAnimationFrameScheduled = false;
+            advanceCellAnimations();
+        }
+    };
+    /**
+     * The finish runnables of {@link #startCellStateAnimation}, one for each cell.
+     */
+    private final CellAnimator.Completion[] mCellCompletions = new CellAnimator.Completion[9];
     /**
      * Lookup table for the circles of the pattern we are currently drawing.
      * This will be the cells of the complete pattern unless we are animating,
@@ -1407,23 +1732,55 @@ public class PatternLockView extends View {
      * progress animation.
      */
     private final boolean[][] mPatternDrawLookup = new boolean[3][3];
+    /**
+     * Cell centers, recomputed whenever the view is resized.
+     */
+    private final float[] mCellCenterX = new float[3];
+    private final float[] mCellCenterY = new float[3];
+    private final PatternRenderState mRenderState;
+    private final RenderQuality mRenderQuality = new RenderQuality(DEFAULT_FRAME_BUDGET_NANOS);
     private final int mDotSize;
     private final int mDotSizeActivated;
     private final int mPathWidth;
     private AccessibilityManager mAccessibilityManager;
     private AudioManager mAudioManager;
-    private Bitmap m_oBigDotBitmap;
+    /**
+     * Explicitly set through {@link #setReducedMotion(boolean)}; null to follow the system.
+     */
+    private Boolean mReducedMotionOverride;
+    private PatternSprite m_oBigDotSprite;
     // [rexmtorres 20160401] If set, replaces the pattern dots with the specified bitmap.
-    private Bitmap m_oDotBitmap;
+    private PatternSprite m_oDotSprite;
+    private Bitmap mDotSprite;
     private Context mContext;
     private DisplayMode mPatternDisplayMode = DisplayMode.Correct;
     private OnPatternListener mOnPatternListener;
+    /**
+     * The finish runnable of {@link #startCellAnimation(CellAnimationSpec, Runnable)}, run once
+     * {@link #mCellAnimationEndTime} is reached.
+     */
+    private Runnable mCellAnimationRunnable;
+    private PatternRenderer mPatternRenderer = new DefaultPatternRenderer();
     private PatternExploreByTouchHelper mExploreByTouchHelper;
+    private boolean mAdaptiveRenderQuality = true;
+    private boolean mAnimatingWhenSuspended;
+    private boolean mAnimationFrameScheduled;
+    /**
+     * Starts out suspended, until attached to a visible window.
+     */
+    private boolean mAnimationSuspended = true;
+    private boolean mAttached;
     private boolean mDrawingProfilingStarted = false;
     private boolean mEnableHapticFeedback = true;
     private boolean mInStealthMode = false;
     private boolean mInputEnabled = true;
+    /**
+     * Whether the last frame drawn asked for the next one right away, see
+     * {@link RenderQuality#onFrame(long, long, boolean)}.
+     */
+    private boolean mNextFrameRequested;
     private boolean mPatternInProgress = false;
+    private boolean mSystemReducedMotion = false;
     private float mHitFactor = 0.6f;
     /**
      * the in progress point:
@@ -1439,4 +1796,17 @@ public class PatternLockView extends View {
     private int mRegularColor;
     private int mSuccessColor;
     private long mAnimatingPeriodStart;
+    /**
+     * When the last {@link CellAnimationSpec} is due to be over, in {@link #getAnimationTime()}.
+     */
+    private long mCellAnimationEndTime;
+    private long mEstimatedSkippedFrameCount;
+    /**
+     * When animations were last suspended, in {@link SystemClock#uptimeMillis()}.
+     */
+    private long mSuspendedAt;
+    /**
+     * How long animations have been suspended in all, so {@link #getAnimationTime()} skips it.
+     */
+    private long mSuspendedMillis;
 }
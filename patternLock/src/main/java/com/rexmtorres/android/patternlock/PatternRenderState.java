@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import com.rexmtorres.android.patternlock.PatternLockView.Cell;
+import com.rexmtorres.android.patternlock.PatternLockView.CellState;
+import com.rexmtorres.android.patternlock.PatternLockView.DisplayMode;
+
+import java.util.List;
+
+/**
+ * A read-only view of everything a {@link PatternRenderer} needs to draw a
+ * {@link PatternLockView}.
+ * <p>
+ * The view owns a single instance and refreshes it before every frame, so renderers must not
+ * hold on to it (or to the lists and cell states it returns) after
+ * {@link PatternRenderer#render(PatternRenderState, PatternSurface)} returns.
+ */
+public final class PatternRenderState {
+    /**
+     * @param cellStates  The 3 X 3 states of the cells.
+     * @param pattern     The cells of the current pattern, in order.
+     * @param drawLookup  Which of the cells are currently part of the drawn pattern.
+     * @param cellCenterX The x coordinates of the centers of each column.
+     * @param cellCenterY The y coordinates of the centers of each row.
+     */
+    PatternRenderState(CellState[][] cellStates, List<Cell> pattern, boolean[][] drawLookup, float[] cellCenterX, float[] cellCenterY) {
+        mCellStates = cellStates;
+        mPattern = pattern;
+        mDrawLookup = drawLookup;
+        mCellCenterX = cellCenterX;
+        mCellCenterY = cellCenterY;
+    }
+
+    public float getCenterX(int column) {
+        return mCellCenterX[column];
+    }
+
+    public float getCenterY(int row) {
+        return mCellCenterY[row];
+    }
+
+    public CellState getCellState(int row, int column) {
+        return mCellStates[row][column];
+    }
+
+    /**
+     * @param partOfPattern Whether the dot or line being drawn is part of the pattern.
+     *
+     * @return The color to draw with, based on the display mode.
+     */
+    public int getCurrentColor(boolean partOfPattern) {
+        if (!partOfPattern || mInStealthMode || mPatternInProgress) {
+            // unselected circle
+            return mRegularColor;
+        } else if (mDisplayMode == DisplayMode.Wrong) {
+            // the pattern is wrong
+            return mErrorColor;
+        } else if (mDisplayMode == DisplayMode.Correct || mDisplayMode == DisplayMode.Animate) {
+            return mSuccessColor;
+        } else {
+            throw new IllegalStateException("unknown display mode " + mDisplayMode);
+        }
+    }
+
+    public DisplayMode getDisplayMode() {
+        return mDisplayMode;
+    }
+
+    /**
+     * The in progress point:
+     * - during interaction: where the user's finger is
+     * - during animation: the current tip of the animating line
+     */
+    public float getInProgressX() {
+        return mInProgressX;
+    }
+
+    /**
+     * @see #getInProgressX()
+     */
+    public float getInProgressY() {
+        return mInProgressY;
+    }
+
+    /**
+     * @return The opacity (0 to 1) of the in progress segment going from (lastX, lastY) to the
+     * in progress point. The segment fades in as it gets longer.
+     */
+    public float getLastSegmentAlpha(float lastX, float lastY) {
+        float diffX = mInProgressX - lastX;
+        float diffY = mInProgressY - lastY;
+        float dist = (float) Math.sqrt(diffX * diffX + diffY * diffY);
+        float frac = dist / mSquareWidth;
+        return Math.min(1f, Math.max(0f, (frac - 0.3f) * 4f));
+    }
+
+    public List<Cell> getPattern() {
+        return mPattern;
+    }
+
+    public float getPathWidth() {
+        return mPathWidth;
+    }
+
+    /**
+     * @return Whether the cell is currently drawn as part of the pattern. This is only different
+     * from the pattern itself while in {@link DisplayMode#Animate}.
+     */
+    public boolean isDrawn(int row, int column) {
+        return mDrawLookup[row][column];
+    }
+
+    public boolean isInStealthMode() {
+        return mInStealthMode;
+    }
+
+    public boolean isPatternInProgress() {
+        return mPatternInProgress;
+    }
+
+    private final CellState[][] mCellStates;
+    private final List<Cell> mPattern;
+    private final boolean[][] mDrawLookup;
+    private final float[] mCellCenterX;
+    private final float[] mCellCenterY;
+    DisplayMode mDisplayMode = DisplayMode.Correct;
+    boolean mInStealthMode;
+    boolean mPatternInProgress;
+    float mInProgressX;
+    float mInProgressY;
+    float mPathWidth;
+    float mSquareWidth;
+    int mErrorColor;
+    int mRegularColor;
+    int mSuccessColor;
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+/**
+ * Draws the state of a {@link PatternLockView} (its dots and the path connecting them).
+ * <p>
+ * Set a custom implementation through {@link PatternLockView#setPatternRenderer(PatternRenderer)}
+ * to change how the pattern looks without subclassing the view. The default is
+ * {@link DefaultPatternRenderer}.
+ */
+public interface PatternRenderer {
+    /**
+     * Renders a single frame.
+     *
+     * @param state   The state of the view to render. This is only valid for the duration of
+     *                the call.
+     * @param surface Where to draw.
+     */
+    void render(PatternRenderState state, PatternSurface surface);
+}
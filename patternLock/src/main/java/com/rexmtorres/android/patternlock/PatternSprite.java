@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+/**
+ * An image drawn in place of a pattern dot, as handed to a {@link PatternSurface}.
+ * <p>
+ * This is only a handle to the image's size and pixels, so that surfaces which do not use Android
+ * graphics (see {@link RasterPatternSurface}) can draw it too. Sprites made from a
+ * {@link android.graphics.Bitmap} by {@link PatternLockView} are drawn on a canvas directly.
+ */
+public abstract class PatternSprite {
+    /**
+     * Creates a sprite from ARGB pixels.
+     *
+     * @param width  The width of the image.
+     * @param height The height of the image.
+     * @param pixels The pixels of the image, in row-major order. The array is not copied.
+     */
+    public static PatternSprite fromPixels(final int width, final int height, final int[] pixels) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be positive");
+        }
+        if (pixels.length < width * height) {
+            throw new IllegalArgumentException("pixels must hold width * height colors");
+        }
+        return new PatternSprite() {
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public int getPixel(int x, int y) {
+                return pixels[y * width + x];
+            }
+
+            @Override
+            public int getWidth() {
+                return width;
+            }
+        };
+    }
+
+    public abstract int getHeight();
+
+    /**
+     * @return The ARGB color of the given pixel.
+     */
+    public abstract int getPixel(int x, int y);
+
+    public abstract int getWidth();
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+/**
+ * A drawing target for a {@link PatternRenderer}.
+ * <p>
+ * This only exposes the handful of primitives needed to draw a pattern, so that it can be backed
+ * by an Android {@link android.graphics.Canvas} as well as by a plain pixel buffer (see
+ * {@link RasterPatternSurface}).
+ * <p>
+ * All colors are ARGB, with the alpha channel already applied.
+ */
+public interface PatternSurface {
+    /**
+     * Draws a sprite centered on the given point.
+     *
+     * @param sprite  The sprite to draw.
+     * @param centerX The x coordinate of the sprite's center.
+     * @param centerY The y coordinate of the sprite's center.
+     * @param color   The color of the paint used to draw the sprite; only its alpha is applied.
+     */
+    void drawSprite(PatternSprite sprite, float centerX, float centerY, int color);
+
+    /**
+     * Draws a filled circle.
+     *
+     * @param centerX The x coordinate of the circle's center.
+     * @param centerY The y coordinate of the circle's center.
+     * @param radius  The radius of the circle.
+     * @param color   The fill color.
+     */
+    void drawCircle(float centerX, float centerY, float radius, int color);
+
+    /**
+     * Draws a line with round caps.
+     *
+     * @param startX The x coordinate of the start of the line.
+     * @param startY The y coordinate of the start of the line.
+     * @param endX   The x coordinate of the end of the line.
+     * @param endY   The y coordinate of the end of the line.
+     * @param width  The stroke width.
+     * @param color  The stroke color.
+     */
+    void drawLine(float startX, float startY, float endX, float endY, float width, int color);
+
+    /**
+     * @param sprite The sprite to measure.
+     *
+     * @return Half of the larger side of the sprite, as it would be drawn on this surface.
+     */
+    float getSpriteRadius(PatternSprite sprite);
+
+    /**
+     * Used to skip drawing that would not be visible anyway (e.g. when only part of the view
+     * was invalidated).
+     *
+     * @return Whether the given bounds lie completely outside the area being drawn.
+     */
+    boolean isOutside(float left, float top, float right, float bottom);
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.v4.util.LruCache;
+
+import com.rexmtorres.android.patternlock.PatternLockView.Cell;
+import com.rexmtorres.android.patternlock.PatternLockView.CellState;
+import com.rexmtorres.android.patternlock.PatternLockView.DisplayMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A lightweight, static preview of a pattern, drawn the same way as {@link PatternLockView}
+ * (using {@link DefaultPatternRenderer}).
+ * <p>
+ * Meant for lists (e.g. in a RecyclerView) where inflating a full {@link PatternLockView} per row
+ * would be too heavy. Thumbnails are rendered into bitmaps on a background thread and kept in an
+ * LRU cache shared by all instances, keyed by pattern, size, display mode and style. Until its
+ * bitmap is ready, the drawable draws nothing and invalidates itself once it is.
+ * <p>
+ * The most recently requested thumbnails are rendered first, and a drawable that is hidden (see
+ * {@link #setVisible(boolean, boolean)}) or resized before its thumbnail has started rendering
+ * withdraws its request, so that rows which were scrolled past during a fling are not rendered.
+ * <p>
+ * This must only be drawn from the main thread.
+ */
+public class PatternThumbnailDrawable extends Drawable {
+    /**
+     * The colors and proportions of a thumbnail. Sizes are fractions of the width of a cell, so
+     * a thumbnail looks the same at any size.
+     */
+    public static final class Style {
+        /**
+         * The default dot radius, as a fraction of the width of a cell.
+         */
+        public static final float DEFAULT_DOT_RADIUS = 0.1f;
+        /**
+         * The default path width, as a fraction of the width of a cell.
+         */
+        public static final float DEFAULT_PATH_WIDTH = 0.05f;
+
+        /**
+         * @return The library's default colors and proportions.
+         */
+        @SuppressWarnings("deprecation")
+        public static Style fromResources(Context context) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                return new Style(context.getColor(R.color.lock_pattern_view_regular_color), context.getColor(R.color.lock_pattern_view_success_color), context.getColor(R.color.lock_pattern_view_error_color), DEFAULT_DOT_RADIUS, DEFAULT_PATH_WIDTH);
+            } else {
+                return new Style(context.getResources().getColor(R.color.lock_pattern_view_regular_color), context.getResources().getColor(R.color.lock_pattern_view_success_color), context.getResources().getColor(R.color.lock_pattern_view_error_color), DEFAULT_DOT_RADIUS, DEFAULT_PATH_WIDTH);
+            }
+        }
+
+        /**
+         * @param regularColor The color of the dots not part of the pattern.
+         * @param successColor The color of the pattern in {@link DisplayMode#Correct}.
+         * @param errorColor   The color of the pattern in {@link DisplayMode#Wrong}.
+         * @param dotRadius    The dot radius, as a fraction of the width of a cell.
+         * @param pathWidth    The path width, as a fraction of the width of a cell.
+         */
+        public Style(int regularColor, int successColor, int errorColor, float dotRadius, float pathWidth) {
+            mRegularColor = regularColor;
+            mSuccessColor = successColor;
+            mErrorColor = errorColor;
+            mDotRadius = dotRadius;
+            mPathWidth = pathWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Style)) {
+                return false;
+            }
+            Style other = (Style) o;
+            return mRegularColor == other.mRegularColor && mSuccessColor == other.mSuccessColor && mErrorColor == other.mErrorColor && Float.compare(mDotRadius, other.mDotRadius) == 0 && Float.compare(mPathWidth, other.mPathWidth) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mRegularColor;
+            result = 31 * result + mSuccessColor;
+            result = 31 * result + mErrorColor;
+            result = 31 * result + Float.floatToIntBits(mDotRadius);
+            result = 31 * result + Float.floatToIntBits(mPathWidth);
+            return result;
+        }
+
+        private final float mDotRadius;
+        private final float mPathWidth;
+        private final int mErrorColor;
+        private final int mRegularColor;
+        private final int mSuccessColor;
+    }
+
+    /**
+     * @param pattern     The pattern to show.
+     * @param displayMode How to color the pattern. {@link DisplayMode#Animate} is drawn like
+     *                    {@link DisplayMode#Correct}.
+     * @param style       The colors and proportions to use.
+     */
+    public PatternThumbnailDrawable(List<Cell> pattern, DisplayMode displayMode, Style style) {
+        mPattern = new ArrayList<>(pattern);
+        mPackedPattern = PatternLockUtils.packPattern(pattern);
+        mDisplayMode = displayMode == DisplayMode.Wrong ? DisplayMode.Wrong : DisplayMode.Correct;
+        mStyle = style;
+    }
+
+    /**
+     * Evict all cached thumbnails, e.g. when the system is low on memory.
+     */
+    public static void clearCache() {
+        sCache.evictAll();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        final Key key = mKey;
+        if (key == null) {
+            return;
+        }
+        final Bitmap bitmap = sCache.get(key);
+        if (bitmap == null) {
+            if (sQueue.add(key, this)) {
+                sExecutor.execute(sRenderNewest);
+            }
+            return;
+        }
+        final Rect bounds = getBounds();
+        canvas.drawBitmap(bitmap, bounds.left, bounds.top, mPaint);
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        mPaint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        mPaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        final boolean changed = super.setVisible(visible, restart);
+        if (!visible && mKey != null) {
+            sQueue.remove(mKey, this);
+        }
+        return changed;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        final int width = bounds.width();
+        final int height = bounds.height();
+        if (width <= 0 || height <= 0) {
+            if (mKey != null) {
+                sQueue.remove(mKey, this);
+            }
+            mKey = null;
+        } else if (mKey == null || mKey.mWidth != width || mKey.mHeight != height) {
+            if (mKey != null) {
+                sQueue.remove(mKey, this);
+            }
+            mKey = new Key(mPattern, mPackedPattern, width, height, mDisplayMode, mStyle);
+        }
+    }
+
+    /**
+     * Render the thumbnail for the given key. Safe to call from any thread.
+     */
+    private static Bitmap render(Key key) {
+        final List<Cell> pattern = key.mPattern;
+        final Style style = key.mStyle;
+        final float squareWidth = key.mWidth / 3f;
+        final float squareHeight = key.mHeight / 3f;
+        final float[] cellCenterX = new float[3];
+        final float[] cellCenterY = new float[3];
+        final CellState[][] cellStates = new CellState[3][3];
+        final boolean[][] drawLookup = new boolean[3][3];
+        for (int i = 0; i < 3; i++) {
+            cellCenterX[i] = i * squareWidth + squareWidth / 2f;
+            cellCenterY[i] = i * squareHeight + squareHeight / 2f;
+            for (int j = 0; j < 3; j++) {
+                cellStates[i][j] = new CellState();
+                cellStates[i][j].radius = style.mDotRadius * squareWidth;
+                cellStates[i][j].row = i;
+                cellStates[i][j].col = j;
+            }
+        }
+        for (Cell cell : pattern) {
+            drawLookup[cell.row][cell.column] = true;
+        }
+
+        final PatternRenderState state = new PatternRenderState(cellStates, pattern, drawLookup, cellCenterX, cellCenterY);
+        state.mDisplayMode = key.mDisplayMode;
+        state.mPathWidth = style.mPathWidth * squareWidth;
+        state.mSquareWidth = squareWidth;
+        state.mRegularColor = style.mRegularColor;
+        state.mSuccessColor = style.mSuccessColor;
+        state.mErrorColor = style.mErrorColor;
+
+        final Paint dotPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        final Paint pathPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        pathPaint.setStyle(Paint.Style.STROKE);
+        pathPaint.setStrokeJoin(Paint.Join.ROUND);
+        pathPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        final Bitmap bitmap = Bitmap.createBitmap(key.mWidth, key.mHeight, Bitmap.Config.ARGB_8888);
+        final CanvasPatternSurface surface = new CanvasPatternSurface(dotPaint, pathPaint);
+        surface.setCanvas(new Canvas(bitmap));
+        sRenderer.render(state, surface);
+        return bitmap;
+    }
+
+    /**
+     * Cache a finished thumbnail and invalidate the drawables waiting for it. If rendering
+     * failed, the key is only forgotten, so that it is requested again the next time it is drawn.
+     * Must be called on the main thread.
+     */
+    private static void onRendered(Key key, Bitmap bitmap) {
+        final List<PatternThumbnailDrawable> waiting = sQueue.finish(key);
+        if (bitmap == null) {
+            return;
+        }
+        sCache.put(key, bitmap);
+        for (int i = 0; i < waiting.size(); i++) {
+            waiting.get(i).invalidateSelf();
+        }
+    }
+
+    /**
+     * Identifies a rendered thumbnail in the cache.
+     */
+    private static final class Key {
+        /**
+         * @param pattern The pattern to render. It is not part of the key's identity, which uses
+         *                the packed pattern instead.
+         */
+        Key(List<Cell> pattern, long packedPattern, int width, int height, DisplayMode displayMode, Style style) {
+            mPattern = pattern;
+            mPackedPattern = packedPattern;
+            mWidth = width;
+            mHeight = height;
+            mDisplayMode = displayMode;
+            mStyle = style;
+            int hash = (int) (packedPattern ^ (packedPattern >>> 32));
+            hash = 31 * hash + width;
+            hash = 31 * hash + height;
+            hash = 31 * hash + displayMode.ordinal();
+            hash = 31 * hash + style.hashCode();
+            mHash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return mPackedPattern == other.mPackedPattern && mWidth == other.mWidth && mHeight == other.mHeight && mDisplayMode == other.mDisplayMode && mStyle.equals(other.mStyle);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+
+        private final DisplayMode mDisplayMode;
+        private final List<Cell> mPattern;
+        private final Style mStyle;
+        private final int mHash;
+        private final int mHeight;
+        private final int mWidth;
+        private final long mPackedPattern;
+    }
+
+    /**
+     * Thumbnails share an eighth of the heap, counted in kilobytes.
+     */
+    private static final LruCache<Key, Bitmap> sCache = new LruCache<Key, Bitmap>((int) (Runtime.getRuntime().maxMemory() / 1024 / 8)) {
+        @Override
+        protected int sizeOf(Key key, Bitmap bitmap) {
+            return Math.max(1, bitmap.getRowBytes() * bitmap.getHeight() / 1024);
+        }
+    };
+    private static final DefaultPatternRenderer sRenderer = new DefaultPatternRenderer();
+    private static final Executor sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "PatternThumbnailRenderer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+    /**
+     * Thumbnails waiting to be rendered, and the drawables waiting for them.
+     */
+    private static final ThumbnailRenderQueue<Key, PatternThumbnailDrawable> sQueue = new ThumbnailRenderQueue<>();
+    /**
+     * Executed once per key queued in {@link #sQueue}; renders whichever key is newest by then.
+     */
+    private static final Runnable sRenderNewest = new Runnable() {
+        @Override
+        public void run() {
+            final Key key = sQueue.takeNewest();
+            if (key == null) {
+                return;
+            }
+            Bitmap bitmap = null;
+            try {
+                bitmap = render(key);
+            } finally {
+                final Bitmap result = bitmap;
+                sMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onRendered(key, result);
+                    }
+                });
+            }
+        }
+    };
+    private final ArrayList<Cell> mPattern;
+    private final DisplayMode mDisplayMode;
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Style mStyle;
+    private final long mPackedPattern;
+    private Key mKey;
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import java.util.Arrays;
+
+/**
+ * A {@link PatternSurface} backed by a plain ARGB pixel array.
+ * <p>
+ * This does not touch any Android graphics classes, so a {@link PatternRenderer} can be run (and
+ * timed, or compared against golden images) on a plain JVM. Shapes are anti-aliased by pixel
+ * coverage and blended with source-over. Sprites are drawn unscaled and unfiltered, snapped to the
+ * nearest pixel, like a canvas draws a bitmap without a filtering paint.
+ */
+public final class RasterPatternSurface implements PatternSurface {
+    public RasterPatternSurface(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be positive");
+        }
+        mWidth = width;
+        mHeight = height;
+        mPixels = new int[width * height];
+        setClip(0, 0, width, height);
+    }
+
+    /**
+     * Fills the whole surface (ignoring the clip) with the given color.
+     */
+    public void clear(int color) {
+        Arrays.fill(mPixels, color);
+    }
+
+    @Override
+    public void drawSprite(PatternSprite sprite, float centerX, float centerY, int color) {
+        final int spriteWidth = sprite.getWidth();
+        final int spriteHeight = sprite.getHeight();
+        final int originX = Math.round(centerX - spriteWidth / 2f);
+        final int originY = Math.round(centerY - spriteHeight / 2f);
+        final int left = Math.max(mClipLeft, originX);
+        final int top = Math.max(mClipTop, originY);
+        final int right = Math.min(mClipRight, originX + spriteWidth);
+        final int bottom = Math.min(mClipBottom, originY + spriteHeight);
+        final int paintAlpha = color >>> 24;
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                final int src = sprite.getPixel(x - originX, y - originY);
+                final int alpha = (src >>> 24) * paintAlpha / 255;
+                blend(x, y, (alpha << 24) | (src & 0xFFFFFF), 1f);
+            }
+        }
+    }
+
+    @Override
+    public void drawCircle(float centerX, float centerY, float radius, int color) {
+        final int left = Math.max(mClipLeft, (int) Math.floor(centerX - radius - 1));
+        final int top = Math.max(mClipTop, (int) Math.floor(centerY - radius - 1));
+        final int right = Math.min(mClipRight, (int) Math.ceil(centerX + radius + 1));
+        final int bottom = Math.min(mClipBottom, (int) Math.ceil(centerY + radius + 1));
+        for (int y = top; y < bottom; y++) {
+            final float dy = y + 0.5f - centerY;
+            for (int x = left; x < right; x++) {
+                final float dx = x + 0.5f - centerX;
+                final float dist = (float) Math.sqrt(dx * dx + dy * dy);
+                blend(x, y, color, radius + 0.5f - dist);
+            }
+        }
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float endX, float endY, float width, int color) {
+        final float halfWidth = width / 2f;
+        final int left = Math.max(mClipLeft, (int) Math.floor(Math.min(startX, endX) - halfWidth - 1));
+        final int top = Math.max(mClipTop, (int) Math.floor(Math.min(startY, endY) - halfWidth - 1));
+        final int right = Math.min(mClipRight, (int) Math.ceil(Math.max(startX, endX) + halfWidth + 1));
+        final int bottom = Math.min(mClipBottom, (int) Math.ceil(Math.max(startY, endY) + halfWidth + 1));
+        final float segX = endX - startX;
+        final float segY = endY - startY;
+        final float segLengthSquared = segX * segX + segY * segY;
+        for (int y = top; y < bottom; y++) {
+            final float py = y + 0.5f - startY;
+            for (int x = left; x < right; x++) {
+                final float px = x + 0.5f - startX;
+                // Distance from the pixel center to the closest point of the segment; this gives
+                // round caps for free.
+                float t = segLengthSquared > 0 ? (px * segX + py * segY) / segLengthSquared : 0;
+                t = Math.max(0, Math.min(1, t));
+                final float dx = px - t * segX;
+                final float dy = py - t * segY;
+                final float dist = (float) Math.sqrt(dx * dx + dy * dy);
+                blend(x, y, color, halfWidth + 0.5f - dist);
+            }
+        }
+    }
+
+    @Override
+    public float getSpriteRadius(PatternSprite sprite) {
+        return Math.max(sprite.getWidth(), sprite.getHeight()) / 2f;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public int getPixel(int x, int y) {
+        return mPixels[y * mWidth + x];
+    }
+
+    /**
+     * @return The backing pixel array, in row-major ARGB order. This is not a copy.
+     */
+    public int[] getPixels() {
+        return mPixels;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public boolean isOutside(float left, float top, float right, float bottom) {
+        return right < mClipLeft || left > mClipRight || bottom < mClipTop || top > mClipBottom;
+    }
+
+    /**
+     * Restricts drawing to the given rectangle, like a canvas clip. The right and bottom edges
+     * are exclusive.
+     */
+    public void setClip(int left, int top, int right, int bottom) {
+        mClipLeft = Math.max(0, left);
+        mClipTop = Math.max(0, top);
+        mClipRight = Math.min(mWidth, right);
+        mClipBottom = Math.min(mHeight, bottom);
+    }
+
+    private void blend(int x, int y, int color, float coverage) {
+        if (coverage <= 0) {
+            return;
+        }
+        final float srcA = (color >>> 24) / 255f * Math.min(1f, coverage);
+        if (srcA <= 0) {
+            return;
+        }
+        final int index = y * mWidth + x;
+        final int dst = mPixels[index];
+        final float dstA = (dst >>> 24) / 255f;
+        final float outA = srcA + dstA * (1 - srcA);
+        final int r = blendChannel((color >> 16) & 0xFF, (dst >> 16) & 0xFF, srcA, dstA, outA);
+        final int g = blendChannel((color >> 8) & 0xFF, (dst >> 8) & 0xFF, srcA, dstA, outA);
+        final int b = blendChannel(color & 0xFF, dst & 0xFF, srcA, dstA, outA);
+        mPixels[index] = (Math.round(outA * 255) << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int blendChannel(int src, int dst, float srcA, float dstA, float outA) {
+        return Math.round((src * srcA + dst * dstA * (1 - srcA)) / outA);
+    }
+
+    private final int mHeight;
+    private final int mWidth;
+    private final int[] mPixels;
+    private int mClipBottom;
+    private int mClipLeft;
+    private int mClipRight;
+    private int mClipTop;
+}
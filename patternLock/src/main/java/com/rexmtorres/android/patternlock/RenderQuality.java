@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+/**
+ * The rendering quality tiers of {@link PatternLockView}, and the logic that picks one from
+ * measured frame times.
+ * <p>
+ * When frames keep going over budget the view steps down one tier at a time, each one cheaper
+ * than the last. It steps back up once there has been enough headroom for a while.
+ * <p>
+ * A frame is over budget when drawing it takes too long, or when it comes late after a frame that
+ * asked to be followed right away (i.e. while animating). The time between other frames only says
+ * how often something changed, e.g. how often touch events arrived, so it is not counted.
+ *
+ * @see PatternLockView#getRenderQualityTier()
+ * @see PatternLockView#setFrameBudget(long)
+ */
+public final class RenderQuality {
+    /**
+     * Anti-aliased, dithered paint and all animations.
+     */
+    public static final int TIER_FULL = 0;
+    /**
+     * Dithering is turned off.
+     */
+    public static final int TIER_NO_DITHER = 1;
+    /**
+     * Dots are drawn from a cached sprite instead of being rasterized every frame.
+     */
+    public static final int TIER_SPRITES = 2;
+    /**
+     * Dot animations run for half as long.
+     */
+    public static final int TIER_SHORT_ANIMATIONS = 3;
+    /**
+     * The line no longer animates towards a newly added cell.
+     */
+    public static final int TIER_NO_LINE_END_ANIMATION = 4;
+
+    /**
+     * @param frameBudgetNanos The time a frame is allowed to take, in nanoseconds.
+     */
+    RenderQuality(long frameBudgetNanos) {
+        mFrameBudgetNanos = frameBudgetNanos;
+    }
+
+    long getFrameBudgetNanos() {
+        return mFrameBudgetNanos;
+    }
+
+    int getTier() {
+        return mTier;
+    }
+
+    /**
+     * Record a frame.
+     *
+     * @param frameStartNanos When drawing of the frame started.
+     * @param drawNanos       How long drawing took.
+     * @param continuous      Whether the previous frame asked for this one to be drawn on the
+     *                        next vsync, so the time since then is the time the frame took.
+     *
+     * @return Whether the tier changed.
+     */
+    boolean onFrame(long frameStartNanos, long drawNanos, boolean continuous) {
+        final long budget = mFrameBudgetNanos;
+        final long interval = mHasLastFrame && continuous ? frameStartNanos - mLastFrameStartNanos : 0;
+        mLastFrameStartNanos = frameStartNanos;
+        mHasLastFrame = true;
+
+        mDrawNanos = mDrawNanos < 0 ? drawNanos : mDrawNanos + (drawNanos - mDrawNanos) / SMOOTHING;
+        // Long gaps just mean nothing was being redrawn, so they say nothing about performance.
+        if (interval > 0 && interval < budget * IDLE_FACTOR) {
+            mIntervalNanos = mIntervalNanos < 0 ? interval : mIntervalNanos + (interval - mIntervalNanos) / SMOOTHING;
+        }
+
+        final boolean overBudget = mDrawNanos > budget / 2 || mIntervalNanos > budget + budget / 4;
+        final boolean headroom = mDrawNanos < budget / 4 && (mIntervalNanos < 0 || mIntervalNanos <= budget + budget / 20);
+        if (overBudget) {
+            mHeadroomFrames = 0;
+            if (++mOverBudgetFrames >= FRAMES_TO_STEP_DOWN && mTier < TIER_NO_LINE_END_ANIMATION) {
+                setTier(mTier + 1);
+                return true;
+            }
+        } else if (headroom) {
+            mOverBudgetFrames = 0;
+            if (++mHeadroomFrames >= FRAMES_TO_STEP_UP && mTier > TIER_FULL) {
+                setTier(mTier - 1);
+                return true;
+            }
+        } else {
+            mOverBudgetFrames = 0;
+            mHeadroomFrames = 0;
+        }
+        return false;
+    }
+
+    /**
+     * Go back to {@link #TIER_FULL} and forget all measurements.
+     */
+    void reset() {
+        setTier(TIER_FULL);
+        mHasLastFrame = false;
+    }
+
+    void setFrameBudgetNanos(long frameBudgetNanos) {
+        mFrameBudgetNanos = frameBudgetNanos;
+    }
+
+    private void setTier(int tier) {
+        mTier = tier;
+        // Measure the new tier from scratch
+        mDrawNanos = -1;
+        mIntervalNanos = -1;
+        mOverBudgetFrames = 0;
+        mHeadroomFrames = 0;
+    }
+
+    /**
+     * Consecutive over budget frames before stepping down a tier.
+     */
+    private static final int FRAMES_TO_STEP_DOWN = 8;
+    /**
+     * Consecutive frames with headroom before stepping up a tier (about 2 seconds at 60 fps).
+     */
+    private static final int FRAMES_TO_STEP_UP = 120;
+    /**
+     * Frames further apart than this many budgets are not considered consecutive.
+     */
+    private static final int IDLE_FACTOR = 4;
+    /**
+     * Weight of the moving averages; each frame moves the average 1/SMOOTHING of the way.
+     */
+    private static final int SMOOTHING = 5;
+    private boolean mHasLastFrame;
+    private int mHeadroomFrames;
+    private int mOverBudgetFrames;
+    private int mTier = TIER_FULL;
+    private long mDrawNanos = -1;
+    private long mFrameBudgetNanos;
+    private long mIntervalNanos = -1;
+    private long mLastFrameStartNanos;
+}
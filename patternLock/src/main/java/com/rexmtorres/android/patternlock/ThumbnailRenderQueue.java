@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2016.
+ *
+ * Rex M. Torres <rexmtorres@gmail.com>
+ */
+
+package com.rexmtorres.android.patternlock;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps track of the thumbnails {@link PatternThumbnailDrawable} renders in the background: which
+ * are waiting to be rendered, which are being rendered, and who is waiting for each of them.
+ * <p>
+ * Waiting thumbnails are handed out newest first, so that when a list is flung the rows that
+ * just came into view are rendered before the ones that have already scrolled past. A thumbnail
+ * that nobody waits for anymore (every waiter was removed or garbage collected) is dropped
+ * before it is rendered.
+ * <p>
+ * This may be used from any thread.
+ *
+ * @param <K> The type of the keys identifying thumbnails.
+ * @param <W> The type of the waiters. Waiters are only weakly referenced.
+ */
+final class ThumbnailRenderQueue<K, W> {
+    /**
+     * Registers a waiter for the given key, queueing the key if it is neither waiting nor being
+     * rendered.
+     *
+     * @return Whether the key was queued, in which case the caller must arrange for one more
+     * call to {@link #takeNewest()}.
+     */
+    synchronized boolean add(K key, W waiter) {
+        Entry<W> entry = mEntries.get(key);
+        final boolean queued = entry == null;
+        if (queued) {
+            entry = new Entry<>();
+            mEntries.put(key, entry);
+            mQueued.add(key);
+        }
+        if (!entry.contains(waiter)) {
+            entry.mWaiters.add(new WeakReference<>(waiter));
+        }
+        return queued;
+    }
+
+    /**
+     * Called once a render of the given key has finished, whether it succeeded or not.
+     *
+     * @return The waiters that are still around, which may be empty.
+     */
+    synchronized List<W> finish(K key) {
+        final Entry<W> entry = mEntries.remove(key);
+        final ArrayList<W> waiters = new ArrayList<>();
+        if (entry != null) {
+            for (WeakReference<W> reference : entry.mWaiters) {
+                final W waiter = reference.get();
+                if (waiter != null) {
+                    waiters.add(waiter);
+                }
+            }
+        }
+        return waiters;
+    }
+
+    /**
+     * @return The number of keys waiting to be rendered, not counting those being rendered.
+     */
+    synchronized int getQueuedCount() {
+        return mQueued.size();
+    }
+
+    /**
+     * @return Whether the key is waiting to be rendered or being rendered.
+     */
+    synchronized boolean isPending(K key) {
+        return mEntries.containsKey(key);
+    }
+
+    /**
+     * Unregisters a waiter, e.g. because it is no longer shown. If nobody is left waiting for
+     * the key and it has not started rendering yet, it is dropped.
+     */
+    synchronized void remove(K key, W waiter) {
+        final Entry<W> entry = mEntries.get(key);
+        if (entry == null) {
+            return;
+        }
+        for (int i = entry.mWaiters.size() - 1; i >= 0; i--) {
+            if (entry.mWaiters.get(i).get() == waiter) {
+                entry.mWaiters.remove(i);
+            }
+        }
+        if (!entry.mStarted && !entry.hasWaiters()) {
+            mEntries.remove(key);
+            mQueued.remove(key);
+        }
+    }
+
+    /**
+     * Takes the most recently queued key that is still waited for, and marks it as being
+     * rendered. The render must be followed by a call to {@link #finish(Object)}.
+     *
+     * @return The key to render, or null if there is nothing left to render.
+     */
+    synchronized K takeNewest() {
+        while (!mQueued.isEmpty()) {
+            final K key = mQueued.remove(mQueued.size() - 1);
+            final Entry<W> entry = mEntries.get(key);
+            if (entry.hasWaiters()) {
+                entry.mStarted = true;
+                return key;
+            }
+            mEntries.remove(key);
+        }
+        return null;
+    }
+
+    private static final class Entry<W> {
+        boolean contains(W waiter) {
+            for (WeakReference<W> reference : mWaiters) {
+                if (reference.get() == waiter) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Also forgets the waiters that have been garbage collected.
+         */
+        boolean hasWaiters() {
+            for (int i = mWaiters.size() - 1; i >= 0; i--) {
+                if (mWaiters.get(i).get() == null) {
+                    mWaiters.remove(i);
+                }
+            }
+            return !mWaiters.isEmpty();
+        }
+
+        final ArrayList<WeakReference<W>> mWaiters = new ArrayList<>(1);
+        boolean mStarted;
+    }
+
+    private final HashMap<K, Entry<W>> mEntries = new HashMap<>();
+    /**
+     * The keys that have not started rendering, oldest first.
+     */
+    private final ArrayList<K> mQueued = new ArrayList<>();
+}
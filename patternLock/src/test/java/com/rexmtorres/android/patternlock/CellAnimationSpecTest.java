@@ -0,0 +1,124 @@
+package com.rexmtorres.android.patternlock;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CellAnimationSpecTest {
+    @Test
+    public void staggersByRow() {
+        CellAnimationSpec spec = new CellAnimationSpec.Builder()
+                .alpha(0f, 1f)
+                .duration(200)
+                .startDelay(10)
+                .stagger(CellAnimationSpec.STAGGER_ROW, 50)
+                .build();
+
+        assertEquals(10, spec.getStartDelay(0));
+        assertEquals(10, spec.getStartDelay(2));
+        assertEquals(60, spec.getStartDelay(3));
+        assertEquals(110, spec.getStartDelay(8));
+        assertEquals(310, spec.getTotalDuration());
+        assertEquals(8, spec.getLastCell());
+    }
+
+    @Test
+    public void staggersByColumn() {
+        CellAnimationSpec spec = new CellAnimationSpec.Builder()
+                .scale(0f, 1f)
+                .stagger(CellAnimationSpec.STAGGER_COLUMN, 40)
+                .build();
+
+        assertEquals(0, spec.getStartDelay(6));
+        assertEquals(40, spec.getStartDelay(1));
+        assertEquals(80, spec.getStartDelay(5));
+    }
+
+    @Test
+    public void staggersByDistanceFromOrigin() {
+        CellAnimationSpec spec = new CellAnimationSpec.Builder()
+                .alpha(1f, 0f)
+                .stagger(CellAnimationSpec.STAGGER_DISTANCE, 100)
+                .staggerOrigin(PatternLockView.Cell.of(1, 1))
+                .build();
+
+        assertEquals(0, spec.getStartDelay(4));
+        assertEquals(100, spec.getStartDelay(1));
+        assertEquals(141, spec.getStartDelay(0));
+        assertEquals(141, spec.getStartDelay(8));
+    }
+
+    @Test
+    public void onlySetTracksAreAnimated() {
+        CellAnimationSpec spec = new CellAnimationSpec.Builder()
+                .translationY(20f, 0f)
+                .alpha(0f, 1f)
+                .build();
+
+        assertTrue(spec.hasTrack(CellAnimator.TRACK_ALPHA));
+        assertTrue(spec.hasTrack(CellAnimator.TRACK_TRANSLATION_Y));
+        assertFalse(spec.hasTrack(CellAnimator.TRACK_RADIUS));
+        assertEquals(20f, spec.getFrom(CellAnimator.TRACK_TRANSLATION_Y), 0f);
+        assertEquals(1 << CellAnimator.TRACK_ALPHA | 1 << CellAnimator.TRACK_TRANSLATION_Y, spec.getTrackMask());
+    }
+
+    @Test
+    public void builtSpecIsNotAffectedByBuilder() {
+        CellAnimationSpec.Builder builder = new CellAnimationSpec.Builder().alpha(0f, 1f);
+        CellAnimationSpec spec = builder.build();
+        builder.alpha(0.5f, 1f).scale(0f, 1f);
+
+        assertEquals(0f, spec.getFrom(CellAnimator.TRACK_ALPHA), 0f);
+        assertFalse(spec.hasTrack(CellAnimator.TRACK_RADIUS));
+    }
+
+    @Test
+    public void keyframeTrackEndsAtItsFirstAndLastValues() {
+        float[] fractions = {0f, 0.4f, 1f};
+        float[] values = {1f, 1.5f, 0f};
+        CellAnimationSpec spec = new CellAnimationSpec.Builder()
+                .scaleKeyframes(fractions, values)
+                .alpha(0f, 1f)
+                .build();
+        fractions[1] = 0.9f;
+        values[1] = 3f;
+
+        assertTrue(spec.hasTrack(CellAnimator.TRACK_RADIUS));
+        assertEquals(1f, spec.getFrom(CellAnimator.TRACK_RADIUS), 0f);
+        assertEquals(0f, spec.getTo(CellAnimator.TRACK_RADIUS), 0f);
+        assertArrayEquals(new float[] {0f, 0.4f, 1f}, spec.getKeyFractions(CellAnimator.TRACK_RADIUS), 0f);
+        assertArrayEquals(new float[] {1f, 1.5f, 0f}, spec.getKeyValues(CellAnimator.TRACK_RADIUS), 0f);
+        assertNull(spec.getKeyValues(CellAnimator.TRACK_ALPHA));
+    }
+
+    @Test
+    public void straightTrackReplacesKeyframes() {
+        CellAnimationSpec spec = new CellAnimationSpec.Builder()
+                .translationYKeyframes(new float[] {0f, 1f}, new float[] {10f, 0f})
+                .translationY(20f, 0f)
+                .build();
+
+        assertNull(spec.getKeyFractions(CellAnimator.TRACK_TRANSLATION_Y));
+        assertEquals(20f, spec.getFrom(CellAnimator.TRACK_TRANSLATION_Y), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsKeyframesNotEndingAtOne() {
+        new CellAnimationSpec.Builder().alphaKeyframes(new float[] {0f, 0.5f}, new float[] {0f, 1f});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsKeyframesGoingBack() {
+        new CellAnimationSpec.Builder().alphaKeyframes(new float[] {0f, 0.6f, 0.3f, 1f}, new float[] {0f, 1f, 0f, 1f});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedKeyframeValues() {
+        new CellAnimationSpec.Builder().alphaKeyframes(new float[] {0f, 1f}, new float[] {0f, 0.5f, 1f});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownStagger() {
+        new CellAnimationSpec.Builder().stagger(42, 10);
+    }
+}
@@ -0,0 +1,205 @@
+package com.rexmtorres.android.patternlock;
+
+import android.view.animation.Interpolator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CellAnimatorTest {
+    private static final float DELTA = 1e-4f;
+
+    @Test
+    public void interpolatesLinearlyWithoutInterpolator() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(4, CellAnimator.TRACK_ALPHA, 0f, 1f, 1000, 100, null);
+
+        assertTrue(animator.advance(1025));
+        assertTrue(animator.isUpdated(4, CellAnimator.TRACK_ALPHA));
+        assertEquals(0.25f, animator.getValue(4, CellAnimator.TRACK_ALPHA), DELTA);
+        // Other tracks and cells are left alone
+        assertFalse(animator.isUpdated(4, CellAnimator.TRACK_RADIUS));
+        assertFalse(animator.isUpdated(3, CellAnimator.TRACK_ALPHA));
+    }
+
+    @Test
+    public void finishesAtEndValue() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(0, CellAnimator.TRACK_TRANSLATION_Y, 10f, -10f, 0, 100, null);
+        CellAnimator.Completion completion = new CellAnimator.Completion();
+        Runnable runnable = new NoOpRunnable();
+        completion.watch(animator, 0, 1 << CellAnimator.TRACK_TRANSLATION_Y, runnable);
+
+        assertFalse(animator.advance(250));
+        assertEquals(-10f, animator.getValue(0, CellAnimator.TRACK_TRANSLATION_Y), DELTA);
+        assertFalse(animator.isRunning(0, CellAnimator.TRACK_TRANSLATION_Y));
+        assertSame(runnable, completion.poll(animator));
+        assertNull(completion.poll(animator));
+
+        // Nothing left to update
+        assertFalse(animator.advance(300));
+        assertFalse(animator.isUpdated(0, CellAnimator.TRACK_TRANSLATION_Y));
+    }
+
+    @Test
+    public void waitsForStartDelay() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(2, CellAnimator.TRACK_RADIUS, 5f, 10f, 100, 100, null);
+
+        assertTrue(animator.advance(50));
+        assertFalse(animator.isUpdated(2, CellAnimator.TRACK_RADIUS));
+        assertEquals(5f, animator.getValue(2, CellAnimator.TRACK_RADIUS), DELTA);
+    }
+
+    @Test
+    public void queuedSegmentStartsWhereFirstEnded() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(1, CellAnimator.TRACK_RADIUS, 5f, 10f, 0, 100, null);
+        animator.queue(1, CellAnimator.TRACK_RADIUS, 5f, 200, null);
+        CellAnimator.Completion completion = new CellAnimator.Completion();
+        Runnable runnable = new NoOpRunnable();
+        completion.watch(animator, 1, 1 << CellAnimator.TRACK_RADIUS, runnable);
+
+        assertTrue(animator.advance(110));
+        assertEquals(10f, animator.getValue(1, CellAnimator.TRACK_RADIUS), DELTA);
+        assertFalse(animator.hasQueued(1, CellAnimator.TRACK_RADIUS));
+        // The queued segment is part of what the completion waits for
+        assertNull(completion.poll(animator));
+
+        // The second segment is timed from the end of the first, not from the frame above
+        assertTrue(animator.advance(200));
+        assertEquals(7.5f, animator.getValue(1, CellAnimator.TRACK_RADIUS), DELTA);
+        assertFalse(animator.advance(300));
+        assertEquals(5f, animator.getValue(1, CellAnimator.TRACK_RADIUS), DELTA);
+        assertSame(runnable, completion.poll(animator));
+    }
+
+    @Test
+    public void interpolatesBetweenKeyframes() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(3, CellAnimator.TRACK_RADIUS, new float[] {0f, 0.25f, 1f}, new float[] {1f, 2f, 0f}, 10f, 0, 100, null);
+        assertEquals(10f, animator.getValue(3, CellAnimator.TRACK_RADIUS), DELTA);
+
+        animator.advance(10);
+        assertEquals(14f, animator.getValue(3, CellAnimator.TRACK_RADIUS), DELTA);
+        animator.advance(25);
+        assertEquals(20f, animator.getValue(3, CellAnimator.TRACK_RADIUS), DELTA);
+        animator.advance(70);
+        assertEquals(8f, animator.getValue(3, CellAnimator.TRACK_RADIUS), DELTA);
+        assertFalse(animator.advance(100));
+        assertEquals(0f, animator.getValue(3, CellAnimator.TRACK_RADIUS), DELTA);
+    }
+
+    @Test
+    public void overshootGoesOnPastLastKeyframe() {
+        CellAnimator animator = new CellAnimator(9);
+        Interpolator overshoot = new Interpolator() {
+            @Override
+            public float getInterpolation(float input) {
+                return input * 1.5f;
+            }
+        };
+        animator.start(0, CellAnimator.TRACK_ALPHA, new float[] {0f, 0.5f, 1f}, new float[] {0f, 1f, 2f}, 1f, 0, 100, overshoot);
+
+        animator.advance(100);
+        assertEquals(3f, animator.getValue(0, CellAnimator.TRACK_ALPHA), DELTA);
+    }
+
+    @Test
+    public void segmentStartedAfterKeyframesIsStraight() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(5, CellAnimator.TRACK_ALPHA, new float[] {0f, 0.5f, 1f}, new float[] {0f, 1f, 0f}, 1f, 0, 100, null);
+        animator.queue(5, CellAnimator.TRACK_ALPHA, 1f, 100, null);
+
+        animator.advance(100);
+        animator.advance(150);
+        assertEquals(0.5f, animator.getValue(5, CellAnimator.TRACK_ALPHA), DELTA);
+
+        animator.start(5, CellAnimator.TRACK_ALPHA, 0f, 1f, 200, 100, null);
+        animator.advance(275);
+        assertEquals(0.75f, animator.getValue(5, CellAnimator.TRACK_ALPHA), DELTA);
+    }
+
+    @Test
+    public void cancelStopsTrackAndDropsQueue() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(8, CellAnimator.TRACK_LINE_END, 0f, 1f, 0, 100, null);
+        animator.queue(8, CellAnimator.TRACK_LINE_END, 0f, 100, null);
+        animator.advance(50);
+        animator.cancel(8, CellAnimator.TRACK_LINE_END);
+
+        assertFalse(animator.advance(500));
+        assertFalse(animator.hasQueued(8, CellAnimator.TRACK_LINE_END));
+        assertFalse(animator.isRunning(8, CellAnimator.TRACK_LINE_END));
+        assertEquals(0.5f, animator.getValue(8, CellAnimator.TRACK_LINE_END), DELTA);
+    }
+
+    @Test
+    public void completionWaitsForEveryWatchedTrack() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(8, CellAnimator.TRACK_ALPHA, 0f, 1f, 0, 100, null);
+        animator.start(8, CellAnimator.TRACK_TRANSLATION_Y, 0f, 1f, 0, 200, null);
+        CellAnimator.Completion completion = new CellAnimator.Completion();
+        Runnable runnable = new NoOpRunnable();
+        assertNull(completion.watch(animator, 8, 1 << CellAnimator.TRACK_ALPHA | 1 << CellAnimator.TRACK_TRANSLATION_Y, runnable));
+
+        animator.advance(150);
+        assertNull(completion.poll(animator));
+        animator.advance(200);
+        assertSame(runnable, completion.poll(animator));
+        assertNull(completion.poll(animator));
+    }
+
+    @Test
+    public void completionIgnoresTracksItDoesNotWatch() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(8, CellAnimator.TRACK_ALPHA, 0f, 1f, 0, 100, null);
+        CellAnimator.Completion completion = new CellAnimator.Completion();
+        Runnable runnable = new NoOpRunnable();
+        completion.watch(animator, 8, 1 << CellAnimator.TRACK_ALPHA, runnable);
+
+        // e.g. the dot animation of a cell that was just added to the pattern
+        animator.start(8, CellAnimator.TRACK_RADIUS, 0f, 1f, 0, 50, null);
+        animator.advance(50);
+        assertNull(completion.poll(animator));
+        animator.advance(100);
+        assertSame(runnable, completion.poll(animator));
+    }
+
+    @Test
+    public void completionIsOverWhenTrackIsReplaced() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(2, CellAnimator.TRACK_ALPHA, 0f, 1f, 0, 100, null);
+        CellAnimator.Completion completion = new CellAnimator.Completion();
+        Runnable runnable = new NoOpRunnable();
+        completion.watch(animator, 2, 1 << CellAnimator.TRACK_ALPHA, runnable);
+
+        animator.start(2, CellAnimator.TRACK_ALPHA, 1f, 0f, 0, 100, null);
+        assertTrue(animator.isRunning(2, CellAnimator.TRACK_ALPHA));
+        assertSame(runnable, completion.poll(animator));
+
+        completion.watch(animator, 2, 1 << CellAnimator.TRACK_ALPHA, runnable);
+        animator.cancel(2, CellAnimator.TRACK_ALPHA);
+        assertSame(runnable, completion.poll(animator));
+    }
+
+    @Test
+    public void watchHandsBackReplacedRunnable() {
+        CellAnimator animator = new CellAnimator(9);
+        animator.start(0, CellAnimator.TRACK_ALPHA, 0f, 1f, 0, 100, null);
+        CellAnimator.Completion completion = new CellAnimator.Completion();
+        Runnable first = new NoOpRunnable();
+        Runnable second = new NoOpRunnable();
+        completion.watch(animator, 0, 1 << CellAnimator.TRACK_ALPHA, first);
+
+        assertSame(first, completion.watch(animator, 0, 1 << CellAnimator.TRACK_ALPHA, second));
+        assertSame(second, completion.take());
+        assertNull(completion.take());
+    }
+
+    private static class NoOpRunnable implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.rexmtorres.android.patternlock;
+
+import com.rexmtorres.android.patternlock.PatternLockView.Cell;
+import com.rexmtorres.android.patternlock.PatternLockView.CellState;
+import com.rexmtorres.android.patternlock.PatternLockView.DisplayMode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Renders patterns on a {@link RasterPatternSurface}, so this runs on a plain JVM.
+ */
+public class DefaultPatternRendererTest {
+    private static final int SIZE = 300;
+    private static final int BACKGROUND = 0xFF000000;
+    private static final int REGULAR = 0xFFFFFFFF;
+    private static final int SUCCESS = 0xFF00FF00;
+    private static final int ERROR = 0xFFFF0000;
+
+    private final List<Cell> mPattern = new ArrayList<>();
+    private final boolean[][] mDrawLookup = new boolean[3][3];
+    private PatternRenderState mState;
+    private RasterPatternSurface mSurface;
+
+    @Before
+    public void setUp() {
+        CellState[][] cellStates = new CellState[3][3];
+        float[] centers = new float[3];
+        for (int i = 0; i < 3; i++) {
+            centers[i] = SIZE / 6f + i * SIZE / 3f;
+            for (int j = 0; j < 3; j++) {
+                cellStates[i][j] = new CellState();
+                cellStates[i][j].row = i;
+                cellStates[i][j].col = j;
+                cellStates[i][j].radius = 10;
+            }
+        }
+        mState = new PatternRenderState(cellStates, mPattern, mDrawLookup, centers, centers);
+        mState.mRegularColor = REGULAR;
+        mState.mSuccessColor = SUCCESS;
+        mState.mErrorColor = ERROR;
+        mState.mPathWidth = 8;
+        mState.mSquareWidth = SIZE / 3f;
+        mSurface = new RasterPatternSurface(SIZE, SIZE);
+        mSurface.clear(BACKGROUND);
+    }
+
+    @Test
+    public void drawsRegularDotsWithoutPattern() {
+        new DefaultPatternRenderer().render(mState, mSurface);
+
+        assertEquals(REGULAR, mSurface.getPixel(50, 50));
+        assertEquals(REGULAR, mSurface.getPixel(250, 150));
+        // Between the dots
+        assertEquals(BACKGROUND, mSurface.getPixel(100, 50));
+    }
+
+    @Test
+    public void drawsPatternInDisplayModeColor() {
+        setPattern(DisplayMode.Wrong, Cell.of(0, 0), Cell.of(0, 1));
+        new DefaultPatternRenderer().render(mState, mSurface);
+
+        assertEquals(ERROR, mSurface.getPixel(50, 50));
+        assertEquals(ERROR, mSurface.getPixel(150, 50));
+        // On the path between the two dots
+        assertEquals(ERROR, mSurface.getPixel(100, 50));
+        // Not part of the pattern
+        assertEquals(REGULAR, mSurface.getPixel(250, 50));
+        assertEquals(BACKGROUND, mSurface.getPixel(100, 100));
+    }
+
+    @Test
+    public void stealthModeHidesPath() {
+        setPattern(DisplayMode.Correct, Cell.of(0, 0), Cell.of(0, 1));
+        mState.mInStealthMode = true;
+        new DefaultPatternRenderer().render(mState, mSurface);
+
+        assertEquals(REGULAR, mSurface.getPixel(50, 50));
+        assertEquals(BACKGROUND, mSurface.getPixel(100, 50));
+    }
+
+    @Test
+    public void skipsEverythingOutsideClip() {
+        setPattern(DisplayMode.Correct, Cell.of(0, 0), Cell.of(0, 1));
+        mSurface.setClip(200, 200, SIZE, SIZE);
+        new DefaultPatternRenderer().render(mState, mSurface);
+
+        assertEquals(REGULAR, mSurface.getPixel(250, 250));
+        assertEquals(BACKGROUND, mSurface.getPixel(50, 50));
+        assertEquals(BACKGROUND, mSurface.getPixel(100, 50));
+    }
+
+    @Test
+    public void antiAliasesDotEdges() {
+        mState.getCellState(0, 0).radius = 10.25f;
+        new DefaultPatternRenderer().render(mState, mSurface);
+
+        // The pixel straddling the edge of the dot is partially covered.
+        int edge = mSurface.getPixel(60, 50);
+        assertTrue((edge & 0xFF) > 0 && (edge & 0xFF) < 0xFF);
+    }
+
+    @Test
+    public void drawsSpriteInPlaceOfDot() {
+        final int sprite = 0xFF0000FF;
+        int[] pixels = new int[4 * 4];
+        Arrays.fill(pixels, sprite);
+        // A transparent corner shows what is under the sprite
+        pixels[0] = 0;
+        mState.getCellState(0, 0).dotSprite = PatternSprite.fromPixels(4, 4, pixels);
+        new DefaultPatternRenderer().render(mState, mSurface);
+
+        assertEquals(sprite, mSurface.getPixel(50, 50));
+        assertEquals(sprite, mSurface.getPixel(51, 51));
+        assertEquals(BACKGROUND, mSurface.getPixel(48, 48));
+        // The circle is not drawn
+        assertEquals(BACKGROUND, mSurface.getPixel(55, 50));
+        assertEquals(2f, mSurface.getSpriteRadius(mState.getCellState(0, 0).getDotSprite()), 0f);
+    }
+
+    @Test
+    public void appliesCellAlphaToSprite() {
+        int[] pixels = new int[2 * 2];
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        mState.getCellState(0, 0).dotSprite = PatternSprite.fromPixels(2, 2, pixels);
+        mState.getCellState(0, 0).alpha = 0.5f;
+        new DefaultPatternRenderer().render(mState, mSurface);
+
+        int blended = mSurface.getPixel(50, 50);
+        assertEquals(0xFF, blended >>> 24);
+        assertTrue((blended & 0xFF) > 0x70 && (blended & 0xFF) < 0x90);
+    }
+
+    private void setPattern(DisplayMode displayMode, Cell... cells) {
+        for (Cell cell : cells) {
+            mPattern.add(cell);
+            mDrawLookup[cell.getRow()][cell.getColumn()] = true;
+        }
+        mState.mDisplayMode = displayMode;
+    }
+}
@@ -0,0 +1,100 @@
+package com.rexmtorres.android.patternlock;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RenderQualityTest {
+    private static final long BUDGET = 16000000L;
+
+    @Test
+    public void stepsDownWhenDrawingIsSlow() {
+        RenderQuality quality = new RenderQuality(BUDGET);
+        long time = 0;
+        int changes = 0;
+        for (int i = 0; i < 20; i++) {
+            if (quality.onFrame(time, BUDGET, true)) {
+                changes++;
+            }
+            time += BUDGET;
+        }
+        assertEquals(2, changes);
+        assertEquals(RenderQuality.TIER_SPRITES, quality.getTier());
+    }
+
+    @Test
+    public void stepsDownWhenFramesAreLate() {
+        RenderQuality quality = new RenderQuality(BUDGET);
+        long time = 0;
+        for (int i = 0; i < 9; i++) {
+            quality.onFrame(time, BUDGET / 10, true);
+            time += BUDGET * 2;
+        }
+        assertEquals(RenderQuality.TIER_NO_DITHER, quality.getTier());
+    }
+
+    @Test
+    public void neverGoesPastLowestTier() {
+        RenderQuality quality = new RenderQuality(BUDGET);
+        long time = 0;
+        for (int i = 0; i < 1000; i++) {
+            quality.onFrame(time, BUDGET * 2, true);
+            time += BUDGET;
+        }
+        assertEquals(RenderQuality.TIER_NO_LINE_END_ANIMATION, quality.getTier());
+    }
+
+    @Test
+    public void stepsBackUpWithHeadroom() {
+        RenderQuality quality = new RenderQuality(BUDGET);
+        long time = 0;
+        for (int i = 0; i < 8; i++) {
+            quality.onFrame(time, BUDGET, true);
+            time += BUDGET;
+        }
+        assertEquals(RenderQuality.TIER_NO_DITHER, quality.getTier());
+
+        for (int i = 0; i < 119; i++) {
+            quality.onFrame(time, BUDGET / 10, true);
+            time += BUDGET;
+        }
+        assertEquals(RenderQuality.TIER_NO_DITHER, quality.getTier());
+        assertTrue(quality.onFrame(time, BUDGET / 10, true));
+        assertEquals(RenderQuality.TIER_FULL, quality.getTier());
+    }
+
+    @Test
+    public void ignoresIdleGaps() {
+        RenderQuality quality = new RenderQuality(BUDGET);
+        long time = 0;
+        for (int i = 0; i < 20; i++) {
+            quality.onFrame(time, BUDGET / 10, true);
+            // Redrawn once a second; only the draw time counts.
+            time += 1000000000L;
+        }
+        assertEquals(RenderQuality.TIER_FULL, quality.getTier());
+    }
+
+    @Test
+    public void ignoresSparseInvalidations() {
+        RenderQuality quality = new RenderQuality(BUDGET);
+        long time = 0;
+        for (int i = 0; i < 200; i++) {
+            // e.g. a slow drag invalidating every other vsync; nothing asked for the next frame
+            assertFalse(quality.onFrame(time, BUDGET / 10, false));
+            time += BUDGET * 2;
+        }
+        assertEquals(RenderQuality.TIER_FULL, quality.getTier());
+    }
+
+    @Test
+    public void sparseInvalidationsStillCountDrawTime() {
+        RenderQuality quality = new RenderQuality(BUDGET);
+        long time = 0;
+        for (int i = 0; i < 8; i++) {
+            quality.onFrame(time, BUDGET, false);
+            time += BUDGET * 2;
+        }
+        assertEquals(RenderQuality.TIER_NO_DITHER, quality.getTier());
+    }
+}
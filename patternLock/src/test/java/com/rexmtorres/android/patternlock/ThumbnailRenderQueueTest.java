@@ -0,0 +1,81 @@
+package com.rexmtorres.android.patternlock;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ThumbnailRenderQueueTest {
+    private final ThumbnailRenderQueue<String, Object> mQueue = new ThumbnailRenderQueue<>();
+
+    @Test
+    public void queuesEachKeyOnce() {
+        Object first = new Object();
+        Object second = new Object();
+        assertTrue(mQueue.add("a", first));
+        assertFalse(mQueue.add("a", second));
+        assertFalse(mQueue.add("a", first));
+        assertEquals(1, mQueue.getQueuedCount());
+
+        assertEquals("a", mQueue.takeNewest());
+        // Being rendered, so not queued again
+        assertFalse(mQueue.add("a", first));
+        assertNull(mQueue.takeNewest());
+        assertEquals(Arrays.asList(first, second), mQueue.finish("a"));
+        assertFalse(mQueue.isPending("a"));
+    }
+
+    @Test
+    public void takesNewestFirst() {
+        Object waiter = new Object();
+        mQueue.add("a", waiter);
+        mQueue.add("b", waiter);
+        mQueue.add("c", waiter);
+
+        assertEquals("c", mQueue.takeNewest());
+        mQueue.add("d", waiter);
+        assertEquals("d", mQueue.takeNewest());
+        assertEquals("b", mQueue.takeNewest());
+        assertEquals("a", mQueue.takeNewest());
+        assertNull(mQueue.takeNewest());
+    }
+
+    @Test
+    public void dropsKeysNobodyWaitsFor() {
+        Object first = new Object();
+        Object second = new Object();
+        mQueue.add("a", first);
+        mQueue.add("a", second);
+        mQueue.add("b", first);
+
+        mQueue.remove("a", first);
+        assertTrue(mQueue.isPending("a"));
+        mQueue.remove("a", second);
+        assertFalse(mQueue.isPending("a"));
+        assertEquals(1, mQueue.getQueuedCount());
+        assertEquals("b", mQueue.takeNewest());
+        assertNull(mQueue.takeNewest());
+
+        // A key that was dropped can be queued again
+        assertTrue(mQueue.add("a", first));
+    }
+
+    @Test
+    public void keepsKeysBeingRendered() {
+        Object waiter = new Object();
+        mQueue.add("a", waiter);
+        assertEquals("a", mQueue.takeNewest());
+
+        mQueue.remove("a", waiter);
+        assertTrue(mQueue.isPending("a"));
+        assertEquals(Collections.emptyList(), mQueue.finish("a"));
+        assertFalse(mQueue.isPending("a"));
+    }
+
+    @Test
+    public void finishForgetsKeyWithoutWaiters() {
+        assertEquals(Collections.emptyList(), mQueue.finish("unknown"));
+    }
+}